@@ -1,12 +1,18 @@
 package com.kadirkara.auth.config;
 
+import com.kadirkara.auth.service.AuthenticationCache;
+import com.kadirkara.auth.service.AuthenticationCache.VerifiedToken;
+import com.kadirkara.auth.service.TokenDenylist;
 import com.kadirkara.auth.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -14,6 +20,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 
 @Component
@@ -22,29 +29,33 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final AuthenticationCache authenticationCache;
+    private final TokenDenylist tokenDenylist;
+    private final boolean stateless;
 
-    public JwtAuthFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService, AuthenticationCache authenticationCache,
+                         TokenDenylist tokenDenylist, @Value("${auth.jwt.stateless:false}") boolean stateless) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.authenticationCache = authenticationCache;
+        this.tokenDenylist = tokenDenylist;
+        this.stateless = stateless;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        String username = null;
-        String jwt = null;
-        List<SimpleGrantedAuthority> roles = null;
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
             // Bearer .........
-            jwt = authHeader.substring(7);
-            username = jwtUtil.extractUsername(jwt);
-
-        }
-
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.isTokenValid(jwt, userDetails)) {
+            String jwt = authHeader.substring(7);
+            VerifiedToken token = authenticationCache.verifiedToken(jwt);
+            if (token == null) {
+                token = verify(jwt);
+            }
+            if (token != null && !tokenDenylist.isRevoked(token.tokenId())) {
+                UserDetails userDetails = principal(token);
                 var authentication = new org.springframework.security.authentication.UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -54,4 +65,34 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // Parses and verifies the signature once, then remembers the result until the token expires
+    private VerifiedToken verify(String jwt) {
+        Claims claims = jwtUtil.extractAllClaims(jwt);
+        UserDetails userDetails = stateless
+                ? fromClaims(claims)
+                : authenticationCache.user(claims.getSubject(), userDetailsService::loadUserByUsername);
+        if (!jwtUtil.isTokenValid(claims, userDetails)) {
+            return null;
+        }
+        return authenticationCache.cacheToken(jwt, userDetails, claims.getId(), claims.getExpiration().toInstant());
+    }
+
+    // A token outlives the user details it was verified with; outside stateless mode they are looked
+    // up again, so role changes show within auth.cache.user-ttl rather than when the token expires
+    private UserDetails principal(VerifiedToken token) {
+        return stateless ? token.principal()
+                : authenticationCache.user(token.principal().getUsername(), userDetailsService::loadUserByUsername);
+    }
+
+    // The roles claim is signed with the token, so it can stand in for the users/user_roles rows
+    private static UserDetails fromClaims(Claims claims) {
+        Collection<?> roles = claims.get("roles", Collection.class);
+        List<SimpleGrantedAuthority> authorities = roles == null ? List.of()
+                : roles.stream().map(role -> new SimpleGrantedAuthority(role.toString())).toList();
+        return User.withUsername(claims.getSubject())
+                .password("")
+                .authorities(authorities)
+                .build();
+    }
 }
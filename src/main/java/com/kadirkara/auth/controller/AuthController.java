@@ -4,30 +4,46 @@ package com.kadirkara.auth.controller;
 import com.kadirkara.auth.dto.AuthRequest;
 import com.kadirkara.auth.dto.AuthResponse;
 import com.kadirkara.auth.entity.User;
+import com.kadirkara.auth.service.AuthenticationCache;
+import com.kadirkara.auth.service.LoginService;
+import com.kadirkara.auth.service.LoginThrottledException;
+import com.kadirkara.auth.service.TokenDenylist;
 import com.kadirkara.auth.service.UserService;
 import com.kadirkara.auth.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
-    private final AuthenticationManager authenticationManager;
     private final UserService userService;
+    private final LoginService loginService;
     private final JwtUtil jwtUtil;
+    private final TokenDenylist tokenDenylist;
+    private final AuthenticationCache authenticationCache;
 
-    public AuthController(AuthenticationManager authenticationManager, UserService userService, JwtUtil jwtUtil) {
-        this.authenticationManager = authenticationManager;
+    public AuthController(UserService userService, LoginService loginService, JwtUtil jwtUtil,
+                          TokenDenylist tokenDenylist, AuthenticationCache authenticationCache) {
         this.userService = userService;
+        this.loginService = loginService;
         this.jwtUtil = jwtUtil;
+        this.tokenDenylist = tokenDenylist;
+        this.authenticationCache = authenticationCache;
     }
 
     @PostMapping("/register")
@@ -36,18 +52,39 @@ public class AuthController {
         return ResponseEntity.ok(user);
     }
 
+    // Async: the request thread is released while the password is checked on the login pool
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody AuthRequest authRequest) {
-        authenticationManager.authenticate(
-                new org.springframework.security.authentication.UsernamePasswordAuthenticationToken(
-                        authRequest.getUsername(), authRequest.getPassword()
-                )
-        );
-        User user = userService.loadUserByUsername(authRequest.getUsername());
-        if (user != null) {
-            String jwt = jwtUtil.generateToken(authRequest.getUsername(), user.getRoles());
-            return ResponseEntity.ok(new AuthResponse(jwt));
-        } else {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody AuthRequest authRequest, HttpServletRequest request) {
+        return loginService.login(authRequest.getUsername(), authRequest.getPassword(), request.getRemoteAddr())
+                .<ResponseEntity<?>>thenApply(jwt -> ResponseEntity.ok(new AuthResponse(jwt)))
+                .exceptionally(AuthController::loginFailure);
+    }
+
+    private static ResponseEntity<?> loginFailure(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+        if (cause instanceof LoginThrottledException throttled) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(throttled.getRetryAfterSeconds()))
+                    .body(throttled.getMessage());
+        }
+        if (cause instanceof AuthenticationException) {
+            return ResponseEntity.status(401).body("Authentication failed");
+        }
+        throw failure instanceof CompletionException completion ? completion : new CompletionException(cause);
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader("Authorization") String authHeader) {
+        if (!authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.status(401).body("Authentication failed");
+        }
+        String jwt = authHeader.substring(7);
+        try {
+            Claims claims = jwtUtil.extractAllClaims(jwt);
+            tokenDenylist.revoke(claims.getId(), claims.getExpiration().toInstant());
+            authenticationCache.evictToken(jwt);
+            return ResponseEntity.noContent().build();
+        } catch (JwtException e) {
             return ResponseEntity.status(401).body("Authentication failed");
         }
     }
@@ -0,0 +1,68 @@
+package com.kadirkara.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Node-local caches for the JWT filter: tokens whose signature has already been verified, and
+ * the user details behind them. Both are bounded; a token entry lives no longer than the token.
+ * Only in stateless mode is a token entry's principal used as is; otherwise the user details are
+ * taken from the user cache on every request, so they are never older than its TTL.
+ */
+@Component
+public class AuthenticationCache {
+
+    public record VerifiedToken(UserDetails principal, String tokenId, Instant expiresAt) {
+    }
+
+    private final Cache<String, VerifiedToken> tokens;
+    private final Cache<String, UserDetails> users;
+
+    public AuthenticationCache(@Value("${auth.cache.max-size:10000}") int maxSize,
+                               @Value("${auth.cache.user-ttl:60s}") Duration userTtl) {
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((String jwt, VerifiedToken token) ->
+                        Duration.between(Instant.now(), token.expiresAt())))
+                .build();
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(userTtl)
+                .build();
+    }
+
+    /**
+     * A token verified earlier, or {@code null} when it has to be parsed again.
+     */
+    public VerifiedToken verifiedToken(String jwt) {
+        return tokens.getIfPresent(jwt);
+    }
+
+    public VerifiedToken cacheToken(String jwt, UserDetails principal, String tokenId, Instant expiresAt) {
+        VerifiedToken token = new VerifiedToken(principal, tokenId, expiresAt);
+        tokens.put(jwt, token);
+        return token;
+    }
+
+    public void evictToken(String jwt) {
+        tokens.invalidate(jwt);
+    }
+
+    public UserDetails user(String username, Function<String, UserDetails> loader) {
+        return users.get(username, loader);
+    }
+
+    // Drops the user and every token carrying the old authorities
+    public void evictUser(String username) {
+        users.invalidate(username);
+        tokens.asMap().values().removeIf(token -> token.principal().getUsername().equals(username));
+    }
+}
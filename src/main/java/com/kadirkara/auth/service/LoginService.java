@@ -0,0 +1,134 @@
+package com.kadirkara.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kadirkara.auth.util.JwtUtil;
+import com.kadirkara.auth.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs password checks on a dedicated, bounded pool so a burst of logins cannot take the
+ * request threads that serve product reads. Attempts are rate limited per username and per
+ * client address before they reach the pool; a full queue is reported rather than waited on.
+ */
+@Service
+public class LoginService {
+
+    private final AuthenticationManager authenticationManager;
+    private final JwtUtil jwtUtil;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, TokenBucket> usernameBuckets;
+    private final Cache<String, TokenBucket> addressBuckets;
+    private final int usernameBurst;
+    private final double usernameRefillPerSecond;
+    private final int addressBurst;
+    private final double addressRefillPerSecond;
+    private final Timer hashTimer;
+    private final Counter usernameRejections;
+    private final Counter addressRejections;
+    private final Counter queueRejections;
+
+    public LoginService(AuthenticationManager authenticationManager, JwtUtil jwtUtil, MeterRegistry meterRegistry,
+                        @Value("${auth.login.threads:0}") int threads,
+                        @Value("${auth.login.queue-capacity:100}") int queueCapacity,
+                        @Value("${auth.login.per-username.burst:5}") int usernameBurst,
+                        @Value("${auth.login.per-username.refill-per-minute:5}") double usernameRefillPerMinute,
+                        @Value("${auth.login.per-address.burst:20}") int addressBurst,
+                        @Value("${auth.login.per-address.refill-per-minute:60}") double addressRefillPerMinute) {
+        this.authenticationManager = authenticationManager;
+        this.jwtUtil = jwtUtil;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "login-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.usernameBuckets = buckets();
+        this.addressBuckets = buckets();
+        this.usernameBurst = usernameBurst;
+        this.usernameRefillPerSecond = usernameRefillPerMinute / 60;
+        this.addressBurst = addressBurst;
+        this.addressRefillPerSecond = addressRefillPerMinute / 60;
+        this.hashTimer = Timer.builder("auth.login.hash")
+                .description("Time spent checking login passwords")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Logins waiting for a password check")
+                .register(meterRegistry);
+        this.usernameRejections = rejectionCounter(meterRegistry, "username");
+        this.addressRejections = rejectionCounter(meterRegistry, "address");
+        this.queueRejections = rejectionCounter(meterRegistry, "queue");
+    }
+
+    /**
+     * Completes with a signed token, or exceptionally with a {@link LoginThrottledException} or
+     * the {@link org.springframework.security.core.AuthenticationException} of a failed check.
+     */
+    public CompletableFuture<String> login(String username, String password, String clientAddress) {
+        TokenBucket address = addressBuckets.get(clientAddress, key -> new TokenBucket(addressBurst, addressRefillPerSecond));
+        if (!address.tryConsume()) {
+            addressRejections.increment();
+            return CompletableFuture.failedFuture(new LoginThrottledException(
+                    "Too many login attempts from this address", address.secondsUntilNextToken()));
+        }
+        TokenBucket user = usernameBuckets.get(String.valueOf(username), key -> new TokenBucket(usernameBurst, usernameRefillPerSecond));
+        if (!user.tryConsume()) {
+            usernameRejections.increment();
+            return CompletableFuture.failedFuture(new LoginThrottledException(
+                    "Too many login attempts for this user", user.secondsUntilNextToken()));
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> authenticate(username, password), executor);
+        } catch (RejectedExecutionException e) {
+            queueRejections.increment();
+            return CompletableFuture.failedFuture(new LoginThrottledException("Too many logins in progress", 1));
+        }
+    }
+
+    // The authenticated principal already carries the roles, so the user is not loaded again
+    private String authenticate(String username, String password) {
+        Authentication authentication = hashTimer.record(() -> authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(username, password)));
+        return jwtUtil.generateToken(authentication.getName(), authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private static Cache<String, TokenBucket> buckets() {
+        return Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("auth.login.rejected")
+                .description("Logins refused before the password check")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,64 @@
+package com.kadirkara.auth.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.kadirkara.auth.util.BloomFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Revoked token ids, shared through a Hazelcast map whose entries expire with their tokens.
+ * <p>
+ * Every member keeps a local Bloom filter of the map's keys, fed by an entry listener, so the
+ * check for a token that was never revoked stays in memory. Only a filter hit asks the map.
+ */
+@Component
+public class TokenDenylist {
+
+    public static final String REVOKED_TOKENS = "revoked-tokens";
+
+    private final IMap<String, Boolean> revoked;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+    private volatile BloomFilter filter;
+
+    public TokenDenylist(HazelcastInstance hazelcastInstance,
+                         @Value("${auth.denylist.expected-revocations:100000}") int expectedRevocations,
+                         @Value("${auth.denylist.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revoked = hazelcastInstance.getMap(REVOKED_TOKENS);
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        this.revoked.addEntryListener((EntryAddedListener<String, Boolean>) event -> filter.add(event.getKey()), false);
+        rebuild();
+    }
+
+    public void revoke(String tokenId, Instant expiresAt) {
+        long ttl = Duration.between(Instant.now(), expiresAt).toMillis();
+        if (tokenId == null || ttl <= 0) {
+            return;
+        }
+        filter.add(tokenId);
+        revoked.set(tokenId, Boolean.TRUE, ttl, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && filter.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    // Bloom filters cannot forget, so expired ids are dropped by starting over from the map.
+    // Keys revoked while the copy is made land in the old filter, hence the second pass.
+    @Scheduled(fixedDelayString = "${auth.denylist.rebuild-interval:PT10M}")
+    public void rebuild() {
+        BloomFilter fresh = new BloomFilter(expectedRevocations, falsePositiveRate);
+        revoked.keySet().forEach(fresh::add);
+        filter = fresh;
+        revoked.keySet().forEach(fresh::add);
+    }
+}
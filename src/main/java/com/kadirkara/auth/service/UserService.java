@@ -17,10 +17,12 @@ public class UserService  {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AuthenticationCache authenticationCache;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthenticationCache authenticationCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.authenticationCache = authenticationCache;
     }
 
 
@@ -37,6 +39,8 @@ public class UserService  {
         user.setUsername(username);
         user.setPassword(this.passwordEncoder.encode(password)); // In a real application, you should hash the password
         user.setRoles(roleUser);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        authenticationCache.evictUser(username);
+        return saved;
     }
 }
@@ -0,0 +1,64 @@
+package com.kadirkara.auth.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings. {@link #mightContain} never misses an added value,
+ * and answers {@code true} for an absent one with roughly the configured probability.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final int bitCount;
+    private final int hashCount;
+
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.max(64, Math.min(optimalBits, Integer.MAX_VALUE - 63));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray((bitCount + 63) / 64);
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(hash, i);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long current;
+            while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                // retry until the bit is set
+            }
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(hash, i);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Kirsch-Mitzenmacher: the i-th index is h1 + i * h2, both halves of one 64-bit hash
+    private int index(long hash, int i) {
+        int combined = (int) hash + i * (int) (hash >>> 32);
+        return (combined & Integer.MAX_VALUE) % bitCount;
+    }
+
+    // 64-bit FNV-1a with a final avalanche step
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
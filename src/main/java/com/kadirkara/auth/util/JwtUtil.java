@@ -11,6 +11,7 @@ import javax.crypto.SecretKey;
 import java.security.Key;
 import java.util.Date;
 import java.util.Set;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
@@ -28,16 +29,17 @@ public class JwtUtil {
     }
 
     public boolean isTokenValid(String jwt, UserDetails userDetails) {
-        final String username = extractUsername(jwt);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(jwt);
+        return isTokenValid(extractAllClaims(jwt), userDetails);
     }
 
-    private boolean isTokenExpired(String jwt) {
-        return extractAllClaims(jwt).getExpiration().before(new Date());
+    // Takes claims parsed by the caller, so the signature is verified only once
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
     }
 
     public String generateToken(String username, Set<String> roles) {
         return Jwts.builder().subject(username)
+                .id(UUID.randomUUID().toString())
                 .claim("roles", roles)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expirationTime))
@@ -0,0 +1,36 @@
+package com.kadirkara.auth.util;
+
+/**
+ * Classic token bucket: holds up to {@code capacity} tokens and regains {@code refillPerSecond}
+ * of them every second.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(int capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    public synchronized boolean tryConsume() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    // Whole seconds until the next token, for a Retry-After header
+    public synchronized long secondsUntilNextToken() {
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / refillPerNano / 1_000_000_000d);
+    }
+}
@@ -0,0 +1,17 @@
+package com.kadirkara.product.cache;
+
+import java.math.BigDecimal;
+
+/**
+ * Product count and price range of one category, as stored in the {@code categories} cache.
+ * Prices are {@code null} while the category has no products.
+ */
+public record CategoryStats(
+        Long categoryId,
+        String name,
+        long productCount,
+        BigDecimal minPrice,
+        BigDecimal avgPrice,
+        BigDecimal maxPrice
+) {
+}
@@ -0,0 +1,39 @@
+package com.kadirkara.product.cache;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+
+public class CategoryStatsSerializer implements CompactSerializer<CategoryStats> {
+
+    @Override
+    public CategoryStats read(CompactReader reader) {
+        return new CategoryStats(
+                reader.readNullableInt64("categoryId"),
+                reader.readString("name"),
+                reader.readInt64("productCount"),
+                reader.readDecimal("minPrice"),
+                reader.readDecimal("avgPrice"),
+                reader.readDecimal("maxPrice"));
+    }
+
+    @Override
+    public void write(CompactWriter writer, CategoryStats stats) {
+        writer.writeNullableInt64("categoryId", stats.categoryId());
+        writer.writeString("name", stats.name());
+        writer.writeInt64("productCount", stats.productCount());
+        writer.writeDecimal("minPrice", stats.minPrice());
+        writer.writeDecimal("avgPrice", stats.avgPrice());
+        writer.writeDecimal("maxPrice", stats.maxPrice());
+    }
+
+    @Override
+    public String getTypeName() {
+        return "categoryStats";
+    }
+
+    @Override
+    public Class<CategoryStats> getCompactClass() {
+        return CategoryStats.class;
+    }
+}
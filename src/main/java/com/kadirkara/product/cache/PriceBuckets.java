@@ -0,0 +1,66 @@
+package com.kadirkara.product.cache;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Price ranges facets are counted in. Bucket {@code i} holds prices from {@code edges[i]}
+ * up to, not including, {@code edges[i + 1]}; the last bucket is open-ended.
+ */
+public final class PriceBuckets {
+
+    private final BigDecimal[] edges;
+
+    public PriceBuckets(BigDecimal... edges) {
+        if (edges.length == 0) {
+            throw new IllegalArgumentException("Price buckets need at least one edge");
+        }
+        for (int i = 1; i < edges.length; i++) {
+            if (edges[i].compareTo(edges[i - 1]) <= 0) {
+                throw new IllegalArgumentException("Price bucket edges must be ascending");
+            }
+        }
+        this.edges = edges.clone();
+    }
+
+    public int count() {
+        return edges.length;
+    }
+
+    public int bucketOf(BigDecimal price) {
+        for (int i = 1; i < edges.length; i++) {
+            if (price.compareTo(edges[i]) < 0) {
+                return i - 1;
+            }
+        }
+        return edges.length - 1;
+    }
+
+    /**
+     * Index of the edge equal to {@code price}, or -1 if it is not one.
+     */
+    public int edgeIndex(BigDecimal price) {
+        if (price == null) {
+            return -1;
+        }
+        for (int i = 0; i < edges.length; i++) {
+            if (price.compareTo(edges[i]) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public BigDecimal from(int bucket) {
+        return edges[bucket];
+    }
+
+    public BigDecimal to(int bucket) {
+        return bucket + 1 < edges.length ? edges[bucket + 1] : null;
+    }
+
+    // Upper edges, as the CASE in the counting query compares against them
+    public BigDecimal[] upperEdges() {
+        return Arrays.copyOfRange(edges, 1, edges.length);
+    }
+}
@@ -0,0 +1,231 @@
+package com.kadirkara.product.cache;
+
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.listener.EntryEvictedListener;
+import com.hazelcast.map.listener.EntryExpiredListener;
+import com.hazelcast.multimap.MultiMap;
+import com.hazelcast.query.Predicates;
+import com.kadirkara.product.entity.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Page-membership index for the listing entries kept in the {@code products} cache.
+ * <p>
+ * Every cached {@code findAll(Pageable)} page is recorded twice in Hazelcast multimaps:
+ * once per product it contains and once per property it is sorted by. A write can then
+ * evict only the pages it actually affects instead of wiping the whole cache.
+ * <p>
+ * Multimaps cannot expire entries, so a page leaves the index together with the page itself:
+ * when it is evicted here, or when the {@code products} map drops it by size or TTL.
+ * <p>
+ * Every eviction first bumps a cluster-wide generation. A reader notes the generation before it
+ * queries and only keeps the page it cached if no eviction started in between, since that
+ * eviction may have read the index before the page was in it.
+ */
+@Component
+public class ProductCacheIndex {
+
+    public static final String PRODUCTS_CACHE = "products";
+    public static final String PAGES_BY_PRODUCT = "product-pages";
+    public static final String PAGES_BY_SORT = "product-pages-by-sort";
+    public static final String PAGE_GENERATION = "product-page-generation";
+
+    static final int MEMBERSHIP_LOOKUP_LIMIT = 1_000;
+
+    // Pages without an explicit order follow the heap order, which any write may change
+    private static final String UNSORTED = "_unsorted";
+
+    private final IMap<Object, Object> products;
+    private final MultiMap<Long, String> pagesByProduct;
+    private final MultiMap<String, String> pagesBySort;
+    private final IMap<String, Long> generation;
+    private final Counter membershipEvictions;
+    private final Counter sortEvictions;
+    private final Counter shiftEvictions;
+
+    public ProductCacheIndex(HazelcastInstance hazelcastInstance, MeterRegistry meterRegistry) {
+        this.products = hazelcastInstance.getMap(PRODUCTS_CACHE);
+        this.pagesByProduct = hazelcastInstance.getMultiMap(PAGES_BY_PRODUCT);
+        this.pagesBySort = hazelcastInstance.getMultiMap(PAGES_BY_SORT);
+        this.generation = hazelcastInstance.getMap(PAGE_GENERATION);
+        this.membershipEvictions = pageEvictionCounter(meterRegistry, "membership");
+        this.sortEvictions = pageEvictionCounter(meterRegistry, "sort");
+        this.shiftEvictions = pageEvictionCounter(meterRegistry, "shift");
+        // Local, so only the member owning a page unindexes it
+        this.products.addLocalEntryListener(new DroppedPageListener(), Predicates.alwaysTrue(), true);
+    }
+
+    public static String pageKey(Pageable pageable) {
+        return "page_" + pageable.getPageNumber() + "_" + pageable.getPageSize() + "_" + pageable.getSort();
+    }
+
+    /**
+     * Properties of {@code updated} that differ from {@code existing} and may therefore move
+     * the product to another position in a page sorted by them.
+     */
+    public static Set<String> changedProperties(Product existing, Product updated) {
+        Set<String> changed = new HashSet<>();
+        if (!Objects.equals(existing.getName(), updated.getName())) changed.add("name");
+        if (!Objects.equals(existing.getSku(), updated.getSku())) changed.add("sku");
+        if (!Objects.equals(existing.getBarcode(), updated.getBarcode())) changed.add("barcode");
+        if (!Objects.equals(existing.getDescription(), updated.getDescription())) changed.add("description");
+        if (existing.getPrice() == null ? updated.getPrice() != null
+                : updated.getPrice() == null || existing.getPrice().compareTo(updated.getPrice()) != 0) {
+            changed.add("price");
+        }
+        return changed;
+    }
+
+    public static List<String> sortedBy(Pageable pageable) {
+        return pageable.getSort().stream().map(Sort.Order::getProperty).toList();
+    }
+
+    public ProductPage cachedPage(Pageable pageable) {
+        return products.get(pageKey(pageable)) instanceof ProductPage page ? page : null;
+    }
+
+    /**
+     * Read before querying a page, and handed to {@link #cachePage} with the result.
+     */
+    public long generation() {
+        Long current = generation.get(PAGE_GENERATION);
+        return current == null ? 0 : current;
+    }
+
+    /**
+     * Caches and indexes the page unless an eviction started after {@code queriedAt} was read, in
+     * which case the page may hold rows that eviction was meant to drop.
+     */
+    public void cachePage(Pageable pageable, ProductPage page, long queriedAt) {
+        if (generation() != queriedAt) {
+            return;
+        }
+        String key = pageKey(pageable);
+        sortKeys(page).forEach(property -> pagesBySort.put(property, key));
+        page.content().forEach(product -> pagesByProduct.put(product.id(), key));
+        products.set(key, page);
+        // An eviction that started since the check above may have read the index before this page was in it
+        if (generation() != queriedAt) {
+            unindex(key, products.remove(key));
+        }
+    }
+
+    /**
+     * Evicts the pages that contain the product, plus every page ordered by one of the
+     * changed properties, since the product may have moved into or out of them.
+     */
+    public void evictPagesOf(Long productId, Set<String> changedProperties) {
+        evictPagesOf(List.of(productId), changedProperties);
+    }
+
+    /**
+     * Same as {@link #evictPagesOf(Long, Set)} for a batch of products. Past
+     * {@link #MEMBERSHIP_LOOKUP_LIMIT} products one lookup per product costs more than
+     * rebuilding every page, so all pages go.
+     */
+    public void evictPagesOf(Collection<Long> productIds, Set<String> changedProperties) {
+        if (productIds.size() > MEMBERSHIP_LOOKUP_LIMIT) {
+            evictAllPages();
+            return;
+        }
+        AfterCommit.run(() -> {
+            nextGeneration();
+            Set<String> containing = new HashSet<>();
+            productIds.forEach(productId -> containing.addAll(pagesByProduct.remove(productId)));
+            Set<String> sorted = new HashSet<>(pagesBySort.get(UNSORTED));
+            changedProperties.forEach(property -> sorted.addAll(pagesBySort.get(property)));
+            sorted.removeAll(containing);
+            evict(containing, membershipEvictions);
+            evict(sorted, sortEvictions);
+        });
+    }
+
+    /**
+     * Inserts and deletes shift every later offset of every listing, so all pages go.
+     * Entries cached by product id are left untouched.
+     */
+    public void evictAllPages() {
+        AfterCommit.run(() -> {
+            nextGeneration();
+            Set<String> pageKeys = new HashSet<>(pagesBySort.values());
+            pagesBySort.clear();
+            pagesByProduct.clear();
+            pageKeys.forEach(products::delete);
+            shiftEvictions.increment(pageKeys.size());
+        });
+    }
+
+    private void evict(Collection<String> pageKeys, Counter counter) {
+        pageKeys.forEach(key -> unindex(key, products.remove(key)));
+        counter.increment(pageKeys.size());
+    }
+
+    private void nextGeneration() {
+        generation.executeOnKey(PAGE_GENERATION, new NextGeneration());
+    }
+
+    // A page that is already gone was unindexed when it went
+    private void unindex(String key, Object page) {
+        if (page instanceof ProductPage cached) {
+            cached.content().forEach(product -> pagesByProduct.remove(product.id(), key));
+            sortKeys(cached).forEach(property -> pagesBySort.remove(property, key));
+        }
+    }
+
+    private static List<String> sortKeys(ProductPage page) {
+        return page.sortedBy().isEmpty() ? List.of(UNSORTED) : page.sortedBy();
+    }
+
+    private class DroppedPageListener implements EntryEvictedListener<Object, Object>, EntryExpiredListener<Object, Object> {
+
+        @Override
+        public void entryEvicted(EntryEvent<Object, Object> event) {
+            dropped(event);
+        }
+
+        @Override
+        public void entryExpired(EntryEvent<Object, Object> event) {
+            dropped(event);
+        }
+
+        // Products cached by id share the map and are not indexed
+        private void dropped(EntryEvent<Object, Object> event) {
+            if (event.getKey() instanceof String key) {
+                unindex(key, event.getOldValue());
+            }
+        }
+    }
+
+    // Runs on the member owning the key, so concurrent bumps never overwrite each other
+    record NextGeneration() implements EntryProcessor<String, Long, Long>, Serializable {
+
+        @Override
+        public Long process(Map.Entry<String, Long> entry) {
+            long next = entry.getValue() == null ? 1 : entry.getValue() + 1;
+            entry.setValue(next);
+            return next;
+        }
+    }
+
+    private static Counter pageEvictionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("product.cache.page.evictions")
+                .description("Listing pages evicted from the products cache")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,13 @@
+package com.kadirkara.product.cache;
+
+/**
+ * A committed product write as published on the {@code product-changes} ringbuffer. Offsets grow in
+ * publish order and a product's changes are published in the order they committed. A delete
+ * carries no product.
+ */
+public record ProductChange(long offset, Type type, Long productId, ProductSnapshot product) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
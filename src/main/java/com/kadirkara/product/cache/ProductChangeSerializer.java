@@ -0,0 +1,35 @@
+package com.kadirkara.product.cache;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+
+public class ProductChangeSerializer implements CompactSerializer<ProductChange> {
+
+    @Override
+    public ProductChange read(CompactReader reader) {
+        return new ProductChange(
+                reader.readInt64("offset"),
+                ProductChange.Type.valueOf(reader.readString("type")),
+                reader.readNullableInt64("productId"),
+                reader.readCompact("product"));
+    }
+
+    @Override
+    public void write(CompactWriter writer, ProductChange change) {
+        writer.writeInt64("offset", change.offset());
+        writer.writeString("type", change.type().name());
+        writer.writeNullableInt64("productId", change.productId());
+        writer.writeCompact("product", change.product());
+    }
+
+    @Override
+    public String getTypeName() {
+        return "productChange";
+    }
+
+    @Override
+    public Class<ProductChange> getCompactClass() {
+        return ProductChange.class;
+    }
+}
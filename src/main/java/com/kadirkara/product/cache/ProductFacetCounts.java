@@ -0,0 +1,129 @@
+package com.kadirkara.product.cache;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.IMap;
+import com.kadirkara.product.dto.ProductFilter;
+import com.kadirkara.product.repository.ProductFilterRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Number of products per category and price bucket, kept in Hazelcast so facet counts of an
+ * unfiltered or category/price-filtered listing never touch the database.
+ * <p>
+ * Writes apply their deltas after commit. A delta can race with a recount that read the rows
+ * before the write committed, so the whole matrix is recounted periodically to bound drift.
+ */
+@Component
+public class ProductFacetCounts {
+
+    public static final String PRODUCT_FACETS = "product-facets";
+
+    private final ProductFilterRepository productFilterRepository;
+    private final IMap<Long, long[]> counts;
+    private final PriceBuckets buckets;
+
+    public ProductFacetCounts(ProductFilterRepository productFilterRepository, HazelcastInstance hazelcastInstance,
+                              @Value("${product.facets.price-buckets:0,10,25,50,100,250,500,1000}") BigDecimal[] edges) {
+        this.productFilterRepository = productFilterRepository;
+        this.counts = hazelcastInstance.getMap(PRODUCT_FACETS);
+        this.buckets = new PriceBuckets(edges);
+    }
+
+    public PriceBuckets buckets() {
+        return buckets;
+    }
+
+    /**
+     * Counts per category id, one entry per price bucket.
+     */
+    public Map<Long, long[]> snapshot() {
+        return new HashMap<>(counts);
+    }
+
+    public Changes changes() {
+        return new Changes();
+    }
+
+    // Another member may already have filled the map
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (counts.isEmpty()) {
+            recount();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.facets.recount-interval:PT10M}", initialDelayString = "${product.facets.recount-interval:PT10M}")
+    public void recount() {
+        Map<Long, long[]> recounted;
+        try {
+            recounted = productFilterRepository.countByCategoryAndBucket(ProductFilter.none(), buckets);
+        } catch (DataAccessException e) {
+            // Schema not there yet; the next run fills the map
+            return;
+        }
+        counts.keySet().stream().filter(category -> !recounted.containsKey(category)).forEach(counts::delete);
+        counts.putAll(recounted);
+    }
+
+    /**
+     * Products added to, removed from or moved between cells by one write.
+     */
+    public final class Changes {
+
+        private final Map<Long, long[]> deltas = new HashMap<>();
+
+        public Changes add(Long categoryId, BigDecimal price) {
+            return change(categoryId, price, 1);
+        }
+
+        public Changes remove(Long categoryId, BigDecimal price) {
+            return change(categoryId, price, -1);
+        }
+
+        public Changes move(Long fromCategoryId, BigDecimal fromPrice, Long toCategoryId, BigDecimal toPrice) {
+            return remove(fromCategoryId, fromPrice).add(toCategoryId, toPrice);
+        }
+
+        private Changes change(Long categoryId, BigDecimal price, int delta) {
+            if (categoryId != null && price != null) {
+                deltas.computeIfAbsent(categoryId, category -> new long[buckets.count()])[buckets.bucketOf(price)] += delta;
+            }
+            return this;
+        }
+
+        public void apply() {
+            deltas.values().removeIf(delta -> Arrays.stream(delta).allMatch(count -> count == 0));
+            if (deltas.isEmpty()) {
+                return;
+            }
+            AfterCommit.run(() -> deltas.forEach((category, delta) -> counts.executeOnKey(category, new AddCounts(delta))));
+        }
+    }
+
+    // Runs on the member owning the category, so concurrent deltas never overwrite each other
+    record AddCounts(long[] delta) implements EntryProcessor<Long, long[], Void>, Serializable {
+
+        @Override
+        public Void process(Map.Entry<Long, long[]> entry) {
+            long[] current = entry.getValue();
+            long[] updated = current == null ? new long[delta.length] : current.clone();
+            for (int i = 0; i < Math.min(updated.length, delta.length); i++) {
+                updated[i] = Math.max(0, updated[i] + delta[i]);
+            }
+            entry.setValue(updated);
+            return null;
+        }
+    }
+}
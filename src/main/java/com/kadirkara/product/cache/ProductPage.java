@@ -0,0 +1,27 @@
+package com.kadirkara.product.cache;
+
+import java.util.List;
+
+/**
+ * One cached {@code findAll(Pageable)} listing page. Carries no total, which would go stale
+ * with every insert or delete; see {@link com.kadirkara.product.service.ProductCountEstimator}.
+ * {@code sortedBy} holds the properties the page is ordered by, so it can be unindexed without
+ * searching the sort index for it.
+ */
+public record ProductPage(
+        List<ProductSnapshot> content,
+        int number,
+        int size,
+        boolean hasNext,
+        List<String> sortedBy
+) {
+
+    public ProductPage {
+        content = List.copyOf(content);
+        sortedBy = List.copyOf(sortedBy);
+    }
+
+    public ProductPage(List<ProductSnapshot> content, int number, int size, boolean hasNext) {
+        this(content, number, size, hasNext, List.of());
+    }
+}
@@ -0,0 +1,42 @@
+package com.kadirkara.product.cache;
+
+import com.hazelcast.nio.serialization.FieldKind;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+
+import java.util.List;
+
+public class ProductPageSerializer implements CompactSerializer<ProductPage> {
+
+    @Override
+    public ProductPage read(CompactReader reader) {
+        return new ProductPage(
+                List.of(reader.readArrayOfCompact("content", ProductSnapshot.class)),
+                reader.readInt32("number"),
+                reader.readInt32("size"),
+                reader.readBoolean("hasNext"),
+                // Pages cached before the field existed
+                reader.getFieldKind("sortedBy") == FieldKind.NOT_AVAILABLE
+                        ? List.of() : List.of(reader.readArrayOfString("sortedBy")));
+    }
+
+    @Override
+    public void write(CompactWriter writer, ProductPage page) {
+        writer.writeArrayOfCompact("content", page.content().toArray(ProductSnapshot[]::new));
+        writer.writeInt32("number", page.number());
+        writer.writeInt32("size", page.size());
+        writer.writeBoolean("hasNext", page.hasNext());
+        writer.writeArrayOfString("sortedBy", page.sortedBy().toArray(String[]::new));
+    }
+
+    @Override
+    public String getTypeName() {
+        return "productPage";
+    }
+
+    @Override
+    public Class<ProductPage> getCompactClass() {
+        return ProductPage.class;
+    }
+}
@@ -0,0 +1,31 @@
+package com.kadirkara.product.cache;
+
+import com.kadirkara.product.entity.Product;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable, detached view of a {@link Product} as stored in the {@code products} cache.
+ * Holds the category by id only, so reading it never touches a lazy JPA proxy.
+ */
+public record ProductSnapshot(
+        Long id,
+        String sku,
+        String barcode,
+        String name,
+        BigDecimal price,
+        Long categoryId,
+        long version
+) {
+
+    public static ProductSnapshot from(Product product) {
+        return new ProductSnapshot(
+                product.getId(),
+                product.getSku(),
+                product.getBarcode(),
+                product.getName(),
+                product.getPrice(),
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                product.getVersion());
+    }
+}
@@ -0,0 +1,41 @@
+package com.kadirkara.product.cache;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+
+public class ProductSnapshotSerializer implements CompactSerializer<ProductSnapshot> {
+
+    @Override
+    public ProductSnapshot read(CompactReader reader) {
+        return new ProductSnapshot(
+                reader.readNullableInt64("id"),
+                reader.readString("sku"),
+                reader.readString("barcode"),
+                reader.readString("name"),
+                reader.readDecimal("price"),
+                reader.readNullableInt64("categoryId"),
+                reader.readInt64("version"));
+    }
+
+    @Override
+    public void write(CompactWriter writer, ProductSnapshot product) {
+        writer.writeNullableInt64("id", product.id());
+        writer.writeString("sku", product.sku());
+        writer.writeString("barcode", product.barcode());
+        writer.writeString("name", product.name());
+        writer.writeDecimal("price", product.price());
+        writer.writeNullableInt64("categoryId", product.categoryId());
+        writer.writeInt64("version", product.version());
+    }
+
+    @Override
+    public String getTypeName() {
+        return "product";
+    }
+
+    @Override
+    public Class<ProductSnapshot> getCompactClass() {
+        return ProductSnapshot.class;
+    }
+}
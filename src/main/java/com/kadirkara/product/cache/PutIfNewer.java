@@ -0,0 +1,46 @@
+package com.kadirkara.product.cache;
+
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Caches a product snapshot unless the entry already holds the same or a later version, so a
+ * writer that refreshes the cache late cannot roll back one that refreshed it early.
+ * <p>
+ * Runs on the member owning the product. DataSerializable rather than Serializable, so the
+ * snapshot travels through its compact serializer.
+ */
+public class PutIfNewer implements EntryProcessor<Object, Object, Void>, DataSerializable {
+
+    private ProductSnapshot product;
+
+    public PutIfNewer() {
+    }
+
+    public PutIfNewer(ProductSnapshot product) {
+        this.product = product;
+    }
+
+    @Override
+    public Void process(Map.Entry<Object, Object> entry) {
+        if (!(entry.getValue() instanceof ProductSnapshot cached) || cached.version() < product.version()) {
+            entry.setValue(product);
+        }
+        return null;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeObject(product);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        product = in.readObject();
+    }
+}
@@ -1,4 +1,78 @@
 package com.kadirkara.product.config;
 
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.config.NearCacheConfig;
+import com.kadirkara.product.cache.CategoryStatsSerializer;
+import com.kadirkara.product.cache.ProductCacheIndex;
+import com.kadirkara.product.cache.ProductChangeSerializer;
+import com.kadirkara.product.cache.ProductPageSerializer;
+import com.kadirkara.product.cache.ProductSnapshotSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMetricsRegistrar;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.hazelcast.HazelcastConfigCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+@Configuration
+@EnableCaching
 public class CacheConfig {
+
+    private final CacheManager cacheManager;
+    private final ObjectProvider<CacheMetricsRegistrar> cacheMetricsRegistrar;
+
+    public CacheConfig(CacheManager cacheManager, ObjectProvider<CacheMetricsRegistrar> cacheMetricsRegistrar) {
+        this.cacheManager = cacheManager;
+        this.cacheMetricsRegistrar = cacheMetricsRegistrar;
+    }
+
+    // Customizers are static so they do not depend on the CacheManager, which itself needs the HazelcastInstance
+    @Bean
+    static HazelcastConfigCustomizer productCompactSerializers() {
+        return config -> config.getSerializationConfig().getCompactSerializationConfig()
+                .addSerializer(new ProductSnapshotSerializer())
+                .addSerializer(new ProductPageSerializer())
+                .addSerializer(new CategoryStatsSerializer())
+                .addSerializer(new ProductChangeSerializer());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "product.cache.near-cache.enabled", havingValue = "true")
+    static HazelcastConfigCustomizer productsNearCacheCustomizer(
+            @Value("${product.cache.near-cache.max-size:10000}") int maxSize) {
+        return config -> config.getMapConfig(ProductCacheIndex.PRODUCTS_CACHE)
+                .setNearCacheConfig(productsNearCacheConfig(maxSize));
+    }
+
+    // Entries stay valid until the owning member publishes an invalidation event for the key.
+    // Cached values are immutable snapshots, so OBJECT can hand out the same instance on every hit.
+    static NearCacheConfig productsNearCacheConfig(int maxSize) {
+        return new NearCacheConfig(ProductCacheIndex.PRODUCTS_CACHE)
+                .setInMemoryFormat(InMemoryFormat.OBJECT)
+                .setInvalidateOnChange(true)
+                .setCacheLocalEntries(false)
+                .setEvictionConfig(new EvictionConfig()
+                        .setEvictionPolicy(EvictionPolicy.LRU)
+                        .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+                        .setSize(maxSize));
+    }
+
+    // Hazelcast maps are created lazily, so the actuator does not see them at startup.
+    // Binding here publishes cache.gets{result=hit|miss}, cache.puts and cache.removals.
+    @EventListener(ApplicationReadyEvent.class)
+    public void bindCacheMetrics() {
+        Cache products = cacheManager.getCache(ProductCacheIndex.PRODUCTS_CACHE);
+        if (products != null) {
+            cacheMetricsRegistrar.ifAvailable(registrar -> registrar.bindCacheToRegistry(products));
+        }
+    }
 }
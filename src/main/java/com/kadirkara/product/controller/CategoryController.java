@@ -0,0 +1,71 @@
+package com.kadirkara.product.controller;
+
+import com.kadirkara.product.cache.CategoryStats;
+import com.kadirkara.product.dto.CategoryRequest;
+import com.kadirkara.product.dto.CategoryResponse;
+import com.kadirkara.product.service.CategoryService;
+import com.kadirkara.product.service.CategoryStatsService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+@RestController
+@RequestMapping("/api/categories")
+public class CategoryController implements ICategoryController {
+
+    private final CategoryService categoryService;
+    private final CategoryStatsService categoryStatsService;
+
+    public CategoryController(CategoryService categoryService, CategoryStatsService categoryStatsService) {
+        this.categoryService = categoryService;
+        this.categoryStatsService = categoryStatsService;
+    }
+
+    @Override
+    @PreAuthorize("hasRole('USER')")
+    public List<CategoryResponse> list() {
+        return categoryService.findAll();
+    }
+
+    @Override
+    @PreAuthorize("hasRole('USER')")
+    public CategoryResponse get(@PathVariable Long id) {
+        return categoryService.findById(id);
+    }
+
+    @Override
+    @PreAuthorize("hasRole('USER')")
+    public CategoryStats stats(@PathVariable Long id) {
+        return categoryStatsService.findById(id);
+    }
+
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CategoryResponse> create(@Valid @RequestBody CategoryRequest categoryRequest) {
+        CategoryResponse category = categoryService.create(categoryRequest.name());
+        return ResponseEntity.created(linkTo(methodOn(CategoryController.class).get(category.id())).toUri())
+                .body(category);
+    }
+
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    public CategoryResponse rename(@PathVariable Long id, @Valid @RequestBody CategoryRequest categoryRequest) {
+        return categoryService.rename(id, categoryRequest.name());
+    }
+
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        categoryService.deleteById(id);
+        return ResponseEntity.noContent().build();
+    }
+}
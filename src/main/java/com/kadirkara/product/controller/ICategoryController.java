@@ -0,0 +1,102 @@
+package com.kadirkara.product.controller;
+
+import com.kadirkara.product.cache.CategoryStats;
+import com.kadirkara.product.dto.CategoryRequest;
+import com.kadirkara.product.dto.CategoryResponse;
+import com.kadirkara.product.exception.ErrorResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
+
+@Tag(name = "Category API", description = "API for product categories")
+public interface ICategoryController {
+        @Operation(summary = "List categories", description = "All categories, ordered by name")
+        @ApiResponse(responseCode = "200", description = "Categories found")
+        @GetMapping
+        List<CategoryResponse> list();
+
+        @Operation(summary = "Get a category by ID", description = "Retrieve a category using its unique identifier")
+        @ApiResponses({
+                @ApiResponse(responseCode = "200", description = "Category found"),
+                @ApiResponse(responseCode = "404", description = "Category not found", content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(value = "{\"error\": \"Category not found\"}")
+                ))
+        })
+        @GetMapping("/{id}")
+        CategoryResponse get(@PathVariable Long id);
+
+        @Operation(summary = "Get category statistics", description = "Product count and minimum, average and maximum " +
+                "price of a category, read from a rollup kept in step with product writes")
+        @ApiResponses({
+                @ApiResponse(responseCode = "200", description = "Statistics found; prices are null while the category is empty"),
+                @ApiResponse(responseCode = "404", description = "Category not found", content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(value = "{\"error\": \"Category not found\"}")
+                ))
+        })
+        @GetMapping("/{id}/stats")
+        CategoryStats stats(@PathVariable Long id);
+
+        @Operation(summary = "Create a category", description = "Add a category that products can then name")
+        @ApiResponses({
+                @ApiResponse(responseCode = "201", description = "Category created"),
+                @ApiResponse(responseCode = "400", description = "Blank or already used name", content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(value = "{\"error\": \"Category already exists: Books\"}")
+                ))
+        })
+        @PostMapping
+        ResponseEntity<CategoryResponse> create(@Valid @RequestBody CategoryRequest categoryRequest);
+
+        @Operation(summary = "Rename a category", description = "Products keep their category; requests naming the old name no longer resolve")
+        @ApiResponses({
+                @ApiResponse(responseCode = "200", description = "Category renamed"),
+                @ApiResponse(responseCode = "400", description = "Blank or already used name", content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(value = "{\"error\": \"Category already exists: Books\"}")
+                )),
+                @ApiResponse(responseCode = "404", description = "Category not found", content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(value = "{\"error\": \"Category not found\"}")
+                ))
+        })
+        @PutMapping("/{id}")
+        CategoryResponse rename(@PathVariable Long id, @Valid @RequestBody CategoryRequest categoryRequest);
+
+        @Operation(summary = "Delete a category", description = "Remove a category that no product belongs to")
+        @ApiResponses({
+                @ApiResponse(responseCode = "204", description = "Category deleted"),
+                @ApiResponse(responseCode = "400", description = "Category still has products", content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(value = "{\"error\": \"Category still has products\"}")
+                )),
+                @ApiResponse(responseCode = "404", description = "Category not found", content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(value = "{\"error\": \"Category not found\"}")
+                ))
+        })
+        @DeleteMapping("/{id}")
+        ResponseEntity<Void> delete(@PathVariable Long id);
+}
@@ -0,0 +1,32 @@
+package com.kadirkara.product.controller;
+
+import com.kadirkara.product.cache.ProductChange;
+import com.kadirkara.product.exception.ErrorResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+@Tag(name = "Product Change API", description = "Committed product writes, in the order they were published")
+public interface IProductChangeController {
+        @Operation(summary = "Replay product changes", description = "Changes published after the given offset, oldest first. " +
+                "Consumers of the product-changes ringbuffer use this to catch up after falling behind it")
+        @ApiResponses({
+                @ApiResponse(responseCode = "200", description = "Changes after the offset; empty once the consumer is up to date"),
+                @ApiResponse(responseCode = "400", description = "Negative offset or limit out of range", content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(value = "{\"error\": \"Offset must not be negative and limit must be between 1 and 1000\"}")
+                ))
+        })
+        @GetMapping
+        List<ProductChange> replay(@RequestParam(defaultValue = "0") long after,
+                                   @RequestParam(defaultValue = "100") int limit);
+}
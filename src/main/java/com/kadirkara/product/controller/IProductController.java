@@ -1,7 +1,12 @@
 package com.kadirkara.product.controller;
+import com.kadirkara.product.dto.PriceUpdate;
+import com.kadirkara.product.dto.PriceUpdateResult;
+import com.kadirkara.product.dto.ProductFilterResponse;
+import com.kadirkara.product.dto.ProductImportResult;
 import com.kadirkara.product.dto.ProductRequest;
 import com.kadirkara.product.dto.ProductResponse;
 import com.kadirkara.product.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
@@ -13,19 +18,33 @@ import jakarta.validation.Valid;
 import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Tag(name = "Product API", description = "API for managing products in the inventory")
 public interface IProductController {
         @Operation(summary = "Get a product by ID", description = "Retrieve a product using its unique identifier")
         @ApiResponses({
                 @ApiResponse(responseCode = "200", description = "Product found"),
+                @ApiResponse(responseCode = "304", description = "Product unchanged since the ETag in If-None-Match"),
                 @ApiResponse(responseCode = "404", description = "Product not found", content = @Content(
                         mediaType = "application/json",
                         schema = @Schema(implementation = ErrorResponse.class),
@@ -33,12 +52,95 @@ public interface IProductController {
                 ))
         })
         @GetMapping("/{id}")
-        EntityModel<ProductResponse> get(@PathVariable Long id);
+        ResponseEntity<EntityModel<ProductResponse>> get(@PathVariable Long id, WebRequest request);
+
+        @Operation(summary = "Get a product by SKU", description = "Retrieve a product using its stock keeping unit")
+        @ApiResponses({
+                @ApiResponse(responseCode = "200", description = "Product found"),
+                @ApiResponse(responseCode = "304", description = "Product unchanged since the ETag in If-None-Match"),
+                @ApiResponse(responseCode = "404", description = "No product has this SKU", content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(value = "{\"error\": \"Product not found\"}")
+                ))
+        })
+        @GetMapping("/by-sku/{sku}")
+        ResponseEntity<EntityModel<ProductResponse>> getBySku(@PathVariable String sku, WebRequest request);
 
-        @Operation(summary = "List all products", description = "Retrieve a list of all products")
-        @ApiResponse(responseCode = "200", description = "List of products retrieved successfully")
+        @Operation(summary = "Get a product by barcode", description = "Retrieve a product using its scanned barcode")
+        @ApiResponses({
+                @ApiResponse(responseCode = "200", description = "Product found"),
+                @ApiResponse(responseCode = "304", description = "Product unchanged since the ETag in If-None-Match"),
+                @ApiResponse(responseCode = "404", description = "No product has this barcode", content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(value = "{\"error\": \"Product not found\"}")
+                ))
+        })
+        @GetMapping("/by-barcode/{code}")
+        ResponseEntity<EntityModel<ProductResponse>> getByBarcode(@PathVariable String code, WebRequest request);
+
+        @Operation(summary = "List all products", description = "Retrieve a list of all products. " +
+                "The next link is exact; page.totalElements is an approximate count refreshed in the background")
+        @ApiResponses({
+                @ApiResponse(responseCode = "200", description = "List of products retrieved successfully"),
+                @ApiResponse(responseCode = "304", description = "Page unchanged since the ETag in If-None-Match")
+        })
         @GetMapping
-        CollectionModel<EntityModel<ProductResponse>> list(Pageable pageable);
+        ResponseEntity<PagedModel<EntityModel<ProductResponse>>> list(Pageable pageable, WebRequest request);
+
+        @Operation(summary = "Scroll products", description = "Retrieve products window by window using an opaque continuation token. " +
+                "Latency stays flat no matter how deep the client scrolls")
+        @ApiResponses({
+                @ApiResponse(responseCode = "200", description = "Window of products retrieved successfully, with a next link while more remain"),
+                @ApiResponse(responseCode = "400", description = "Invalid cursor or sort", content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(value = "{\"error\": \"Invalid cursor\"}")
+                ))
+        })
+        @GetMapping("/scroll")
+        CollectionModel<EntityModel<ProductResponse>> scroll(@RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "10") int size,
+                                                             @RequestParam(defaultValue = "name") String sort);
+
+        @Operation(summary = "Search products", description = "Full-text search over name, description and category name. " +
+                "Every word must match, exactly, as a prefix or with a typo; results are ranked best first")
+        @ApiResponses({
+                @ApiResponse(responseCode = "200", description = "Matching products, best first"),
+                @ApiResponse(responseCode = "400", description = "Empty query or invalid limit", content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(value = "{\"error\": \"Query must contain a letter or a digit\"}")
+                ))
+        })
+        @GetMapping("/search")
+        CollectionModel<EntityModel<ProductResponse>> search(@RequestParam String q,
+                                                             @RequestParam(defaultValue = "20") int limit);
+
+        @Operation(summary = "Filter products", description = "Products in any of the given categories, priced from minPrice " +
+                "up to but not including maxPrice, whose name starts with namePrefix. Sortable by price, name or id. " +
+                "Facets count each category without the category filter and each price bucket without the price filter")
+        @ApiResponses({
+                @ApiResponse(responseCode = "200", description = "Page of matching products with category and price facets"),
+                @ApiResponse(responseCode = "400", description = "Invalid price range, sort or page size", content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(value = "{\"error\": \"Minimum price must not exceed maximum price\"}")
+                ))
+        })
+        @GetMapping("/filter")
+        ProductFilterResponse filter(@RequestParam(required = false) List<Long> categoryId,
+                                     @RequestParam(required = false) BigDecimal minPrice,
+                                     @RequestParam(required = false) BigDecimal maxPrice,
+                                     @RequestParam(required = false) String namePrefix,
+                                     Pageable pageable);
+
+        @Operation(summary = "Export all products", description = "Stream the whole catalog as NDJSON, one product per line. " +
+                "Sent gzip-compressed when the request accepts gzip encoding")
+        @ApiResponse(responseCode = "200", description = "Catalog streamed successfully")
+        @GetMapping(value = "/export", produces = "application/x-ndjson")
+        ResponseEntity<StreamingResponseBody> export(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding);
 
         @Operation(summary = "Create a new product", description = "Add a new product to the inventory")
         @ApiResponses({
@@ -55,6 +157,31 @@ public interface IProductController {
         @PostMapping
         ResponseEntity<EntityModel<ProductResponse>> create(@Valid @RequestBody ProductRequest productRequest);
 
+        @Operation(summary = "Update prices in bulk", description = "Set the price of many products, each addressed by id or sku. " +
+                "Updates are coalesced for a few milliseconds and written together; the response follows the commit")
+        @ApiResponses({
+                @ApiResponse(responseCode = "200", description = "Prices written, with the ids and skus that matched no product"),
+                @ApiResponse(responseCode = "400", description = "An update without exactly one of id or sku, or with a negative price")
+        })
+        @PostMapping("/prices")
+        CompletableFuture<PriceUpdateResult> updatePrices(@RequestBody List<PriceUpdate> updates);
+
+        @Operation(summary = "Import products in bulk", description = "Stream products as NDJSON (application/x-ndjson) " +
+                "or CSV with a header row (text/csv). Valid rows are written in batches; invalid rows are reported by line number. " +
+                "Pass audit=false for an initial catalog load to leave the rows out of the audit log")
+        @ApiResponses({
+                @ApiResponse(responseCode = "200", description = "Import finished, with the rows that were rejected"),
+                @ApiResponse(responseCode = "400", description = "Unreadable CSV header", content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(value = "{\"error\": \"CSV header must name the columns [name, price, description, sku, barcode, category]\"}")
+                ))
+        })
+        @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+        ProductImportResult importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                           @RequestParam(defaultValue = "true") boolean audit,
+                                           InputStream body) throws IOException;
+
         @Operation(summary = "Update product", description = "Update an existing product by ID")
         @ApiResponses({
                 @ApiResponse(responseCode = "200", description = "Product updated successfully"),
@@ -75,7 +202,25 @@ public interface IProductController {
                 ))
         })
         @PutMapping("/{id}")
-        EntityModel<ProductResponse> update(@PathVariable Long id, @RequestBody ProductRequest productRequest);
+        ResponseEntity<EntityModel<ProductResponse>> update(@PathVariable Long id, @RequestBody ProductRequest productRequest,
+                                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch);
+
+        @Operation(summary = "Patch product", description = "Change only the fields present in a JSON Merge Patch document. " +
+                "Send the ETag of the version you read in If-Match to fail with 412 instead of overwriting a newer change")
+        @ApiResponses({
+                @ApiResponse(responseCode = "200", description = "Product patched successfully"),
+                @ApiResponse(responseCode = "400", description = "Invalid patch document", content = @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = ErrorResponse.class),
+                        examples = @ExampleObject(value = "{\"error\": \"Price must be non-negative\"}")
+                )),
+                @ApiResponse(responseCode = "404", description = "Product not found"),
+                @ApiResponse(responseCode = "409", description = "Product was modified concurrently"),
+                @ApiResponse(responseCode = "412", description = "Product no longer matches If-Match")
+        })
+        @PatchMapping(value = "/{id}", consumes = "application/merge-patch+json")
+        ResponseEntity<EntityModel<ProductResponse>> patch(@PathVariable Long id, @RequestBody JsonNode patch,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch);
 
         @Operation(summary = "Delete a product", description = "Remove a product from the inventory by ID")
         @ApiResponses({
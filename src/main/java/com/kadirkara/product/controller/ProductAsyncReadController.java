@@ -0,0 +1,84 @@
+package com.kadirkara.product.controller;
+
+import com.kadirkara.product.dto.ProductResponse;
+import com.kadirkara.product.mapper.ProductMapper;
+import com.kadirkara.product.service.ProductAsyncReader;
+import com.kadirkara.product.service.ProductService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Read-only mirror of the product get and list endpoints that releases the request thread while
+ * the product is looked up. Responses link to the canonical {@code /api/products} resources.
+ */
+@RestController
+@RequestMapping("/api/async/products")
+@ConditionalOnProperty(name = "product.async-read.enabled", havingValue = "true")
+@Tag(name = "Product async reads", description = "Non-blocking product reads")
+public class ProductAsyncReadController {
+
+    private final ProductAsyncReader productAsyncReader;
+    private final ProductService productService;
+    private final ProductMapper productMapper;
+
+    public ProductAsyncReadController(ProductAsyncReader productAsyncReader, ProductService productService,
+                                      ProductMapper productMapper) {
+        this.productAsyncReader = productAsyncReader;
+        this.productService = productService;
+        this.productMapper = productMapper;
+    }
+
+    @Operation(summary = "Get a product by ID without blocking a request thread")
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('USER')")
+    public CompletableFuture<EntityModel<ProductResponse>> get(@PathVariable Long id) {
+        return productAsyncReader.findById(id)
+                .thenApply(productMapper::toResponse)
+                .thenApply(inRequest(ProductController::toModel));
+    }
+
+    @Operation(summary = "List products without blocking a request thread")
+    @GetMapping
+    @PreAuthorize("hasRole('USER')")
+    public CompletableFuture<PagedModel<EntityModel<ProductResponse>>> list(
+            @PageableDefault(size = 10, sort = "name", direction = Sort.Direction.ASC) Pageable pageable) {
+        return productAsyncReader.findAll(pageable).thenApply(inRequest(page -> ProductController.toPagedModel(
+                page, pageable, productService.approximateCount(), productMapper)));
+    }
+
+    /**
+     * Runs {@code mapper} with this request bound, whichever thread completes the future. Links are
+     * built from the current request, and without one they come out relative. The request's own
+     * attributes are closed once the handler returns, so the continuation gets a fresh view of it.
+     */
+    private static <T, R> Function<T, R> inRequest(Function<T, R> mapper) {
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        return value -> {
+            RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+            try {
+                return mapper.apply(value);
+            } finally {
+                RequestContextHolder.setRequestAttributes(previous);
+            }
+        };
+    }
+}
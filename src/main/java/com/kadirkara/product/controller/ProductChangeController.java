@@ -0,0 +1,28 @@
+package com.kadirkara.product.controller;
+
+import com.kadirkara.product.cache.ProductChange;
+import com.kadirkara.product.service.ProductChangeStream;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/products/changes")
+public class ProductChangeController implements IProductChangeController {
+
+    private final ProductChangeStream productChangeStream;
+
+    public ProductChangeController(ProductChangeStream productChangeStream) {
+        this.productChangeStream = productChangeStream;
+    }
+
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<ProductChange> replay(@RequestParam(defaultValue = "0") long after,
+                                      @RequestParam(defaultValue = "100") int limit) {
+        return productChangeStream.replay(after, limit);
+    }
+}
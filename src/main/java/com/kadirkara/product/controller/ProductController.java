@@ -1,27 +1,58 @@
 
 package com.kadirkara.product.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.kadirkara.product.cache.ProductPage;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.dto.ProductCursor;
+import com.kadirkara.product.dto.PriceUpdate;
+import com.kadirkara.product.dto.PriceUpdateResult;
+import com.kadirkara.product.dto.ProductFilter;
+import com.kadirkara.product.dto.ProductFilterResponse;
+import com.kadirkara.product.dto.ProductImportResult;
+import com.kadirkara.product.dto.ProductMergePatch;
 import com.kadirkara.product.dto.ProductRequest;
 import com.kadirkara.product.dto.ProductResponse;
 import com.kadirkara.product.entity.Product;
 import com.kadirkara.product.mapper.ProductMapper;
+import com.kadirkara.product.service.PriceUpdateService;
+import com.kadirkara.product.service.ProductExportService;
+import com.kadirkara.product.service.ProductFilterService;
+import com.kadirkara.product.service.ProductImportService;
+import com.kadirkara.product.service.ProductLookupService;
 import com.kadirkara.product.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.NoSuchElementException;
+import java.util.zip.GZIPOutputStream;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
@@ -29,50 +60,178 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 @RequestMapping("/api/products")
 public class ProductController implements IProductController {
 
+    private static final int MAX_SCROLL_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int MAX_FILTER_SIZE = 100;
+
     private final ProductService productService;
     private final ProductMapper productMapper;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
+    private final PriceUpdateService priceUpdateService;
+    private final ProductLookupService productLookupService;
+    private final ProductFilterService productFilterService;
+    private final CacheControl readCacheControl;
 
     @Value("${server.port}")
     private String port;
 
-    public ProductController(ProductService productService, ProductMapper productMapper) {
+    public ProductController(ProductService productService, ProductMapper productMapper,
+                             ProductImportService productImportService, ProductExportService productExportService,
+                             PriceUpdateService priceUpdateService, ProductLookupService productLookupService,
+                             ProductFilterService productFilterService,
+                             @Value("${product.http.max-age:60s}") Duration maxAge,
+                             @Value("${product.http.shared-cache:false}") boolean sharedCache) {
         this.productService = productService;
         this.productMapper = productMapper;
+        this.productImportService = productImportService;
+        this.productExportService = productExportService;
+        this.priceUpdateService = priceUpdateService;
+        this.productLookupService = productLookupService;
+        this.productFilterService = productFilterService;
+        // Clients revalidate with the ETag once max-age has passed
+        CacheControl cacheControl = CacheControl.maxAge(maxAge).mustRevalidate();
+        this.readCacheControl = sharedCache ? cacheControl.cachePublic() : cacheControl.cachePrivate();
+    }
+
+    // The snapshot comes from the products cache, so a 304 costs no query and no serialization
+    @Override
+    public ResponseEntity<EntityModel<ProductResponse>> get(@PathVariable Long id, WebRequest request) {
+        return single(productService.findById(id), request);
     }
 
     @Override
-    public EntityModel<ProductResponse> get(@PathVariable Long id) {
-        ProductResponse product = productMapper.toResponse(productService.findById(id));
+    public ResponseEntity<EntityModel<ProductResponse>> getBySku(@PathVariable String sku, WebRequest request) {
+        return single(productLookupService.findBySku(sku), request);
+    }
+
+    @Override
+    public ResponseEntity<EntityModel<ProductResponse>> getByBarcode(@PathVariable String code, WebRequest request) {
+        return single(productLookupService.findByBarcode(code), request);
+    }
+
+    private ResponseEntity<EntityModel<ProductResponse>> single(ProductSnapshot snapshot, WebRequest request) {
+        String etag = ProductETags.of(snapshot);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(readCacheControl).build();
+        }
+        ProductResponse product = productMapper.toResponse(snapshot);
         if (product == null) {
             throw new NoSuchElementException("Product not found");
         }
-        return toModel(product);
+        return ResponseEntity.ok().eTag(etag).cacheControl(readCacheControl).body(toModel(product));
+    }
+
+    @Override
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<PagedModel<EntityModel<ProductResponse>>> list(
+            @PageableDefault(size = 10, sort = "name", direction = Sort.Direction.ASC) Pageable pageable, WebRequest request) {
+        ProductPage page = productService.findAll(pageable);
+        long approximateCount = productService.approximateCount();
+        String etag = ProductETags.of(page, approximateCount);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(readCacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(readCacheControl)
+                .body(toPagedModel(page, pageable, approximateCount, productMapper));
     }
 
     @Override
     @PreAuthorize("hasRole('USER')")
-    public CollectionModel<EntityModel<ProductResponse>> list(@PageableDefault(size = 10, sort = "name", direction = Sort.Direction.ASC) Pageable pageable) {
-        List<EntityModel<ProductResponse>> productsResponse = productService.findAll(pageable).stream()
+    public CollectionModel<EntityModel<ProductResponse>> scroll(String cursor, int size, String sort) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+        ProductCursor position = cursor != null ? ProductCursor.decode(cursor) : ProductCursor.first(sort);
+        Window<ProductSnapshot> window = productService.scroll(position, size);
+        List<EntityModel<ProductResponse>> productsResponse = window.stream()
+                .map(productMapper::toResponse)
+                .map(ProductController::toModel)
+                .toList();
+        CollectionModel<EntityModel<ProductResponse>> model = CollectionModel.of(productsResponse,
+                linkTo(methodOn(ProductController.class).scroll(cursor, size, sort)).withSelfRel());
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            String next = position.next(last.getKeys()).encode();
+            model.add(linkTo(methodOn(ProductController.class).scroll(next, size, sort)).withRel(IanaLinkRelations.NEXT));
+        }
+        return model;
+    }
+
+    @Override
+    @PreAuthorize("hasRole('USER')")
+    public CollectionModel<EntityModel<ProductResponse>> search(String q, int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        List<EntityModel<ProductResponse>> products = productService.search(q, limit).stream()
                 .map(productMapper::toResponse)
-                .map(this::toModel)
+                .map(ProductController::toModel)
                 .toList();
-        return CollectionModel.of(productsResponse,
-                linkTo(methodOn(ProductController.class).list(pageable)).withSelfRel());
+        return CollectionModel.of(products, linkTo(methodOn(ProductController.class).search(q, limit)).withSelfRel());
+    }
+
+    @Override
+    @PreAuthorize("hasRole('USER')")
+    public ProductFilterResponse filter(List<Long> categoryId, BigDecimal minPrice, BigDecimal maxPrice, String namePrefix,
+                                        @PageableDefault(size = 20, sort = "price") Pageable pageable) {
+        if (pageable.getPageSize() > MAX_FILTER_SIZE) {
+            throw new IllegalArgumentException("Size must be at most " + MAX_FILTER_SIZE);
+        }
+        return productFilterService.filter(new ProductFilter(categoryId, minPrice, maxPrice, namePrefix), pageable);
+    }
+
+    @Override
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<StreamingResponseBody> export(String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024)) {
+                    productExportService.exportNdjson(compressed);
+                }
+            } else {
+                productExportService.exportNdjson(out);
+            }
+        };
+        // The body depends on Accept-Encoding, so a shared cache must not hand gzip to every client
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 
     @Override
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<EntityModel<ProductResponse>> create(@Valid @RequestBody ProductRequest productRequest) {
         Product p = productMapper.toEntity(productRequest);
-        Product save = productService.save(p);
+        ProductSnapshot save = productService.save(p);
         ProductResponse product = productMapper.toResponse(save);
         EntityModel<ProductResponse> entityModel = toModel(product);
-        return ResponseEntity.created(linkTo(methodOn(ProductController.class).get(product.id())).toUri())
+        return ResponseEntity.created(linkTo(methodOn(ProductController.class).get(product.id(), null)).toUri())
                 .body(entityModel);
     }
 
     @Override
-    public EntityModel<ProductResponse> update(@PathVariable Long id, @RequestBody ProductRequest productRequest) {
+    @PreAuthorize("hasRole('ADMIN')")
+    public CompletableFuture<PriceUpdateResult> updatePrices(@RequestBody List<PriceUpdate> updates) {
+        return priceUpdateService.submit(updates);
+    }
+
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    public ProductImportResult importProducts(String contentType, boolean audit, InputStream body) throws IOException {
+        if (MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.valueOf("text/csv"))) {
+            return productImportService.importCsv(body, audit);
+        }
+        return productImportService.importNdjson(body, audit);
+    }
+
+    @Override
+    public ResponseEntity<EntityModel<ProductResponse>> update(@PathVariable Long id, @RequestBody ProductRequest productRequest,
+                                                               String ifMatch) {
         ProductRequest updatedProductRequest = new ProductRequest(
                 id,
                 productRequest.name(),
@@ -81,9 +240,16 @@ public class ProductController implements IProductController {
                 productRequest.sku(),
                 productRequest.barcode(),
                 productRequest.category());
-        Product p = productService.update(productMapper.toEntity(updatedProductRequest));
-        ProductResponse newProduct = productMapper.toResponse(p);
-        return toModel(newProduct);
+        ProductSnapshot p = productService.update(productMapper.toEntity(updatedProductRequest),
+                ProductETags.expectedVersion(ifMatch, id));
+        return ResponseEntity.ok().eTag(ProductETags.of(p)).body(toModel(productMapper.toResponse(p)));
+    }
+
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<EntityModel<ProductResponse>> patch(@PathVariable Long id, @RequestBody JsonNode patch, String ifMatch) {
+        ProductSnapshot p = productService.patch(id, ProductETags.expectedVersion(ifMatch, id), new ProductMergePatch(patch));
+        return ResponseEntity.ok().eTag(ProductETags.of(p)).body(toModel(productMapper.toResponse(p)));
     }
 
     @Override
@@ -92,9 +258,61 @@ public class ProductController implements IProductController {
         return ResponseEntity.noContent().build();
     }
 
-    private EntityModel<ProductResponse> toModel(ProductResponse product) {
+    /**
+     * Whether the Accept-Encoding header allows gzip: named with a non-zero q-value, or covered
+     * by {@code *} without being refused by name.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        q = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = q;
+            } else if (coding.equals("*")) {
+                wildcard = q;
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return wildcard != null && wildcard > 0;
+    }
+
+    // totalElements is approximate; hasNext comes from the slice and is always exact
+    static PagedModel<EntityModel<ProductResponse>> toPagedModel(ProductPage page, Pageable pageable,
+                                                                 long approximateCount, ProductMapper productMapper) {
+        List<EntityModel<ProductResponse>> productsResponse = page.content().stream()
+                .map(productMapper::toResponse)
+                .map(ProductController::toModel)
+                .toList();
+        PagedModel.PageMetadata metadata = new PagedModel.PageMetadata(page.size(), page.number(), approximateCount);
+        PagedModel<EntityModel<ProductResponse>> model = PagedModel.of(productsResponse, metadata,
+                linkTo(methodOn(ProductController.class).list(pageable, null)).withSelfRel());
+        if (page.hasNext()) {
+            model.add(linkTo(methodOn(ProductController.class).list(pageable.next(), null)).withRel(IanaLinkRelations.NEXT));
+        }
+        return model;
+    }
+
+    static EntityModel<ProductResponse> toModel(ProductResponse product) {
         return EntityModel.of(product,
-                linkTo(methodOn(ProductController.class).get(product.id())).withSelfRel(),
-                linkTo(methodOn(ProductController.class).list(null)).withRel("products"));
+                linkTo(methodOn(ProductController.class).get(product.id(), null)).withSelfRel(),
+                linkTo(methodOn(ProductController.class).list(null, null)).withRel("products"));
     }
 }
\ No newline at end of file
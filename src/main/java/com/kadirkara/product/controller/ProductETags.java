@@ -0,0 +1,53 @@
+package com.kadirkara.product.controller;
+
+import com.kadirkara.product.cache.ProductPage;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.exception.PreconditionFailedException;
+
+/**
+ * Strong ETags for product representations, derived from the {@code version} column so they can
+ * be computed from cached snapshots without loading the entity.
+ */
+final class ProductETags {
+
+    private ProductETags() {
+    }
+
+    static String of(ProductSnapshot product) {
+        return "\"" + product.id() + "-" + product.version() + "\"";
+    }
+
+    /**
+     * Version an {@code If-Match} value asks for, or {@code null} for no header or {@code *}.
+     * Anything that is not this product's ETag can never match.
+     */
+    static Long expectedVersion(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + id + "-";
+        String etag = ifMatch.trim();
+        if (etag.startsWith(prefix) && etag.endsWith("\"") && etag.length() > prefix.length() + 1) {
+            try {
+                return Long.parseLong(etag.substring(prefix.length(), etag.length() - 1));
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not name a version of product " + id);
+    }
+
+    // Covers everything the page body is built from: the rows, their order and the page metadata
+    static String of(ProductPage page, long approximateCount) {
+        long hash = 1125899906842597L;
+        for (ProductSnapshot product : page.content()) {
+            hash = 31 * hash + product.id();
+            hash = 31 * hash + product.version();
+        }
+        hash = 31 * hash + page.number();
+        hash = 31 * hash + page.size();
+        hash = 31 * hash + (page.hasNext() ? 1 : 0);
+        hash = 31 * hash + approximateCount;
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+}
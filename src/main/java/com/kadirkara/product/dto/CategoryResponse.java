@@ -0,0 +1,7 @@
+package com.kadirkara.product.dto;
+
+public record CategoryResponse(
+        Long id,
+        String name
+) {
+}
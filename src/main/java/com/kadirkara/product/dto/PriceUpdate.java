@@ -0,0 +1,21 @@
+package com.kadirkara.product.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * New price for one product, addressed by exactly one of {@code id} or {@code sku}.
+ */
+public record PriceUpdate(
+        Long id,
+        String sku,
+        BigDecimal price
+) {
+
+    public PriceUpdate {
+        if ((id == null) == (sku == null)) {
+            throw new IllegalArgumentException("Price update needs exactly one of id or sku");
+        }
+        // Checked here, since one unstorable price would fail the whole coalesced batch
+        Prices.requireStorable(price);
+    }
+}
@@ -0,0 +1,14 @@
+package com.kadirkara.product.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a price update request once its batch is committed. Ids and skus that matched no
+ * product are listed back.
+ */
+public record PriceUpdateResult(
+        long updated,
+        List<Long> unknownIds,
+        List<String> unknownSkus
+) {
+}
@@ -0,0 +1,30 @@
+package com.kadirkara.product.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Checks a price against {@code products.price}, a {@code DECIMAL(10, 2)}, before it reaches
+ * the database, which would otherwise round it or fail the whole statement.
+ */
+public final class Prices {
+
+    static final int SCALE = 2;
+    static final int INTEGER_DIGITS = 8;
+
+    private Prices() {
+    }
+
+    public static BigDecimal requireStorable(BigDecimal price) {
+        if (price == null || price.signum() < 0) {
+            throw new IllegalArgumentException("Price must be non-negative");
+        }
+        BigDecimal stripped = price.stripTrailingZeros();
+        if (stripped.scale() > SCALE) {
+            throw new IllegalArgumentException("Price must have at most " + SCALE + " decimal places");
+        }
+        if (stripped.precision() - stripped.scale() > INTEGER_DIGITS) {
+            throw new IllegalArgumentException("Price must be below " + BigDecimal.TEN.pow(INTEGER_DIGITS).toPlainString());
+        }
+        return price;
+    }
+}
@@ -0,0 +1,104 @@
+package com.kadirkara.product.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Continuation token for keyset product listing. Holds the sort and the (sort key, id) of the
+ * last row returned, and travels to clients as an opaque base64url string.
+ */
+public record ProductCursor(
+        String property,
+        Sort.Direction direction,
+        Map<String, Object> keys
+) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Each sortable column needs a matching (column, id) index, see V5 migration
+    private static final Map<String, Function<String, Object>> SORTABLE = Map.of(
+            "name", value -> value,
+            "price", BigDecimal::new,
+            "id", Long::valueOf);
+
+    public ProductCursor {
+        if (!SORTABLE.containsKey(property)) {
+            throw new IllegalArgumentException("Unsupported sort property: " + property);
+        }
+        keys = Map.copyOf(keys);
+    }
+
+    /**
+     * Cursor for the first window, from a sort parameter such as {@code price} or {@code price,desc}.
+     */
+    public static ProductCursor first(String sort) {
+        String[] parts = sort.split(",");
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromOptionalString(parts[1].trim()).orElseThrow(
+                        () -> new IllegalArgumentException("Unsupported sort direction: " + parts[1]))
+                : Sort.Direction.ASC;
+        return new ProductCursor(parts[0].trim(), direction, Map.of());
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            Token decoded = MAPPER.readValue(Base64.getUrlDecoder().decode(token), Token.class);
+            if (decoded.s() == null || decoded.d() == null || decoded.k() == null) {
+                throw new IllegalArgumentException("Incomplete cursor");
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            decoded.k().forEach((property, value) -> keys.put(property, convert(property, value)));
+            if (!keys.containsKey(decoded.s()) || !keys.containsKey("id")) {
+                throw new IllegalArgumentException("Cursor does not match its sort");
+            }
+            return new ProductCursor(decoded.s(), decoded.d(), keys);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public ProductCursor next(Map<String, Object> lastKeys) {
+        return new ProductCursor(property, direction, lastKeys);
+    }
+
+    public String encode() {
+        Map<String, String> values = new LinkedHashMap<>();
+        keys.forEach((property, value) -> values.put(property,
+                value instanceof BigDecimal decimal ? decimal.toPlainString() : String.valueOf(value)));
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(new Token(property, direction, values));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The id makes the keyset unique; same direction so one (column, id) index serves both ways
+    public Sort sort() {
+        return "id".equals(property) ? Sort.by(direction, "id") : Sort.by(direction, property, "id");
+    }
+
+    public ScrollPosition position() {
+        return keys.isEmpty() ? ScrollPosition.keyset() : ScrollPosition.forward(keys);
+    }
+
+    private static Object convert(String property, String value) {
+        Function<String, Object> converter = SORTABLE.get(property);
+        if (converter == null) {
+            throw new IllegalArgumentException("Unsupported sort property: " + property);
+        }
+        return converter.apply(value);
+    }
+
+    private record Token(String s, Sort.Direction d, Map<String, String> k) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.kadirkara.product.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Storefront filter: any of the categories, price from {@code minPrice} up to, not including,
+ * {@code maxPrice}, and a case-insensitive name prefix. Absent parts do not filter.
+ */
+public record ProductFilter(
+        List<Long> categoryIds,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        String namePrefix
+) {
+
+    public ProductFilter {
+        categoryIds = categoryIds == null ? List.of() : List.copyOf(categoryIds);
+        if (minPrice != null && minPrice.signum() < 0) {
+            throw new IllegalArgumentException("Minimum price must be non-negative");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("Minimum price must not exceed maximum price");
+        }
+        namePrefix = namePrefix == null || namePrefix.isBlank() ? null : namePrefix.strip();
+    }
+
+    public static ProductFilter none() {
+        return new ProductFilter(null, null, null, null);
+    }
+
+    // Facets are disjunctive: each one is counted without its own filter
+    public ProductFilter withoutCategories() {
+        return new ProductFilter(null, minPrice, maxPrice, namePrefix);
+    }
+
+    public ProductFilter withoutPrice() {
+        return new ProductFilter(categoryIds, null, null, namePrefix);
+    }
+}
@@ -0,0 +1,27 @@
+package com.kadirkara.product.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record ProductFilterResponse(
+        List<ProductResponse> content,
+        int page,
+        int size,
+        boolean hasNext,
+        List<CategoryFacet> categories,
+        List<PriceFacet> prices
+) {
+
+    /**
+     * Products per category under every filter except the category one.
+     */
+    public record CategoryFacet(Long categoryId, long count) {
+    }
+
+    /**
+     * Products per price bucket under every filter except the price one; {@code to} is
+     * exclusive, and {@code null} for the open-ended top bucket.
+     */
+    public record PriceFacet(BigDecimal from, BigDecimal to, long count) {
+    }
+}
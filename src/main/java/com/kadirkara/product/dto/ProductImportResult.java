@@ -0,0 +1,13 @@
+package com.kadirkara.product.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code errors} is capped, {@code failed} counts every rejected row.
+ */
+public record ProductImportResult(
+        long imported,
+        long failed,
+        List<ProductImportError> errors
+) {
+}
@@ -0,0 +1,64 @@
+package com.kadirkara.product.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.kadirkara.product.entity.Product;
+
+import java.util.Set;
+
+/**
+ * JSON Merge Patch (RFC 7396) for a product. Members that are present replace the stored value,
+ * {@code null} clears it, absent members are left alone. Validated up front so a bad document
+ * never touches the entity.
+ */
+public record ProductMergePatch(JsonNode document) {
+
+    private static final Set<String> PATCHABLE = Set.of("name", "price", "description", "sku", "barcode");
+
+    public ProductMergePatch {
+        if (document == null || !document.isObject()) {
+            throw new IllegalArgumentException("Merge patch must be a JSON object");
+        }
+        document.fieldNames().forEachRemaining(field -> {
+            if (!PATCHABLE.contains(field)) {
+                throw new IllegalArgumentException("Field cannot be patched: " + field);
+            }
+        });
+        requireText(document, "name", false);
+        requireText(document, "barcode", false);
+        requireText(document, "sku", false);
+        requireText(document, "description", true);
+        if (document.has("description") && document.get("description").asText().length() > 255) {
+            throw new IllegalArgumentException("Description is too long");
+        }
+        if (document.has("price")) {
+            JsonNode price = document.get("price");
+            if (!price.isNumber()) {
+                throw new IllegalArgumentException("Price must be non-negative");
+            }
+            Prices.requireStorable(price.decimalValue());
+        }
+    }
+
+    public void applyTo(Product product) {
+        if (document.has("name")) product.setName(document.get("name").asText());
+        if (document.has("barcode")) product.setBarcode(document.get("barcode").asText());
+        if (document.has("sku")) product.setSku(document.get("sku").asText());
+        if (document.has("description")) product.setDescription(text("description"));
+        if (document.has("price")) product.setPrice(document.get("price").decimalValue());
+    }
+
+    private String text(String field) {
+        JsonNode value = document.get(field);
+        return value.isNull() ? null : value.asText();
+    }
+
+    private static void requireText(JsonNode document, String field, boolean nullable) {
+        if (!document.has(field)) {
+            return;
+        }
+        JsonNode value = document.get(field);
+        if (value.isNull() ? !nullable : !value.isTextual() || (!nullable && value.asText().isBlank())) {
+            throw new IllegalArgumentException(field + " must be " + (nullable ? "a string or null" : "a non-blank string"));
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package com.kadirkara.product.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 
+// Updates list only the dirty columns, so a price change does not rewrite the description
 @Entity
 @Table(name = "products")
+@DynamicUpdate
 public class Product {
+    // Sequence ids let Hibernate batch inserts; each nextval reserves allocationSize ids
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_id_seq")
+    @SequenceGenerator(name = "products_id_seq", sequenceName = "products_id_seq", allocationSize = 50)
     private Long id;
 
+    @Column(unique = true, nullable = false)
     private String sku;
 
     @Column(unique = true, nullable = false)
@@ -28,6 +34,10 @@ public class Product {
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
 
+    // Primitive, so Spring Data still decides new versus existing by id
+    @Version
+    private long version;
+
     public Product() {}
 
     public Product(Long id, String sku, String barcode, String name, String description, BigDecimal price, Category category) {
@@ -63,4 +73,6 @@ public class Product {
     public void setPrice(BigDecimal price) { this.price = price; }
     public Category getCategory() { return category; }
     public void setCategory(Category category) { this.category = category; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
\ No newline at end of file
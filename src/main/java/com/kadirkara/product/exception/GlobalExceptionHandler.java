@@ -1,13 +1,18 @@
 package com.kadirkara.product.exception;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -26,10 +31,59 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errors);
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgumentException(IllegalArgumentException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.badRequest().body(error);
+    }
+
     @ExceptionHandler(NoSuchElementException.class)
     public ResponseEntity<Map<String, String>> handleNoSuchElementException(NoSuchElementException ex) {
         Map<String, String> error = new HashMap<>();
         error.put("error", ex.getMessage());
         return ResponseEntity.status(404).body(error);
     }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<Map<String, String>> handlePreconditionFailedException(PreconditionFailedException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(412).body(error);
+    }
+
+    // Another writer committed between our read and our flush
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Product was modified concurrently");
+        return ResponseEntity.status(409).body(error);
+    }
+
+    // Constraint names from the migrations; the database names the violated one in its message
+    private static final Map<String, String> CONSTRAINT_ERRORS = Map.of(
+            "ux_products_sku", "A product with this sku already exists",
+            "ux_products_barcode", "A product with this barcode already exists",
+            "idx_categories_name", "A category with this name already exists",
+            "fk_category", "The category does not exist or still has products");
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, String>> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
+        String detail = String.valueOf(ex.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        Map<String, String> error = new HashMap<>();
+        error.put("error", CONSTRAINT_ERRORS.entrySet().stream()
+                .filter(constraint -> detail.contains(constraint.getKey()))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse("Conflicts with existing data"));
+        return ResponseEntity.status(409).body(error);
+    }
+
+    // Raised when the async read queue is full
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> handleRejectedExecutionException(RejectedExecutionException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Too many requests in progress");
+        return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body(error);
+    }
 }
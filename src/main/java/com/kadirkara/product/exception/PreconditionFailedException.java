@@ -0,0 +1,11 @@
+package com.kadirkara.product.exception;
+
+/**
+ * The resource no longer matches the ETag the client sent in {@code If-Match}.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
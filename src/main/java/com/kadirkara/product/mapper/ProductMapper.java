@@ -1,5 +1,6 @@
 package com.kadirkara.product.mapper;
 
+import com.kadirkara.product.cache.ProductSnapshot;
 import com.kadirkara.product.dto.ProductRequest;
 import com.kadirkara.product.dto.ProductResponse;
 import com.kadirkara.product.entity.Product;
@@ -8,9 +9,9 @@ import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface ProductMapper {
-    ProductResponse toResponse(Product product);
+    ProductResponse toResponse(ProductSnapshot product);
 
-    @Mapping(target = "price", expression = "java(new java.math.BigDecimal(productRequest.price()))")
+    @Mapping(target = "price", expression = "java(java.math.BigDecimal.valueOf(productRequest.price()))")
     Product toEntity(ProductRequest productRequest);
 
 }
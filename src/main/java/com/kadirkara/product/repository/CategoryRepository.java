@@ -6,10 +6,14 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import javax.swing.text.html.Option;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
 public interface CategoryRepository extends PagingAndSortingRepository<Category, Long>, JpaRepository<Category, Long> {
     Optional<Category> findByName(String name);
 
+    List<Category> findByNameIn(Collection<String> names);
+
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.kadirkara.product.repository;
+
+import com.kadirkara.product.cache.CategoryStats;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Optional;
+
+/**
+ * Reads the {@code category_stats} rollup the product triggers maintain. A category without a
+ * rollup row has no products yet.
+ */
+@Repository
+public class CategoryStatsRepository {
+
+    private static final String SQL = """
+            SELECT c.id, c.name, s.product_count, s.price_total, s.min_price, s.max_price
+            FROM categories c
+            LEFT JOIN category_stats s ON s.category_id = c.id
+            WHERE c.id = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CategoryStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<CategoryStats> findById(Long categoryId) {
+        return jdbcTemplate.query(SQL, (rs, rowNum) -> {
+            long count = rs.getLong("product_count");
+            BigDecimal total = rs.getBigDecimal("price_total");
+            return new CategoryStats(
+                    rs.getLong("id"),
+                    rs.getString("name"),
+                    count,
+                    count > 0 ? rs.getBigDecimal("min_price") : null,
+                    count > 0 ? total.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_EVEN) : null,
+                    count > 0 ? rs.getBigDecimal("max_price") : null);
+        }, categoryId).stream().findFirst();
+    }
+}
@@ -0,0 +1,118 @@
+package com.kadirkara.product.repository;
+
+import com.kadirkara.product.cache.PriceBuckets;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.dto.ProductFilter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Filtered listings and facet counts. Every filter turns into a predicate an index can serve:
+ * {@code (category_id, price, id)} for categories and price ranges, {@code (price, id)} for a
+ * price range alone and {@code lower(name)} for the name prefix.
+ */
+@Repository
+public class ProductFilterRepository {
+
+    private static final Set<String> SORTABLE = Set.of("price", "name", "id");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductFilterRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * One page of matching products plus the first row of the next page, if there is one.
+     */
+    public List<ProductSnapshot> find(ProductFilter filter, Pageable pageable) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(ProductRows.SNAPSHOT_COLUMNS)
+                .append(" FROM products p");
+        where(filter, sql, args);
+        orderBy(pageable.getSort(), sql);
+        sql.append(" LIMIT ? OFFSET ?");
+        args.add(pageable.getPageSize() + 1);
+        args.add(pageable.getOffset());
+        return jdbcTemplate.query(sql.toString(), ProductRows.SNAPSHOT, args.toArray());
+    }
+
+    /**
+     * Matching products per category id and price bucket.
+     */
+    public Map<Long, long[]> countByCategoryAndBucket(ProductFilter filter, PriceBuckets buckets) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT p.category_id, CASE");
+        BigDecimal[] upperEdges = buckets.upperEdges();
+        for (int i = 0; i < upperEdges.length; i++) {
+            sql.append(" WHEN p.price < ? THEN ").append(i);
+            args.add(upperEdges[i]);
+        }
+        sql.append(" ELSE ").append(upperEdges.length).append(" END AS bucket, COUNT(*) AS products FROM products p");
+        where(filter, sql, args);
+        sql.append(" GROUP BY p.category_id, bucket");
+        Map<Long, long[]> counts = new HashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            counts.computeIfAbsent(rs.getLong("category_id"), category -> new long[buckets.count()])
+                    [rs.getInt("bucket")] += rs.getLong("products");
+        }, args.toArray());
+        return counts;
+    }
+
+    private static void where(ProductFilter filter, StringBuilder sql, List<Object> args) {
+        List<String> predicates = new ArrayList<>();
+        if (!filter.categoryIds().isEmpty()) {
+            predicates.add("p.category_id IN (" + String.join(", ", filter.categoryIds().stream().map(id -> "?").toList()) + ")");
+            args.addAll(filter.categoryIds());
+        }
+        if (filter.minPrice() != null) {
+            predicates.add("p.price >= ?");
+            args.add(filter.minPrice());
+        }
+        if (filter.maxPrice() != null) {
+            predicates.add("p.price < ?");
+            args.add(filter.maxPrice());
+        }
+        if (filter.namePrefix() != null) {
+            predicates.add("lower(p.name) LIKE ? ESCAPE '\\'");
+            args.add(escapeLike(filter.namePrefix().toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (!predicates.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", predicates));
+        }
+    }
+
+    // Ends on id in the direction of the last order, so every sort can walk an (x, id) index
+    private static void orderBy(Sort sort, StringBuilder sql) {
+        List<String> orders = new ArrayList<>();
+        Sort.Direction last = Sort.Direction.ASC;
+        for (Sort.Order order : sort.isSorted() ? sort : Sort.by("price")) {
+            if (!SORTABLE.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Cannot sort by " + order.getProperty());
+            }
+            orders.add("p." + order.getProperty() + " " + order.getDirection());
+            last = order.getDirection();
+            if (order.getProperty().equals("id")) {
+                break;
+            }
+        }
+        if (orders.stream().noneMatch(order -> order.startsWith("p.id "))) {
+            orders.add("p.id " + last);
+        }
+        sql.append(" ORDER BY ").append(String.join(", ", orders));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
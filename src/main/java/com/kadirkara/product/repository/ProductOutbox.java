@@ -0,0 +1,203 @@
+package com.kadirkara.product.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kadirkara.product.cache.ProductChange;
+import com.kadirkara.product.cache.ProductSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Repository;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * The {@code product_outbox} table. Writers append in their own transaction, so a change is
+ * recorded exactly when the product write commits; the relay later claims the backlog in id order.
+ * <p>
+ * The table is also the audit queue: {@link #claimAudit} hands rows to the auditor independently of
+ * the relay, and published rows are only purged once they are audited. With
+ * {@code product.audit.enabled} off nothing is queued, and the purge no longer waits for rows
+ * queued before auditing was turned off.
+ */
+@Repository
+public class ProductOutbox {
+
+    // Any constant works, as long as only the relay takes this advisory lock
+    static final long RELAY_LOCK = 0x6f7574626f78L;
+    static final long AUDIT_LOCK = 0x6175646974L;
+
+    private static final String INSERT =
+            "INSERT INTO product_outbox (product_id, type, payload, audit, author) VALUES (?, ?, CAST(? AS jsonb), ?, ?)";
+    private static final String SYSTEM_AUTHOR = "system";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean auditEnabled;
+
+    public ProductOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                         @Value("${product.audit.enabled:true}") boolean auditEnabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.auditEnabled = auditEnabled;
+    }
+
+    private record Pending(long id, ProductChange.Type type, Long productId, ProductSnapshot product) {
+    }
+
+    /**
+     * A change waiting to be audited. {@code id} is the outbox row, not the product.
+     */
+    public record AuditEntry(long id, ProductChange.Type type, Long productId, ProductSnapshot product, String author) {
+    }
+
+    public void append(ProductChange.Type type, ProductSnapshot product) {
+        appendAll(type, List.of(product));
+    }
+
+    public void appendAll(ProductChange.Type type, List<ProductSnapshot> products) {
+        appendAll(type, products, true);
+    }
+
+    /**
+     * With {@code audit} off the changes are still published, but never reach the audit log.
+     */
+    public void appendAll(ProductChange.Type type, List<ProductSnapshot> products, boolean audit) {
+        append(type, products, audit, Collections.nCopies(products.size(), currentAuthor()));
+    }
+
+    /**
+     * For writes made off the request thread: {@code authors} holds the author of each product,
+     * taken with {@link #currentAuthor} where the change was requested.
+     */
+    public void appendAll(ProductChange.Type type, List<ProductSnapshot> products, List<String> authors) {
+        append(type, products, true, authors);
+    }
+
+    public void appendDeleted(Long productId) {
+        jdbcTemplate.update(INSERT, productId, ProductChange.Type.DELETED.name(), null, auditEnabled, currentAuthor());
+    }
+
+    /**
+     * Whether this transaction may relay. The lock is held until it ends, so at most one member
+     * publishes at a time and offsets follow the order rows were claimed in.
+     */
+    public boolean tryLockRelay() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RELAY_LOCK));
+    }
+
+    /**
+     * Up to {@code limit} unpublished changes, oldest first, each stamped with the next stream offset.
+     * The stamp only sticks if the caller's transaction commits.
+     */
+    public List<ProductChange> claim(int limit) {
+        List<Pending> pending = jdbcTemplate.query("""
+                SELECT id, product_id, type, payload FROM product_outbox
+                WHERE stream_offset IS NULL ORDER BY id LIMIT ?""",
+                (rs, rowNum) -> new Pending(rs.getLong("id"), ProductChange.Type.valueOf(rs.getString("type")),
+                        rs.getLong("product_id"), read(rs.getString("payload"))), limit);
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        List<Long> offsets = jdbcTemplate.queryForList(
+                "SELECT nextval('product_outbox_offset_seq') FROM generate_series(1, ?) ORDER BY 1", Long.class, pending.size());
+        List<Object[]> stamps = new ArrayList<>(pending.size());
+        List<ProductChange> claimed = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            Pending row = pending.get(i);
+            stamps.add(new Object[]{offsets.get(i), row.id()});
+            claimed.add(new ProductChange(offsets.get(i), row.type(), row.productId(), row.product()));
+        }
+        jdbcTemplate.batchUpdate("UPDATE product_outbox SET stream_offset = ?, published_at = now() WHERE id = ?", stamps);
+        return claimed;
+    }
+
+    /**
+     * Whether this transaction may audit. Like the relay lock, it keeps the changes of one product
+     * in order when several members audit.
+     */
+    public boolean tryLockAudit() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, AUDIT_LOCK));
+    }
+
+    public List<AuditEntry> claimAudit(int limit) {
+        return jdbcTemplate.query("""
+                SELECT id, product_id, type, payload, author FROM product_outbox
+                WHERE audit AND audited_at IS NULL ORDER BY id LIMIT ?""",
+                (rs, rowNum) -> new AuditEntry(rs.getLong("id"), ProductChange.Type.valueOf(rs.getString("type")),
+                        rs.getLong("product_id"), read(rs.getString("payload")), rs.getString("author")), limit);
+    }
+
+    public void markAudited(List<Long> ids) {
+        jdbcTemplate.batchUpdate("UPDATE product_outbox SET audited_at = now() WHERE id = ?",
+                ids.stream().map(id -> new Object[]{id}).toList());
+    }
+
+    public Optional<LocalDateTime> oldestUnaudited() {
+        return jdbcTemplate.queryForList("""
+                SELECT created_at FROM product_outbox
+                WHERE audit AND audited_at IS NULL ORDER BY id LIMIT 1""", LocalDateTime.class).stream().findFirst();
+    }
+
+    public List<ProductChange> since(long offset, int limit) {
+        return jdbcTemplate.query("""
+                SELECT stream_offset, product_id, type, payload FROM product_outbox
+                WHERE stream_offset > ? ORDER BY stream_offset LIMIT ?""",
+                (rs, rowNum) -> new ProductChange(rs.getLong("stream_offset"), ProductChange.Type.valueOf(rs.getString("type")),
+                        rs.getLong("product_id"), read(rs.getString("payload"))), offset, limit);
+    }
+
+    public int purgePublishedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update(
+                "DELETE FROM product_outbox WHERE published_at < ? AND (audited_at IS NOT NULL OR NOT audit OR NOT ?)",
+                cutoff, auditEnabled);
+    }
+
+    // Writes outside a request, such as scheduled jobs, have no authentication
+    public static String currentAuthor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? SYSTEM_AUTHOR : authentication.getName();
+    }
+
+    private void append(ProductChange.Type type, List<ProductSnapshot> products, boolean audit, List<String> authors) {
+        if (products.isEmpty()) {
+            return;
+        }
+        List<Integer> rows = IntStream.range(0, products.size()).boxed().toList();
+        jdbcTemplate.batchUpdate(INSERT, rows, rows.size(), (ps, row) -> {
+            ProductSnapshot product = products.get(row);
+            ps.setLong(1, product.id());
+            ps.setString(2, type.name());
+            ps.setString(3, write(product));
+            ps.setBoolean(4, audit && auditEnabled);
+            ps.setString(5, authors.get(row));
+        });
+    }
+
+    private String write(ProductSnapshot product) {
+        try {
+            return objectMapper.writeValueAsString(product);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Deletes have no payload
+    private ProductSnapshot read(String payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(payload, ProductSnapshot.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.kadirkara.product.repository;
+
+import com.kadirkara.product.cache.ProductSnapshot;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies many price changes in one statement per chunk with {@code UPDATE ... FROM (VALUES ...)},
+ * bumping the version like a JPA update would and returning the rows it changed along with the
+ * price each had before.
+ */
+@Repository
+public class ProductPriceWriter {
+
+    // Two bind parameters per row, well under the 65535 the Postgres protocol allows
+    static final int MAX_ROWS_PER_STATEMENT = 10_000;
+
+    // The self-join reads the rows as they were when the statement started
+    private static final String RETURNING =
+            " RETURNING " + ProductRows.SNAPSHOT_COLUMNS + ", old.price AS previous_price";
+
+    private static final RowMapper<PriceChange> CHANGE = (rs, rowNum) -> new PriceChange(
+            ProductRows.SNAPSHOT.mapRow(rs, rowNum), rs.getBigDecimal("previous_price"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductPriceWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record PriceChange(ProductSnapshot product, BigDecimal previousPrice) {
+    }
+
+    public List<PriceChange> updateById(Map<Long, BigDecimal> prices) {
+        return update("id", "bigint", prices);
+    }
+
+    public List<PriceChange> updateBySku(Map<String, BigDecimal> prices) {
+        return update("sku", "varchar", prices);
+    }
+
+    /**
+     * Resolves skus to product ids, so a batch can coalesce updates by sku and by id of the same
+     * product. Skus that match no product are left out.
+     */
+    public Map<String, Long> idsBySku(Collection<String> skus) {
+        if (skus.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> keys = new ArrayList<>(skus);
+        Map<String, Long> ids = new HashMap<>(keys.size() * 2);
+        for (int from = 0; from < keys.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<String> chunk = keys.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, keys.size()));
+            String sql = "SELECT id, sku FROM products WHERE sku IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            jdbcTemplate.query(sql, rs -> {
+                ids.put(rs.getString("sku"), rs.getLong("id"));
+            }, chunk.toArray());
+        }
+        return ids;
+    }
+
+    private <K> List<PriceChange> update(String column, String keyType, Map<K, BigDecimal> prices) {
+        if (prices.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Map.Entry<K, BigDecimal>> entries = new ArrayList<>(prices.entrySet());
+        List<PriceChange> updated = new ArrayList<>(entries.size());
+        for (int from = 0; from < entries.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Map.Entry<K, BigDecimal>> chunk = entries.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, entries.size()));
+            Object[] args = new Object[chunk.size() * 2];
+            for (int i = 0; i < chunk.size(); i++) {
+                args[2 * i] = chunk.get(i).getKey();
+                args[2 * i + 1] = chunk.get(i).getValue();
+            }
+            updated.addAll(jdbcTemplate.query(sql(column, keyType, chunk.size()), CHANGE, args));
+        }
+        return updated;
+    }
+
+    // Only the first row is cast; Postgres takes the column types of a VALUES list from it
+    static String sql(String column, String keyType, int rows) {
+        StringBuilder sql = new StringBuilder(96 + rows * 8)
+                .append("UPDATE products AS p SET price = v.price, version = p.version + 1 FROM (VALUES ")
+                .append("(CAST(? AS ").append(keyType).append("), CAST(? AS numeric))");
+        for (int i = 1; i < rows; i++) {
+            sql.append(", (?, ?)");
+        }
+        return sql.append(") AS v(").append(column).append(", price), products AS old WHERE p.").append(column)
+                .append(" = v.").append(column).append(" AND old.id = p.id").append(RETURNING).toString();
+    }
+}
@@ -1,12 +1,92 @@
 package com.kadirkara.product.repository;
 
+import com.kadirkara.product.cache.ProductSnapshot;
 import com.kadirkara.product.entity.Product;
+import com.kadirkara.product.search.ProductSearchDocument;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product,Long>, PagingAndSortingRepository<Product,Long> {
 
+    // Keyset scrolling: seeks past the (sort key, id) of the position instead of skipping OFFSET rows.
+    // Fetches the category in the same statement rather than one lazy select per distinct category.
+    @EntityGraph(attributePaths = "category")
+    Window<Product> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    // Read paths select only the columns a snapshot holds: no TEXT description, no managed entity
+    @Query("select new com.kadirkara.product.cache.ProductSnapshot(p.id, p.sku, p.barcode, p.name, p.price, p.category.id, p.version) " +
+            "from Product p where p.id = :id")
+    Optional<ProductSnapshot> findSnapshotById(Long id);
+
+    // Served by the unique indexes on sku and barcode
+    @Query("select p.id from Product p where p.sku = :sku")
+    Optional<Long> findIdBySku(String sku);
+
+    @Query("select p.id from Product p where p.barcode = :barcode")
+    Optional<Long> findIdByBarcode(String barcode);
+
+    boolean existsByCategoryId(Long categoryId);
+
+    @Query("select p.id from Product p where p.category.id = :categoryId")
+    List<Long> findIdsByCategoryId(Long categoryId);
+
+    // Reads size + 1 rows to tell whether another page follows, without the COUNT(*) a Page needs
+    @Query("select new com.kadirkara.product.cache.ProductSnapshot(p.id, p.sku, p.barcode, p.name, p.price, p.category.id, p.version) " +
+            "from Product p")
+    Slice<ProductSnapshot> findSnapshotsBy(Pageable pageable);
+
+    // Server-side cursor on Postgres: must run inside a transaction, rows arrive 1000 at a time.
+    // Read-only entities skip the snapshot copies that dirty checking would otherwise keep.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAllBy();
+
+    @Query("select new com.kadirkara.product.cache.ProductSnapshot(p.id, p.sku, p.barcode, p.name, p.price, p.category.id, p.version) " +
+            "from Product p where p.id in :ids")
+    List<ProductSnapshot> findSnapshotsByIdIn(Collection<Long> ids);
+
+    // Text the search index is built from, streamed like streamAllBy
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.kadirkara.product.search.ProductSearchDocument(p.id, p.name, p.description, c.name) " +
+            "from Product p left join p.category c")
+    Stream<ProductSearchDocument> streamSearchDocumentsBy();
+
+    @Query("select new com.kadirkara.product.search.ProductSearchDocument(p.id, p.name, p.description, c.name) " +
+            "from Product p left join p.category c where p.id in :ids")
+    List<ProductSearchDocument> findSearchDocumentsByIdIn(Collection<Long> ids);
+
+    // Database search mode (V9): words through the GIN index on search_vector, typos through the
+    // trigram indexes. Typo-only matches rank below every word match.
+    @Query(value = "SELECT p.id FROM products p " +
+            "WHERE p.search_vector @@ to_tsquery('simple', :tsquery) " +
+            "OR :text <% p.name OR :text <% p.description " +
+            "ORDER BY ts_rank(p.search_vector, to_tsquery('simple', :tsquery)) DESC, " +
+            "word_similarity(:text, p.name) DESC, p.id " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Long> searchIds(String tsquery, String text, int limit);
+
+    // Live tuple count kept by the statistics collector; unlike reltuples it follows every
+    // committed insert and delete, not just the last ANALYZE
+    @Query(value = "SELECT n_live_tup FROM pg_stat_user_tables WHERE relname = 'products'", nativeQuery = true)
+    Long estimateCount();
 }
 
@@ -0,0 +1,22 @@
+package com.kadirkara.product.repository;
+
+import com.kadirkara.product.cache.ProductSnapshot;
+import org.springframework.jdbc.core.RowMapper;
+
+// Snapshot columns for the JDBC queries in this package, which address products as p
+final class ProductRows {
+
+    static final String SNAPSHOT_COLUMNS = "p.id, p.sku, p.barcode, p.name, p.price, p.category_id, p.version";
+
+    static final RowMapper<ProductSnapshot> SNAPSHOT = (rs, rowNum) -> new ProductSnapshot(
+            rs.getLong("id"),
+            rs.getString("sku"),
+            rs.getString("barcode"),
+            rs.getString("name"),
+            rs.getBigDecimal("price"),
+            rs.getObject("category_id", Long.class),
+            rs.getLong("version"));
+
+    private ProductRows() {
+    }
+}
@@ -0,0 +1,51 @@
+package com.kadirkara.product.search;
+
+import com.kadirkara.product.repository.ProductRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Search served by Postgres from the generated {@code search_vector} column and the trigram
+ * indexes of V9, for nodes that cannot hold the catalog in memory. The column follows every
+ * write by itself, so nothing is refreshed. Matches name and description only; the category
+ * name lives in another table.
+ */
+@Component
+@ConditionalOnProperty(name = "product.search.mode", havingValue = "database")
+public class DatabaseProductSearch implements ProductSearch {
+
+    private static final int MAX_QUERY_TERMS = 8;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ProductRepository productRepository;
+
+    public DatabaseProductSearch(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @Override
+    public List<Long> search(String query, int limit) {
+        // Accents are kept: the 'simple' configuration indexes words as written
+        List<String> tokens = query == null ? List.of() : Arrays.stream(SEPARATORS.split(query.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .limit(MAX_QUERY_TERMS)
+                .toList();
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Query must contain a letter or a digit");
+        }
+        return productRepository.searchIds(tsquery(tokens), String.join(" ", tokens), limit);
+    }
+
+    // Every word must match, as a whole word or as a prefix. Tokens hold only letters and digits,
+    // so nothing needs escaping.
+    static String tsquery(List<String> tokens) {
+        return tokens.stream().map(token -> token + ":*").collect(Collectors.joining(" & "));
+    }
+}
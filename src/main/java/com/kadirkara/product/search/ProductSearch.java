@@ -0,0 +1,26 @@
+package com.kadirkara.product.search;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Ranked full-text product search. {@code product.search.mode} selects the implementation:
+ * {@code memory} for {@link ProductSearchIndex}, {@code database} for {@link DatabaseProductSearch}.
+ */
+public interface ProductSearch {
+
+    /**
+     * Ids of the best matching products, best first.
+     */
+    List<Long> search(String query, int limit);
+
+    /**
+     * Called by the product write paths with the products they changed; acts once the current
+     * transaction commits.
+     */
+    default void refresh(Collection<Long> productIds) {
+    }
+
+    default void remove(Long productId) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.kadirkara.product.search;
+
+/**
+ * The text of one product that search matches against.
+ */
+public record ProductSearchDocument(
+        Long id,
+        String name,
+        String description,
+        String categoryName
+) {
+}
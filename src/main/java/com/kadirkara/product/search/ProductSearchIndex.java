@@ -0,0 +1,524 @@
+package com.kadirkara.product.search;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.kadirkara.product.cache.AfterCommit;
+import com.kadirkara.product.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over product name, description and category name.
+ * <p>
+ * Every product gets a dense document number, and every term keeps the sorted document numbers
+ * it occurs in along with the fields it occurs in. A deleted product's number goes to the next
+ * product indexed. Query terms match exactly, as a prefix, or,
+ * when neither finds anything, within one or two edits. All query terms must match; products
+ * are ranked by how rare the matched terms are and in which field they matched.
+ * <p>
+ * Built from the database once the application is ready and kept current by the product write
+ * paths after they commit. Every member holds its own index, so the writing member reindexes the
+ * changed products and publishes their ids on the {@code product-search-refreshes} topic for the
+ * other members to reindex from the database. The topic is not durable: a member cut off from the
+ * cluster for a while misses those changes until it restarts and builds again.
+ */
+@Component
+@ConditionalOnProperty(name = "product.search.mode", havingValue = "memory", matchIfMissing = true)
+public class ProductSearchIndex implements ProductSearch {
+
+    public static final String SEARCH_REFRESHES = "product-search-refreshes";
+
+    static final int NAME = 1;
+    static final int CATEGORY = 2;
+    static final int DESCRIPTION = 4;
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int MAX_QUERY_TERMS = 8;
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    // A short prefix such as "pro" can match thousands of terms; past this many the rest are skipped
+    private static final int MAX_EXPANSIONS = 128;
+    // Edit distances computed for one fuzzy token before the rest of its candidates are skipped
+    private static final int MAX_FUZZY_CANDIDATES = 1_024;
+    private static final float EXACT = 1.0f;
+    private static final float PREFIX = 0.7f;
+    private static final float ONE_EDIT = 0.4f;
+    private static final float TWO_EDITS = 0.25f;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ITopic<long[]> refreshes;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    // The same postings keyed by first character, length and term; see lengthKey
+    private final NavigableMap<String, Postings> postingsByLength = new TreeMap<>();
+    private final Map<Long, Integer> docByProduct = new HashMap<>();
+    private long[] productByDoc = new long[1024];
+    private String[][] termsByDoc = new String[1024][];
+    private int nextDoc;
+    private int[] freeDocs = new int[16];
+    private int freeCount;
+    // Products written while the initial build streams; the build must not overwrite them
+    private Set<Long> writtenDuringBuild;
+
+    public ProductSearchIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                              HazelcastInstance hazelcastInstance, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.refreshes = hazelcastInstance.getTopic(SEARCH_REFRESHES);
+        this.refreshes.addMessageListener(this::onRefresh);
+        Gauge.builder("product.search.index.documents", this, ProductSearchIndex::size)
+                .description("Products in the search index")
+                .register(meterRegistry);
+        Gauge.builder("product.search.index.terms", this, ProductSearchIndex::termCount)
+                .description("Distinct terms in the search index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        withWriteLock(() -> writtenDuringBuild = new HashSet<>());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ProductSearchDocument> documents = productRepository.streamSearchDocumentsBy()) {
+                    List<ProductSearchDocument> batch = new ArrayList<>(BATCH_SIZE);
+                    documents.forEach(document -> {
+                        batch.add(document);
+                        if (batch.size() == BATCH_SIZE) {
+                            index(batch, true);
+                            batch.clear();
+                        }
+                    });
+                    index(batch, true);
+                }
+            });
+        } finally {
+            withWriteLock(() -> writtenDuringBuild = null);
+        }
+    }
+
+    // Re-reads the products and indexes them again; products that no longer exist are dropped
+    @Override
+    public void refresh(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(productIds);
+        // A renamed category can touch every product it holds; each chunk is one select and one message
+        AfterCommit.run(() -> {
+            for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+                reindex(chunk);
+                refreshes.publish(chunk.stream().mapToLong(Long::longValue).toArray());
+            }
+        });
+    }
+
+    @Override
+    public void remove(Long productId) {
+        AfterCommit.run(() -> {
+            removeNow(productId);
+            refreshes.publish(new long[] {productId});
+        });
+    }
+
+    @Override
+    public List<Long> search(String query, int limit) {
+        List<String> tokens = tokenize(query).stream().distinct().limit(MAX_QUERY_TERMS).toList();
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Query must contain a letter or a digit");
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<Postings, Float>> expansions = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                Map<Postings, Float> matches = expand(token);
+                if (matches.isEmpty()) {
+                    return List.of();
+                }
+                expansions.add(matches);
+            }
+            // Rarest token first, so later tokens only look up the surviving candidates
+            expansions.sort(Comparator.comparingLong(ProductSearchIndex::postingCount));
+            Map<Integer, Float> scores = null;
+            for (Map<Postings, Float> matches : expansions) {
+                scores = score(matches, scores);
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return top(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Document numbers handed out so far; reused numbers count once
+    int documentNumbers() {
+        lock.readLock().lock();
+        try {
+            return nextDoc;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void index(List<ProductSearchDocument> documents, boolean fromBuild) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        List<Map<String, Integer>> analyzed = documents.stream().map(ProductSearchIndex::analyze).toList();
+        withWriteLock(() -> {
+            for (int i = 0; i < documents.size(); i++) {
+                Long productId = documents.get(i).id();
+                if (writtenDuringBuild != null) {
+                    if (fromBuild && writtenDuringBuild.contains(productId)) {
+                        continue;
+                    }
+                    if (!fromBuild) {
+                        writtenDuringBuild.add(productId);
+                    }
+                }
+                put(productId, analyzed.get(i));
+            }
+        });
+    }
+
+    // The publishing member has already applied the change; the others find a deleted product missing
+    private void onRefresh(Message<long[]> message) {
+        if (!message.getPublishingMember().localMember()) {
+            reindex(Arrays.stream(message.getMessageObject()).boxed().toList());
+        }
+    }
+
+    private void reindex(List<Long> ids) {
+        List<ProductSearchDocument> documents = productRepository.findSearchDocumentsByIdIn(ids);
+        Set<Long> missing = new HashSet<>(ids);
+        documents.forEach(document -> missing.remove(document.id()));
+        index(documents, false);
+        missing.forEach(this::removeNow);
+    }
+
+    private void removeNow(Long productId) {
+        withWriteLock(() -> {
+            if (writtenDuringBuild != null) {
+                writtenDuringBuild.add(productId);
+            }
+            Integer doc = docByProduct.remove(productId);
+            if (doc != null) {
+                unlink(doc);
+                if (freeCount == freeDocs.length) {
+                    freeDocs = Arrays.copyOf(freeDocs, freeCount * 2);
+                }
+                freeDocs[freeCount++] = doc;
+            }
+        });
+    }
+
+    // Called with the write lock held. An updated product keeps its document number.
+    private void put(Long productId, Map<String, Integer> terms) {
+        Integer existing = docByProduct.get(productId);
+        int doc;
+        if (existing != null) {
+            doc = existing;
+            unlink(doc);
+        } else if (freeCount > 0) {
+            doc = freeDocs[--freeCount];
+            productByDoc[doc] = productId;
+            docByProduct.put(productId, doc);
+        } else {
+            doc = nextDoc++;
+            if (doc == productByDoc.length) {
+                productByDoc = Arrays.copyOf(productByDoc, doc * 2);
+                termsByDoc = Arrays.copyOf(termsByDoc, doc * 2);
+            }
+            productByDoc[doc] = productId;
+            docByProduct.put(productId, doc);
+        }
+        String[] canonical = new String[terms.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> term : terms.entrySet()) {
+            Postings list = postings.get(term.getKey());
+            if (list == null) {
+                list = new Postings(term.getKey());
+                postings.put(list.term, list);
+                postingsByLength.put(lengthKey(list.term), list);
+            }
+            list.add(doc, term.getValue().byteValue());
+            canonical[i++] = list.term;
+        }
+        termsByDoc[doc] = canonical;
+    }
+
+    private void unlink(int doc) {
+        String[] terms = termsByDoc[doc];
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(doc) && list.size == 0) {
+                postings.remove(term);
+                postingsByLength.remove(lengthKey(term));
+            }
+        }
+        termsByDoc[doc] = null;
+    }
+
+    private Map<Postings, Float> expand(String token) {
+        Map<Postings, Float> matches = new LinkedHashMap<>();
+        Postings exact = postings.get(token);
+        if (exact != null) {
+            matches.put(exact, EXACT);
+        }
+        if (token.length() >= MIN_PREFIX_LENGTH) {
+            for (Postings list : postings.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                if (matches.size() > MAX_EXPANSIONS) {
+                    break;
+                }
+                matches.put(list, PREFIX);
+            }
+        }
+        if (matches.isEmpty() && token.length() >= MIN_FUZZY_LENGTH) {
+            int maxEdits = token.length() >= 8 ? 2 : 1;
+            // Typos rarely hit the first character, and a term of another length by more than
+            // maxEdits cannot be close enough, so only that range of terms is read
+            String from = lengthKey(token.charAt(0), token.length() - maxEdits);
+            String to = lengthKey(token.charAt(0), token.length() + maxEdits + 1);
+            int candidates = 0;
+            for (Postings list : postingsByLength.subMap(from, true, to, false).values()) {
+                if (matches.size() > MAX_EXPANSIONS || ++candidates > MAX_FUZZY_CANDIDATES) {
+                    break;
+                }
+                int edits = editDistance(token, list.term, maxEdits);
+                if (edits <= maxEdits) {
+                    matches.put(list, edits == 1 ? ONE_EDIT : TWO_EDITS);
+                }
+            }
+        }
+        return matches;
+    }
+
+    // The best match of one query token per document, added to the scores of the tokens before it
+    private Map<Integer, Float> score(Map<Postings, Float> matches, Map<Integer, Float> candidates) {
+        int documents = docByProduct.size();
+        Map<Integer, Float> tokenScores = new HashMap<>();
+        for (Map.Entry<Postings, Float> match : matches.entrySet()) {
+            Postings list = match.getKey();
+            float weight = match.getValue() * (float) Math.log(1.0 + (double) documents / list.size);
+            if (candidates == null || candidates.size() * 8L > list.size) {
+                for (int i = 0; i < list.size; i++) {
+                    if (candidates == null || candidates.containsKey(list.docs[i])) {
+                        tokenScores.merge(list.docs[i], weight * fieldWeight(list.fields[i]), Math::max);
+                    }
+                }
+            } else {
+                for (Integer doc : candidates.keySet()) {
+                    int i = Arrays.binarySearch(list.docs, 0, list.size, doc);
+                    if (i >= 0) {
+                        tokenScores.merge(doc, weight * fieldWeight(list.fields[i]), Math::max);
+                    }
+                }
+            }
+        }
+        if (candidates != null) {
+            tokenScores.replaceAll((doc, score) -> score + candidates.get(doc));
+        }
+        return tokenScores;
+    }
+
+    private List<Long> top(Map<Integer, Float> scores, int limit) {
+        Comparator<Map.Entry<Integer, Float>> ranking = Map.Entry.<Integer, Float>comparingByValue()
+                .thenComparing(Map.Entry.<Integer, Float>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Integer, Float>> best = new PriorityQueue<>(limit + 1, ranking);
+        for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+            best.add(entry);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        Long[] ids = new Long[best.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = productByDoc[best.poll().getKey()];
+        }
+        return List.of(ids);
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long postingCount(Map<Postings, Float> matches) {
+        long count = 0;
+        for (Postings list : matches.keySet()) {
+            count += list.size;
+        }
+        return count;
+    }
+
+    private static float fieldWeight(byte fields) {
+        float weight = 0;
+        if ((fields & NAME) != 0) weight += 3;
+        if ((fields & CATEGORY) != 0) weight += 2;
+        if ((fields & DESCRIPTION) != 0) weight += 1;
+        return weight;
+    }
+
+    // Term to the fields it occurs in
+    static Map<String, Integer> analyze(ProductSearchDocument document) {
+        Map<String, Integer> terms = new LinkedHashMap<>();
+        tokenize(document.name()).forEach(term -> terms.merge(term, NAME, (a, b) -> a | b));
+        tokenize(document.categoryName()).forEach(term -> terms.merge(term, CATEGORY, (a, b) -> a | b));
+        tokenize(document.description()).forEach(term -> terms.merge(term, DESCRIPTION, (a, b) -> a | b));
+        return terms;
+    }
+
+    // Lower-cased, accents stripped, split on anything that is not a letter or a digit
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty() && token.length() <= MAX_TERM_LENGTH) {
+                tokens.add(token);
+            }
+        }
+        return List.copyOf(tokens);
+    }
+
+    // Terms sort by first character, then by length, then alphabetically
+    private static String lengthKey(String term) {
+        return lengthKey(term.charAt(0), term.length()) + term;
+    }
+
+    private static String lengthKey(char first, int length) {
+        return new String(new char[] {first, (char) length});
+    }
+
+    // Levenshtein distance, or maxEdits + 1 as soon as it is certain to exceed maxEdits
+    static int editDistance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return maxEdits + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * Sorted document numbers of one term, each with a bit mask of the fields it occurs in.
+     */
+    private static final class Postings {
+        private final String term;
+        private int[] docs = new int[2];
+        private byte[] fields = new byte[2];
+        private int size;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        void add(int doc, byte fieldMask) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size + (size >> 1) + 1);
+                fields = Arrays.copyOf(fields, docs.length);
+            }
+            int at = size == 0 || docs[size - 1] < doc ? size : -Arrays.binarySearch(docs, 0, size, doc) - 1;
+            System.arraycopy(docs, at, docs, at + 1, size - at);
+            System.arraycopy(fields, at, fields, at + 1, size - at);
+            docs[at] = doc;
+            fields[at] = fieldMask;
+            size++;
+        }
+
+        boolean remove(int doc) {
+            int at = Arrays.binarySearch(docs, 0, size, doc);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+            System.arraycopy(fields, at + 1, fields, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.kadirkara.product.service;
+
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryRemovedListener;
+import com.hazelcast.map.listener.EntryUpdatedListener;
+import com.kadirkara.product.cache.CategoryStats;
+import com.kadirkara.product.entity.Category;
+import com.kadirkara.product.repository.CategoryRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Category name to id, held on every member so product writes resolve their category without a query.
+ * <p>
+ * Loaded once at startup. Category writes refresh their entry in the {@code categories} map after
+ * commit, and the add, update and remove events that follow keep each member's copy in step.
+ * Entries leaving that map by expiry or eviction say nothing about the category, so they are ignored.
+ */
+@Service
+public class CategoryDirectory {
+
+    private final CategoryRepository categoryRepository;
+    private final Map<String, Long> idsByName = new ConcurrentHashMap<>();
+
+    public CategoryDirectory(CategoryRepository categoryRepository, HazelcastInstance hazelcastInstance) {
+        this.categoryRepository = categoryRepository;
+        IMap<Long, CategoryStats> categories = hazelcastInstance.getMap(CategoryStatsService.CATEGORIES);
+        categories.addEntryListener(new Listener(), true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        categoryRepository.findAll().forEach(category -> learn(category.getId(), category.getName()));
+    }
+
+    public Optional<Long> idOf(String name) {
+        Long id = idsByName.get(name);
+        if (id != null) {
+            return Optional.of(id);
+        }
+        Optional<Long> loaded = categoryRepository.findByName(name).map(Category::getId);
+        loaded.ifPresent(categoryId -> learn(categoryId, name));
+        return loaded;
+    }
+
+    /**
+     * Ids of the names that exist; names this member has not seen yet are read in one query.
+     */
+    public Map<String, Long> idsOf(Collection<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        List<String> missing = names.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .filter(name -> {
+                    Long id = idsByName.get(name);
+                    if (id != null) {
+                        ids.put(name, id);
+                    }
+                    return id == null;
+                })
+                .toList();
+        if (!missing.isEmpty()) {
+            for (Category category : categoryRepository.findByNameIn(missing)) {
+                learn(category.getId(), category.getName());
+                ids.put(category.getName(), category.getId());
+            }
+        }
+        return ids;
+    }
+
+    // A rename leaves the old name pointing at the id, so it is dropped first
+    private void learn(Long id, String name) {
+        if (id.equals(idsByName.get(name))) {
+            return;
+        }
+        forget(id);
+        idsByName.put(name, id);
+    }
+
+    private void forget(Long id) {
+        idsByName.values().removeIf(id::equals);
+    }
+
+    private class Listener implements EntryAddedListener<Long, CategoryStats>,
+            EntryUpdatedListener<Long, CategoryStats>, EntryRemovedListener<Long, CategoryStats> {
+
+        @Override
+        public void entryAdded(EntryEvent<Long, CategoryStats> event) {
+            learn(event.getKey(), event.getValue().name());
+        }
+
+        @Override
+        public void entryUpdated(EntryEvent<Long, CategoryStats> event) {
+            learn(event.getKey(), event.getValue().name());
+        }
+
+        @Override
+        public void entryRemoved(EntryEvent<Long, CategoryStats> event) {
+            forget(event.getKey());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.kadirkara.product.service;
+
+import com.kadirkara.product.dto.CategoryResponse;
+import com.kadirkara.product.entity.Category;
+import com.kadirkara.product.repository.CategoryRepository;
+import com.kadirkara.product.repository.ProductRepository;
+import com.kadirkara.product.search.ProductSearch;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Category writes. Each one refreshes the category's entry in the {@code categories} map once it
+ * commits, which is what tells every member's {@link CategoryDirectory} about the change.
+ */
+@Service
+public class CategoryService {
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CategoryStatsService categoryStatsService;
+    private final ProductSearch productSearch;
+
+    public CategoryService(CategoryRepository categoryRepository, ProductRepository productRepository,
+                           CategoryStatsService categoryStatsService, ProductSearch productSearch) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.categoryStatsService = categoryStatsService;
+        this.productSearch = productSearch;
+    }
+
+    public List<CategoryResponse> findAll() {
+        return categoryRepository.findAll(Sort.by("name")).stream().map(CategoryService::toResponse).toList();
+    }
+
+    public CategoryResponse findById(Long id) {
+        return toResponse(find(id));
+    }
+
+    @Transactional
+    public CategoryResponse create(String name) {
+        checkNameFree(name, null);
+        LocalDateTime now = LocalDateTime.now();
+        Category saved = categoryRepository.save(new Category(null, name, null, now, now));
+        categoryStatsService.refresh(List.of(saved.getId()));
+        return toResponse(saved);
+    }
+
+    @Transactional
+    public CategoryResponse rename(Long id, String name) {
+        Category category = find(id);
+        checkNameFree(name, id);
+        category.setName(name);
+        category.setUpdatedAt(LocalDateTime.now());
+        categoryStatsService.refresh(List.of(id));
+        // The category name is indexed with each of its products
+        productSearch.refresh(productRepository.findIdsByCategoryId(id));
+        return toResponse(category);
+    }
+
+    @Transactional
+    public void deleteById(Long id) {
+        Category category = find(id);
+        if (productRepository.existsByCategoryId(id)) {
+            throw new IllegalArgumentException("Category still has products");
+        }
+        // Only an entry that exists raises a removal event, and that event is what drops the name elsewhere
+        categoryStatsService.findById(id);
+        categoryRepository.delete(category);
+        categoryStatsService.refresh(List.of(id));
+    }
+
+    private Category find(Long id) {
+        return categoryRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Category not found"));
+    }
+
+    private void checkNameFree(String name, Long id) {
+        categoryRepository.findByName(name)
+                .filter(existing -> !existing.getId().equals(id))
+                .ifPresent(existing -> {
+                    throw new IllegalArgumentException("Category already exists: " + name);
+                });
+    }
+
+    private static CategoryResponse toResponse(Category category) {
+        return new CategoryResponse(category.getId(), category.getName());
+    }
+}
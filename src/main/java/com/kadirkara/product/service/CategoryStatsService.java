@@ -0,0 +1,56 @@
+package com.kadirkara.product.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.kadirkara.product.cache.AfterCommit;
+import com.kadirkara.product.cache.CategoryStats;
+import com.kadirkara.product.repository.CategoryStatsRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Product count and min/avg/max price per category, served from the {@code categories} map.
+ * A miss reads one row of the {@code category_stats} rollup, so the cost never depends on how
+ * many products the category has.
+ * <p>
+ * Product writes refresh the categories they touched once they commit. A reader that loaded
+ * the row before the commit only fills an empty entry, so it cannot overwrite the refresh.
+ */
+@Service
+public class CategoryStatsService {
+
+    public static final String CATEGORIES = "categories";
+
+    private final CategoryStatsRepository categoryStatsRepository;
+    private final IMap<Long, CategoryStats> stats;
+
+    public CategoryStatsService(CategoryStatsRepository categoryStatsRepository, HazelcastInstance hazelcastInstance) {
+        this.categoryStatsRepository = categoryStatsRepository;
+        this.stats = hazelcastInstance.getMap(CATEGORIES);
+    }
+
+    public CategoryStats findById(Long categoryId) {
+        CategoryStats cached = stats.get(categoryId);
+        if (cached != null) {
+            return cached;
+        }
+        CategoryStats loaded = categoryStatsRepository.findById(categoryId)
+                .orElseThrow(() -> new NoSuchElementException("Category not found"));
+        stats.putIfAbsent(categoryId, loaded);
+        return loaded;
+    }
+
+    public void refresh(Collection<Long> categoryIds) {
+        Set<Long> touched = categoryIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (touched.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> touched.forEach(categoryId -> categoryStatsRepository.findById(categoryId)
+                .ifPresentOrElse(loaded -> stats.set(categoryId, loaded), () -> stats.delete(categoryId))));
+    }
+}
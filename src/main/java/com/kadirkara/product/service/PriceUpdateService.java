@@ -0,0 +1,253 @@
+package com.kadirkara.product.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.kadirkara.product.cache.ProductCacheIndex;
+import com.kadirkara.product.cache.ProductChange;
+import com.kadirkara.product.cache.ProductFacetCounts;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.cache.PutIfNewer;
+import com.kadirkara.product.dto.PriceUpdate;
+import com.kadirkara.product.dto.PriceUpdateResult;
+import com.kadirkara.product.repository.ProductOutbox;
+import com.kadirkara.product.repository.ProductPriceWriter;
+import com.kadirkara.product.repository.ProductPriceWriter.PriceChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batches price changes. Updates arriving within one window are coalesced per product, last one
+ * wins whether it named the product by id or by sku, and written with a single
+ * {@code UPDATE ... FROM (VALUES ...)}. Only the changed products are refreshed in the cache,
+ * together with the pages that show them.
+ * <p>
+ * Batches are written one at a time on a single thread, so two updates of the same product
+ * always land in the order they were accepted. That thread has no security context, so each
+ * update carries the author of the request that submitted it into the outbox. Once
+ * {@code queue-capacity} full batches are waiting for it, further updates are rejected.
+ */
+@Service
+public class PriceUpdateService {
+
+    private final ProductPriceWriter productPriceWriter;
+    private final ProductCacheIndex productCacheIndex;
+    private final ProductFacetCounts productFacetCounts;
+    private final CategoryStatsService categoryStatsService;
+    private final ProductOutbox productOutbox;
+    private final IMap<Object, Object> products;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService writer;
+    private final int maxBatchSize;
+    private final int queueCapacity;
+    private final Counter applied;
+    private final Counter coalesced;
+    private final Timer flushTimer;
+
+    private final Object lock = new Object();
+    private Batch current = new Batch();
+    private int queued;
+
+    public PriceUpdateService(ProductPriceWriter productPriceWriter, ProductCacheIndex productCacheIndex,
+                              ProductFacetCounts productFacetCounts, CategoryStatsService categoryStatsService,
+                              ProductOutbox productOutbox, HazelcastInstance hazelcastInstance, PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${product.price-update.window:20ms}") Duration window,
+                              @Value("${product.price-update.max-batch-size:20000}") int maxBatchSize,
+                              @Value("${product.price-update.queue-capacity:4}") int queueCapacity) {
+        this.productPriceWriter = productPriceWriter;
+        this.productCacheIndex = productCacheIndex;
+        this.productFacetCounts = productFacetCounts;
+        this.categoryStatsService = categoryStatsService;
+        this.productOutbox = productOutbox;
+        this.products = hazelcastInstance.getMap(ProductCacheIndex.PRODUCTS_CACHE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = maxBatchSize;
+        this.queueCapacity = queueCapacity;
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "price-writer"));
+        this.writer.scheduleWithFixedDelay(this::flush, window.toMillis(), window.toMillis(), TimeUnit.MILLISECONDS);
+        this.applied = Counter.builder("product.price.updates")
+                .description("Price updates written to the database")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("product.price.updates.coalesced")
+                .description("Price updates superseded by a later one in the same batch")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("product.price.flush")
+                .description("Time to write one price batch and refresh the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the updates for the next batch. The future completes once that batch is committed.
+     *
+     * @throws RejectedExecutionException if the writer is already {@code queue-capacity} batches behind
+     */
+    public CompletableFuture<PriceUpdateResult> submit(List<PriceUpdate> updates) {
+        String author = ProductOutbox.currentAuthor();
+        Batch batch;
+        synchronized (lock) {
+            if (queued >= queueCapacity) {
+                throw new RejectedExecutionException("Price writer is " + queued + " batches behind");
+            }
+            batch = current;
+            updates.forEach(update -> batch.add(update, author));
+            if (batch.size() >= maxBatchSize) {
+                current = new Batch();
+                queued++;
+                writer.execute(() -> {
+                    try {
+                        write(batch);
+                    } finally {
+                        synchronized (lock) {
+                            queued--;
+                        }
+                    }
+                });
+            }
+        }
+        return batch.done.thenApply(written -> written.resultFor(updates));
+    }
+
+    // Runs on the writer thread
+    void flush() {
+        Batch batch;
+        synchronized (lock) {
+            if (current.size() == 0) {
+                return;
+            }
+            batch = current;
+            current = new Batch();
+        }
+        write(batch);
+    }
+
+    private void write(Batch batch) {
+        try {
+            List<PriceChange> changes = flushTimer.record(() -> transactionTemplate.execute(status -> {
+                Map<Long, Pending> byProduct = batch.resolve(productPriceWriter.idsBySku(batch.bySku.keySet()));
+                Map<Long, BigDecimal> prices = new LinkedHashMap<>();
+                byProduct.forEach((id, pending) -> prices.put(id, pending.price()));
+                List<PriceChange> rows = productPriceWriter.updateById(prices);
+                List<String> authors = rows.stream().map(row -> byProduct.get(row.product().id()).author()).toList();
+                productOutbox.appendAll(ProductChange.Type.UPDATED, rows.stream().map(PriceChange::product).toList(), authors);
+                return rows;
+            }));
+            List<ProductSnapshot> updated = changes.stream().map(PriceChange::product).toList();
+            if (!updated.isEmpty()) {
+                // A product update committed after this batch may already have cached a later version
+                CompletableFuture.allOf(updated.stream()
+                        .map(snapshot -> products.submitToKey(snapshot.id(), new PutIfNewer(snapshot)).toCompletableFuture())
+                        .toArray(CompletableFuture[]::new)).join();
+                productCacheIndex.evictPagesOf(updated.stream().map(ProductSnapshot::id).toList(), Set.of("price"));
+                ProductFacetCounts.Changes facets = productFacetCounts.changes();
+                changes.forEach(change -> facets.move(change.product().categoryId(), change.previousPrice(),
+                        change.product().categoryId(), change.product().price()));
+                facets.apply();
+                categoryStatsService.refresh(updated.stream().map(ProductSnapshot::categoryId).toList());
+            }
+            applied.increment(updated.size());
+            coalesced.increment(batch.coalesced());
+            batch.done.complete(new Written(updated));
+        } catch (RuntimeException e) {
+            batch.done.completeExceptionally(e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    // The author travels with the price, so the outbox names whoever sent the update that won
+    private record Pending(BigDecimal price, String author, long sequence) {
+    }
+
+    private static final class Batch {
+        private final Map<Long, Pending> byId = new LinkedHashMap<>();
+        private final Map<String, Pending> bySku = new LinkedHashMap<>();
+        private final CompletableFuture<Written> done = new CompletableFuture<>();
+        private long received;
+        private long resolved;
+
+        void add(PriceUpdate update, String author) {
+            Pending pending = new Pending(update.price(), author, received++);
+            if (update.id() != null) {
+                byId.put(update.id(), pending);
+            } else {
+                bySku.put(update.sku(), pending);
+            }
+        }
+
+        int size() {
+            return byId.size() + bySku.size();
+        }
+
+        // One update per product: of an update by id and one by sku, the later one wins
+        Map<Long, Pending> resolve(Map<String, Long> idsBySku) {
+            Map<Long, Pending> byProduct = new LinkedHashMap<>(byId);
+            bySku.forEach((sku, pending) -> {
+                Long id = idsBySku.get(sku);
+                if (id != null) {
+                    byProduct.merge(id, pending, (a, b) -> a.sequence() > b.sequence() ? a : b);
+                }
+            });
+            resolved = byProduct.size() + bySku.size() - idsBySku.size();
+            return byProduct;
+        }
+
+        long coalesced() {
+            return received - resolved;
+        }
+    }
+
+    private static final class Written {
+        private final Set<Long> ids = new HashSet<>();
+        private final Set<String> skus = new HashSet<>();
+
+        Written(List<ProductSnapshot> updated) {
+            updated.forEach(snapshot -> {
+                ids.add(snapshot.id());
+                if (snapshot.sku() != null) {
+                    skus.add(snapshot.sku());
+                }
+            });
+        }
+
+        PriceUpdateResult resultFor(List<PriceUpdate> updates) {
+            long count = 0;
+            List<Long> unknownIds = new ArrayList<>();
+            List<String> unknownSkus = new ArrayList<>();
+            for (PriceUpdate update : updates) {
+                if (update.id() != null ? ids.contains(update.id()) : skus.contains(update.sku())) {
+                    count++;
+                } else if (update.id() != null) {
+                    unknownIds.add(update.id());
+                } else {
+                    unknownSkus.add(update.sku());
+                }
+            }
+            return new PriceUpdateResult(count, unknownIds, unknownSkus);
+        }
+    }
+}
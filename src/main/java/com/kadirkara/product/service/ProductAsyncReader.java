@@ -0,0 +1,65 @@
+package com.kadirkara.product.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.kadirkara.product.cache.ProductCacheIndex;
+import com.kadirkara.product.cache.ProductPage;
+import com.kadirkara.product.cache.ProductSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking product reads. Cache hits complete from Hazelcast's response threads without
+ * holding any request thread; misses go to a pool with one thread per database connection,
+ * so queued reads wait in memory rather than on the connection pool.
+ */
+@Service
+@ConditionalOnProperty(name = "product.async-read.enabled", havingValue = "true")
+public class ProductAsyncReader {
+
+    private final ProductService productService;
+    private final IMap<Object, Object> products;
+    private final ThreadPoolExecutor executor;
+
+    public ProductAsyncReader(ProductService productService, HazelcastInstance hazelcastInstance,
+                              @Value("${spring.datasource.hikari.maximum-pool-size:10}") int threads,
+                              @Value("${product.async-read.queue-capacity:10000}") int queueCapacity) {
+        this.productService = productService;
+        this.products = hazelcastInstance.getMap(ProductCacheIndex.PRODUCTS_CACHE);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "product-read-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public CompletableFuture<ProductSnapshot> findById(Long id) {
+        return cachedOrLoad(id, ProductSnapshot.class, () -> productService.findById(id));
+    }
+
+    public CompletableFuture<ProductPage> findAll(Pageable pageable) {
+        return cachedOrLoad(ProductCacheIndex.pageKey(pageable), ProductPage.class, () -> productService.findAll(pageable));
+    }
+
+    // Misses go through ProductService so they are cached and indexed exactly as blocking reads are
+    private <T> CompletableFuture<T> cachedOrLoad(Object key, Class<T> type, Supplier<T> loader) {
+        return products.getAsync(key).toCompletableFuture().thenCompose(cached -> type.isInstance(cached)
+                ? CompletableFuture.completedFuture(type.cast(cached))
+                : CompletableFuture.supplyAsync(loader, executor));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
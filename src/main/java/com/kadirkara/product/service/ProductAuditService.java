@@ -0,0 +1,92 @@
+package com.kadirkara.product.service;
+
+import com.kadirkara.product.repository.ProductOutbox;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes the audit log behind product writes. Writers only add an outbox row in their transaction;
+ * this drains the audited rows into JaVers a batch per transaction, so a slow audit store delays
+ * the log rather than the writes.
+ * <p>
+ * The outbox is the queue, so nothing is held in memory beyond one batch and nothing is lost on a
+ * restart. How far the log trails the writes is exposed as {@code product.audit.lag}.
+ */
+@Service
+public class ProductAuditService {
+
+    private final ProductOutbox productOutbox;
+    private final ProductAuditWriter productAuditWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter written;
+    private final Timer batchTimer;
+    private final int batchSize;
+    private final boolean enabled;
+    private volatile double lagSeconds;
+
+    public ProductAuditService(ProductOutbox productOutbox, ProductAuditWriter productAuditWriter,
+                               PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                               @Value("${product.audit.batch-size:200}") int batchSize,
+                               @Value("${product.audit.enabled:true}") boolean enabled) {
+        this.productOutbox = productOutbox;
+        this.productAuditWriter = productAuditWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.written = Counter.builder("product.audit.written")
+                .description("Product changes written to the audit log")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("product.audit.batch")
+                .description("Time to write one audit batch")
+                .register(meterRegistry);
+        Gauge.builder("product.audit.lag", this, ProductAuditService::lagSeconds)
+                .description("Age in seconds of the oldest change not yet audited")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+        this.enabled = enabled;
+    }
+
+    @Scheduled(fixedDelayString = "${product.audit.interval:PT1S}")
+    public void audit() {
+        if (!enabled) {
+            return;
+        }
+        int audited;
+        do {
+            audited = batchTimer.record(this::auditBatch);
+        } while (audited == batchSize);
+        lagSeconds = productOutbox.oldestUnaudited()
+                .map(oldest -> Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0)
+                .orElse(0.0);
+    }
+
+    double lagSeconds() {
+        return lagSeconds;
+    }
+
+    private int auditBatch() {
+        Integer audited = transactionTemplate.execute(status -> {
+            if (!productOutbox.tryLockAudit()) {
+                return 0;
+            }
+            List<ProductOutbox.AuditEntry> batch = productOutbox.claimAudit(batchSize);
+            if (!batch.isEmpty()) {
+                productAuditWriter.write(batch);
+                productOutbox.markAudited(batch.stream().map(ProductOutbox.AuditEntry::id).toList());
+            }
+            return batch.size();
+        });
+        written.increment(audited);
+        return audited;
+    }
+}
@@ -0,0 +1,56 @@
+package com.kadirkara.product.service;
+
+import com.kadirkara.product.cache.ProductChange;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.repository.ProductOutbox;
+import org.javers.core.Javers;
+import org.javers.core.metamodel.annotation.Id;
+import org.javers.core.metamodel.annotation.TypeName;
+import org.javers.repository.jql.InstanceIdDTO;
+import org.javers.repository.jql.QueryBuilder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Commits outbox entries to the JaVers repository. The starter's Javers joins the caller's
+ * transaction, so snapshots land together with the rows being marked audited.
+ */
+@Component
+public class ProductAuditWriter {
+
+    private final Javers javers;
+
+    public ProductAuditWriter(Javers javers) {
+        this.javers = javers;
+    }
+
+    // The version column is left out: JaVers numbers snapshots itself, and it changes on every write
+    @TypeName("Product")
+    record AuditedProduct(@Id Long id, String sku, String barcode, String name, BigDecimal price, Long categoryId) {
+
+        static AuditedProduct from(ProductSnapshot product) {
+            return new AuditedProduct(product.id(), product.sku(), product.barcode(), product.name(),
+                    product.price(), product.categoryId());
+        }
+    }
+
+    public void write(List<ProductOutbox.AuditEntry> entries) {
+        for (ProductOutbox.AuditEntry entry : entries) {
+            Map<String, String> properties = Map.of("outboxId", String.valueOf(entry.id()));
+            if (entry.type() != ProductChange.Type.DELETED) {
+                javers.commit(entry.author(), AuditedProduct.from(entry.product()), properties);
+            } else if (hasSnapshot(entry.productId())) {
+                javers.commitShallowDeleteById(entry.author(),
+                        InstanceIdDTO.instanceId(entry.productId(), AuditedProduct.class), properties);
+            }
+        }
+    }
+
+    // Products loaded with audit off have no snapshot, and JaVers refuses to delete those
+    private boolean hasSnapshot(Long productId) {
+        return !javers.findSnapshots(QueryBuilder.byInstanceId(productId, AuditedProduct.class).limit(1).build()).isEmpty();
+    }
+}
@@ -0,0 +1,100 @@
+package com.kadirkara.product.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.ringbuffer.OverflowPolicy;
+import com.hazelcast.ringbuffer.Ringbuffer;
+import com.kadirkara.product.cache.ProductChange;
+import com.kadirkara.product.repository.ProductOutbox;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Publishes the product outbox to the {@code product-changes} ringbuffer, so caches and indexes can
+ * follow product writes instead of polling.
+ * <p>
+ * Delivery is at least once: a relay that publishes and then fails to commit publishes the same
+ * changes again, under new offsets. A consumer that falls behind the ringbuffer catches up from
+ * {@link #replay}, which reads the outbox and so reaches back as far as the retention period.
+ */
+@Service
+public class ProductChangeStream {
+
+    public static final String PRODUCT_CHANGES = "product-changes";
+    static final int MAX_REPLAY = 1_000;
+
+    private final ProductOutbox productOutbox;
+    private final Ringbuffer<ProductChange> changes;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter published;
+    private final int batchSize;
+    private final Duration retention;
+    private final boolean relayEnabled;
+
+    public ProductChangeStream(ProductOutbox productOutbox, HazelcastInstance hazelcastInstance,
+                               PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                               @Value("${product.outbox.batch-size:500}") int batchSize,
+                               @Value("${product.outbox.retention:7d}") Duration retention,
+                               @Value("${product.outbox.relay.enabled:true}") boolean relayEnabled) {
+        this.productOutbox = productOutbox;
+        this.changes = hazelcastInstance.getRingbuffer(PRODUCT_CHANGES);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.published = Counter.builder("product.outbox.published")
+                .description("Product changes published from the outbox")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.relayEnabled = relayEnabled;
+    }
+
+    // Every member schedules this; the relay lock lets one of them through at a time
+    @Scheduled(fixedDelayString = "${product.outbox.relay-interval:PT0.2S}")
+    public void relay() {
+        if (!relayEnabled) {
+            return;
+        }
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${product.outbox.purge-interval:PT1H}", initialDelayString = "${product.outbox.purge-interval:PT1H}")
+    public void purge() {
+        if (!relayEnabled) {
+            return;
+        }
+        productOutbox.purgePublishedBefore(LocalDateTime.now().minus(retention));
+    }
+
+    public List<ProductChange> replay(long afterOffset, int limit) {
+        if (afterOffset < 0 || limit < 1 || limit > MAX_REPLAY) {
+            throw new IllegalArgumentException("Offset must not be negative and limit must be between 1 and " + MAX_REPLAY);
+        }
+        return productOutbox.since(afterOffset, limit);
+    }
+
+    // The offsets are committed only once the ringbuffer holds the batch
+    private int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            if (!productOutbox.tryLockRelay()) {
+                return 0;
+            }
+            List<ProductChange> batch = productOutbox.claim(batchSize);
+            if (!batch.isEmpty()) {
+                changes.addAllAsync(batch, OverflowPolicy.OVERWRITE).toCompletableFuture().join();
+            }
+            return batch.size();
+        });
+        published.increment(relayed);
+        return relayed;
+    }
+}
@@ -0,0 +1,48 @@
+package com.kadirkara.product.service;
+
+import com.kadirkara.product.repository.ProductRepository;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Approximate number of products, served to listing clients instead of running
+ * {@code SELECT COUNT(*)} on every request. Refreshed in the background from the
+ * Postgres statistics, or from an exact count on databases that do not have them.
+ */
+@Component
+public class ProductCountEstimator {
+
+    private final ProductRepository productRepository;
+    private final AtomicLong count = new AtomicLong(-1);
+
+    public ProductCountEstimator(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    public long approximateCount() {
+        long current = count.get();
+        return current >= 0 ? current : refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${product.count.refresh-interval:PT30S}")
+    public long refresh() {
+        long refreshed = estimate();
+        count.set(refreshed);
+        return refreshed;
+    }
+
+    private long estimate() {
+        try {
+            Long estimate = productRepository.estimateCount();
+            if (estimate != null) {
+                return estimate;
+            }
+        } catch (DataAccessException e) {
+            // Not Postgres, e.g. H2 in tests
+        }
+        return productRepository.count();
+    }
+}
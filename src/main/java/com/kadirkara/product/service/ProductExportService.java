@@ -0,0 +1,70 @@
+package com.kadirkara.product.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kadirkara.product.entity.Product;
+import com.kadirkara.product.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole catalog as NDJSON, one product per line, in constant memory.
+ */
+@Service
+public class ProductExportService {
+
+    // Matches the fetch size of ProductRepository.streamAllBy, so each clear drops one fetched block
+    static final int CLEAR_INTERVAL = 1_000;
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public ProductExportService(ProductRepository productRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Streams every product to {@code out}, which is flushed but left open. Returns the row count.
+     */
+    @Transactional
+    public long exportNdjson(OutputStream out) throws IOException {
+        long rows = 0;
+        try (Stream<Product> products = productRepository.streamAllBy();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                write(generator, iterator.next());
+                if (++rows % CLEAR_INTERVAL == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+            generator.flush();
+        }
+        return rows;
+    }
+
+    private static void write(JsonGenerator generator, Product product) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", product.getId());
+        generator.writeStringField("sku", product.getSku());
+        generator.writeStringField("barcode", product.getBarcode());
+        generator.writeStringField("name", product.getName());
+        generator.writeStringField("description", product.getDescription());
+        generator.writeNumberField("price", product.getPrice());
+        // Reads the foreign key without initializing the lazy category
+        generator.writeNumberField("categoryId", product.getCategory().getId());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
@@ -0,0 +1,98 @@
+package com.kadirkara.product.service;
+
+import com.kadirkara.product.cache.PriceBuckets;
+import com.kadirkara.product.cache.ProductFacetCounts;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.dto.ProductFilter;
+import com.kadirkara.product.dto.ProductFilterResponse;
+import com.kadirkara.product.dto.ProductFilterResponse.CategoryFacet;
+import com.kadirkara.product.dto.ProductFilterResponse.PriceFacet;
+import com.kadirkara.product.mapper.ProductMapper;
+import com.kadirkara.product.repository.ProductFilterRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filtered product listings with facet counts. Facets are disjunctive: the category counts
+ * ignore the category filter and the price counts ignore the price filter, so a shopper sees
+ * how many products each other choice would give.
+ * <p>
+ * Counts come from the precomputed category × price bucket matrix in {@link ProductFacetCounts}.
+ * The database is only asked when a name prefix is set, or when a price bound is not a bucket
+ * edge and the category counts cannot be summed from whole buckets.
+ */
+@Service
+public class ProductFilterService {
+
+    private final ProductFilterRepository productFilterRepository;
+    private final ProductFacetCounts productFacetCounts;
+    private final ProductMapper productMapper;
+
+    public ProductFilterService(ProductFilterRepository productFilterRepository, ProductFacetCounts productFacetCounts,
+                                ProductMapper productMapper) {
+        this.productFilterRepository = productFilterRepository;
+        this.productFacetCounts = productFacetCounts;
+        this.productMapper = productMapper;
+    }
+
+    public ProductFilterResponse filter(ProductFilter filter, Pageable pageable) {
+        List<ProductSnapshot> rows = productFilterRepository.find(filter, pageable);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<ProductSnapshot> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+
+        PriceBuckets buckets = productFacetCounts.buckets();
+        Map<Long, long[]> cells = filter.namePrefix() == null
+                ? productFacetCounts.snapshot()
+                : productFilterRepository.countByCategoryAndBucket(new ProductFilter(null, null, null, filter.namePrefix()), buckets);
+        return new ProductFilterResponse(
+                content.stream().map(productMapper::toResponse).toList(),
+                pageable.getPageNumber(),
+                pageable.getPageSize(),
+                hasNext,
+                categoryFacets(filter, cells, buckets),
+                priceFacets(filter, cells, buckets));
+    }
+
+    private List<CategoryFacet> categoryFacets(ProductFilter filter, Map<Long, long[]> cells, PriceBuckets buckets) {
+        int from = filter.minPrice() == null ? 0 : buckets.edgeIndex(filter.minPrice());
+        int to = filter.maxPrice() == null ? buckets.count() : buckets.edgeIndex(filter.maxPrice());
+        if (from < 0 || to < 0) {
+            cells = productFilterRepository.countByCategoryAndBucket(filter.withoutCategories(), buckets);
+            from = 0;
+            to = buckets.count();
+        }
+        List<CategoryFacet> facets = new ArrayList<>();
+        for (Map.Entry<Long, long[]> category : cells.entrySet()) {
+            long count = 0;
+            for (int bucket = from; bucket < to; bucket++) {
+                count += category.getValue()[bucket];
+            }
+            if (count > 0) {
+                facets.add(new CategoryFacet(category.getKey(), count));
+            }
+        }
+        facets.sort(Comparator.comparingLong(CategoryFacet::count).reversed().thenComparing(CategoryFacet::categoryId));
+        return facets;
+    }
+
+    private static List<PriceFacet> priceFacets(ProductFilter filter, Map<Long, long[]> cells, PriceBuckets buckets) {
+        long[] counts = new long[buckets.count()];
+        cells.forEach((categoryId, categoryCounts) -> {
+            if (filter.categoryIds().isEmpty() || filter.categoryIds().contains(categoryId)) {
+                for (int bucket = 0; bucket < counts.length; bucket++) {
+                    counts[bucket] += categoryCounts[bucket];
+                }
+            }
+        });
+        List<PriceFacet> facets = new ArrayList<>(counts.length);
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            facets.add(new PriceFacet(buckets.from(bucket), buckets.to(bucket), counts[bucket]));
+        }
+        return facets;
+    }
+}
@@ -0,0 +1,355 @@
+package com.kadirkara.product.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kadirkara.product.cache.ProductCacheIndex;
+import com.kadirkara.product.cache.ProductChange;
+import com.kadirkara.product.cache.ProductFacetCounts;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.dto.CategoryRequest;
+import com.kadirkara.product.dto.Prices;
+import com.kadirkara.product.dto.ProductImportError;
+import com.kadirkara.product.dto.ProductImportResult;
+import com.kadirkara.product.dto.ProductRequest;
+import com.kadirkara.product.entity.Category;
+import com.kadirkara.product.entity.Product;
+import com.kadirkara.product.mapper.ProductMapper;
+import com.kadirkara.product.repository.ProductOutbox;
+import com.kadirkara.product.search.ProductSearch;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Streams NDJSON or CSV product rows into the database in JDBC batches.
+ * <p>
+ * Rows are validated against the {@link ProductRequest} constraints as they are read and
+ * written one transaction per batch, so memory stays flat however large the upload is.
+ * A batch the database rejects is replayed row by row to find the offending lines.
+ */
+@Service
+public class ProductImportService {
+
+    static final int MAX_REPORTED_ERRORS = 1_000;
+    static final List<String> CSV_COLUMNS = List.of("name", "price", "description", "sku", "barcode", "category");
+    static final String PRICE_REQUIRED = "Price is required";
+    static final String PRICE_NOT_FINITE = "Price must be a finite number";
+
+    private final EntityManager entityManager;
+    private final CategoryDirectory categoryDirectory;
+    private final ProductMapper productMapper;
+    private final ProductCacheIndex productCacheIndex;
+    private final ProductSearch productSearch;
+    private final ProductFacetCounts productFacetCounts;
+    private final CategoryStatsService categoryStatsService;
+    private final ProductOutbox productOutbox;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ProductImportService(EntityManager entityManager, CategoryDirectory categoryDirectory,
+                                ProductMapper productMapper, ProductCacheIndex productCacheIndex,
+                                ProductSearch productSearch, ProductFacetCounts productFacetCounts,
+                                CategoryStatsService categoryStatsService, ProductOutbox productOutbox, Validator validator,
+                                ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                                @Value("${product.import.batch-size:1000}") int batchSize) {
+        this.entityManager = entityManager;
+        this.categoryDirectory = categoryDirectory;
+        this.productMapper = productMapper;
+        this.productCacheIndex = productCacheIndex;
+        this.productSearch = productSearch;
+        this.productFacetCounts = productFacetCounts;
+        this.categoryStatsService = categoryStatsService;
+        this.productOutbox = productOutbox;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * With {@code audit} off the rows skip the audit log, for initial catalog loads whose
+     * history starts with the first edit.
+     */
+    public ProductImportResult importNdjson(InputStream body, boolean audit) throws IOException {
+        return importRows(body, false, audit);
+    }
+
+    /**
+     * CSV with a header naming the {@link #CSV_COLUMNS} in any order. Fields may be quoted,
+     * but a row must fit on one line.
+     */
+    public ProductImportResult importCsv(InputStream body, boolean audit) throws IOException {
+        return importRows(body, true, audit);
+    }
+
+    private ProductImportResult importRows(InputStream body, boolean csv, boolean audit) throws IOException {
+        Import run = new Import(audit);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Map<String, Integer> header = null;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (csv && header == null) {
+                    header = csvHeader(line);
+                    continue;
+                }
+                try {
+                    ProductRequest request = csv ? fromCsv(header, line) : fromJson(line);
+                    run.accept(lineNumber, request);
+                } catch (MissingPriceException e) {
+                    run.reject(lineNumber, PRICE_REQUIRED);
+                } catch (JsonProcessingException e) {
+                    run.reject(lineNumber, "Malformed row: " + e.getOriginalMessage());
+                } catch (IllegalArgumentException e) {
+                    run.reject(lineNumber, "Malformed row: " + e.getMessage());
+                }
+            }
+        }
+        run.flush();
+        if (run.imported > 0) {
+            productCacheIndex.evictAllPages();
+        }
+        // Unknown categories are only found when their batch is written, after later lines were validated
+        run.errors.sort(Comparator.comparingLong(ProductImportError::line));
+        return new ProductImportResult(run.imported, run.failed, run.errors);
+    }
+
+    private record Row(long line, ProductRequest request, Long categoryId) {
+    }
+
+    // ProductRequest.price is a primitive, so a row without one would otherwise import at 0
+    private static final class MissingPriceException extends RuntimeException {
+    }
+
+    /**
+     * State of one upload: the pending batch and the error report.
+     */
+    private class Import {
+
+        private final List<Row> batch = new ArrayList<>(batchSize);
+        private final List<ProductImportError> errors = new ArrayList<>();
+        private final boolean audit;
+        private long imported;
+        private long failed;
+
+        Import(boolean audit) {
+            this.audit = audit;
+        }
+
+        void accept(long line, ProductRequest request) {
+            var violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                reject(line, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            // @Min lets Infinity through, and DECIMAL(10, 2) would round a third decimal place
+            if (!Double.isFinite(request.price())) {
+                reject(line, PRICE_NOT_FINITE);
+                return;
+            }
+            try {
+                Prices.requireStorable(BigDecimal.valueOf(request.price()));
+            } catch (IllegalArgumentException e) {
+                reject(line, e.getMessage());
+                return;
+            }
+            batch.add(new Row(line, request, null));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String error) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ProductImportError(line, error));
+            }
+        }
+
+        void flush() {
+            resolveCategories();
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                productSearch.refresh(write(batch, audit));
+                imported += batch.size();
+            } catch (PersistenceException | DataAccessException e) {
+                for (Row row : batch) {
+                    try {
+                        productSearch.refresh(write(List.of(row), audit));
+                        imported++;
+                    } catch (PersistenceException | DataAccessException rowFailure) {
+                        reject(row.line(), "Rejected by the database: " + rootMessage(rowFailure));
+                    }
+                }
+            }
+            batch.clear();
+        }
+
+        // One directory call for the whole batch; it only queries names no member has seen yet
+        private void resolveCategories() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            Map<String, Long> ids = categoryDirectory.idsOf(batch.stream()
+                    .map(row -> row.request().category().name())
+                    .collect(Collectors.toSet()));
+            List<Row> resolved = new ArrayList<>(batch.size());
+            for (Row row : batch) {
+                String category = row.request().category().name();
+                Long categoryId = ids.get(category);
+                if (categoryId == null) {
+                    reject(row.line(), "Category not found: " + category);
+                } else {
+                    resolved.add(new Row(row.line(), row.request(), categoryId));
+                }
+            }
+            batch.clear();
+            batch.addAll(resolved);
+        }
+    }
+
+    // Ids of the products written, once the batch has committed
+    private List<Long> write(List<Row> rows, boolean audit) {
+        return transactionTemplate.execute(status -> {
+            List<Product> products = new ArrayList<>(rows.size());
+            ProductFacetCounts.Changes facets = productFacetCounts.changes();
+            for (Row row : rows) {
+                Product product = productMapper.toEntity(row.request());
+                product.setId(null);
+                product.setCategory(entityManager.getReference(Category.class, row.categoryId()));
+                entityManager.persist(product);
+                products.add(product);
+                facets.add(row.categoryId(), product.getPrice());
+            }
+            facets.apply();
+            categoryStatsService.refresh(rows.stream().map(Row::categoryId).toList());
+            entityManager.flush();
+            productOutbox.appendAll(ProductChange.Type.CREATED, products.stream().map(ProductSnapshot::from).toList(), audit);
+            entityManager.clear();
+            return products.stream().map(Product::getId).toList();
+        });
+    }
+
+    private static Map<String, Integer> csvHeader(String line) {
+        List<String> columns = splitCsv(line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim().toLowerCase(), i);
+        }
+        if (!header.keySet().containsAll(List.of("name", "price", "category"))) {
+            throw new IllegalArgumentException("CSV header must name the columns " + CSV_COLUMNS);
+        }
+        return header;
+    }
+
+    private ProductRequest fromJson(String line) throws JsonProcessingException {
+        JsonNode row = objectMapper.readTree(line);
+        ProductRequest request = objectMapper.treeToValue(row, ProductRequest.class);
+        if (!row.hasNonNull("price")) {
+            throw new MissingPriceException();
+        }
+        return request;
+    }
+
+    private static ProductRequest fromCsv(Map<String, Integer> header, String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " fields but found " + fields.size());
+        }
+        String price = field(header, fields, "price");
+        String category = field(header, fields, "category");
+        if (price == null) {
+            throw new MissingPriceException();
+        }
+        return new ProductRequest(
+                null,
+                field(header, fields, "name"),
+                Double.parseDouble(price),
+                field(header, fields, "description"),
+                field(header, fields, "sku"),
+                field(header, fields, "barcode"),
+                category == null ? null : new CategoryRequest(category));
+    }
+
+    private static String field(Map<String, Integer> header, List<String> fields, String column) {
+        Integer index = header.get(column);
+        if (index == null || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    // RFC 4180 quoting within a single line: "a, b" and "say ""hi""" are one field each
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Driver messages often append the whole statement; the first line names the constraint
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String message = String.valueOf(root.getMessage());
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline).trim();
+    }
+}
@@ -0,0 +1,88 @@
+package com.kadirkara.product.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Finds products by SKU or barcode. A secondary key resolves to an id through the
+ * {@code product-keys} map, and the id to the snapshot already cached under it, so a warm
+ * lookup is two in-memory reads and no query.
+ * <p>
+ * Writes do not maintain the key map. A cached id is only trusted if the snapshot it leads to
+ * still carries the key; otherwise the entry is dropped and the unique index answers.
+ */
+@Service
+public class ProductLookupService {
+
+    public static final String PRODUCT_KEYS = "product-keys";
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final IMap<String, Long> idsByKey;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ProductLookupService(ProductService productService, ProductRepository productRepository,
+                                HazelcastInstance hazelcastInstance, MeterRegistry meterRegistry) {
+        this.productService = productService;
+        this.productRepository = productRepository;
+        this.idsByKey = hazelcastInstance.getMap(PRODUCT_KEYS);
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+    }
+
+    public ProductSnapshot findBySku(String sku) {
+        return find("sku:" + sku, sku, ProductSnapshot::sku, productRepository::findIdBySku);
+    }
+
+    public ProductSnapshot findByBarcode(String barcode) {
+        return find("barcode:" + barcode, barcode, ProductSnapshot::barcode, productRepository::findIdByBarcode);
+    }
+
+    private ProductSnapshot find(String key, String value, Function<ProductSnapshot, String> attribute,
+                                 Function<String, Optional<Long>> idQuery) {
+        Long cachedId = idsByKey.get(key);
+        if (cachedId != null) {
+            ProductSnapshot cached = findById(cachedId);
+            if (cached != null && value.equals(attribute.apply(cached))) {
+                hits.increment();
+                return cached;
+            }
+            idsByKey.delete(key);
+        }
+        misses.increment();
+        Long id = idQuery.apply(value).orElseThrow(() -> new NoSuchElementException("Product not found"));
+        ProductSnapshot snapshot = findById(id);
+        if (snapshot == null) {
+            throw new NoSuchElementException("Product not found");
+        }
+        idsByKey.set(key, id);
+        return snapshot;
+    }
+
+    // Through the service proxy, so the snapshot comes from and goes to the products cache
+    private ProductSnapshot findById(Long id) {
+        try {
+            return productService.findById(id);
+        } catch (EntityNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("product.lookup.key.cache")
+                .description("SKU and barcode lookups, by whether the key cache resolved them")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -1,57 +1,235 @@
 package com.kadirkara.product.service;
 
+import com.kadirkara.product.cache.ProductCacheIndex;
+import com.kadirkara.product.cache.ProductChange;
+import com.kadirkara.product.cache.ProductFacetCounts;
+import com.kadirkara.product.cache.ProductPage;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.dto.ProductCursor;
+import com.kadirkara.product.dto.ProductMergePatch;
+import com.kadirkara.product.entity.Category;
 import com.kadirkara.product.entity.Product;
+import com.kadirkara.product.exception.PreconditionFailedException;
+import com.kadirkara.product.repository.CategoryRepository;
+import com.kadirkara.product.repository.ProductOutbox;
 import com.kadirkara.product.repository.ProductRepository;
+import com.kadirkara.product.search.ProductSearch;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductCacheIndex productCacheIndex;
+    private final ProductCountEstimator productCountEstimator;
+    private final ProductSearch productSearch;
+    private final ProductFacetCounts productFacetCounts;
+    private final CategoryStatsService categoryStatsService;
+    private final CategoryDirectory categoryDirectory;
+    private final CategoryRepository categoryRepository;
+    private final ProductOutbox productOutbox;
 
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ProductCacheIndex productCacheIndex,
+                          ProductCountEstimator productCountEstimator, ProductSearch productSearch,
+                          ProductFacetCounts productFacetCounts, CategoryStatsService categoryStatsService,
+                          CategoryDirectory categoryDirectory, CategoryRepository categoryRepository,
+                          ProductOutbox productOutbox) {
         this.productRepository = productRepository;
+        this.productCacheIndex = productCacheIndex;
+        this.productCountEstimator = productCountEstimator;
+        this.productSearch = productSearch;
+        this.productFacetCounts = productFacetCounts;
+        this.categoryStatsService = categoryStatsService;
+        this.categoryDirectory = categoryDirectory;
+        this.categoryRepository = categoryRepository;
+        this.productOutbox = productOutbox;
     }
     @Transactional
-    @CacheEvict(value = "products", allEntries = true)
-    public Product save(Product product) {
+    @CachePut(value = "products", key = "#result.id")
+    public ProductSnapshot save(Product product) {
         Product p = Product.create(
                 product.getSku(),
                 product.getBarcode(),
                 product.getName(),
                 product.getDescription(),
                 product.getPrice(),
-                product.getCategory()
+                resolveCategory(product.getCategory())
         );
-        return productRepository.save(p);
+        Product saved = productRepository.save(p);
+        productCacheIndex.evictAllPages();
+        productSearch.refresh(List.of(saved.getId()));
+        moved(null, null, categoryId(saved), saved.getPrice());
+        return created(saved);
     }
 
     @Cacheable(value = "products", key = "#id")
-    public Product findById(Long id) {
-        return productRepository.findById(id)
+    public ProductSnapshot findById(Long id) {
+        return productRepository.findSnapshotById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
     }
 
-    @CacheEvict(value = "products", allEntries = true)
+    @Transactional
+    @CacheEvict(value = "products", key = "#id")
     public void deleteById(Long id) {
+        productRepository.findSnapshotById(id).ifPresent(product -> {
+            moved(product.categoryId(), product.price(), null, null);
+            productOutbox.appendDeleted(id);
+        });
         productRepository.deleteById(id);
+        productCacheIndex.evictAllPages();
+        productSearch.remove(id);
+    }
+
+    @Transactional
+    @CachePut(value = "products", key = "#result.id")
+    public ProductSnapshot update(Product product) {
+        return update(product, null);
+    }
+
+    /**
+     * Applies the request onto the managed row. With {@code expectedVersion} set, the update only
+     * goes ahead if the row is still at that version; concurrent writers are caught at flush either way.
+     * A missing product is not created: without an If-Match that is a 404, with one a 412.
+     */
+    @Transactional
+    @CachePut(value = "products", key = "#result.id")
+    public ProductSnapshot update(Product product, Long expectedVersion) {
+        Product current = productRepository.findById(product.getId()).orElseThrow(() -> expectedVersion == null
+                ? new NoSuchElementException("Product not found")
+                : new PreconditionFailedException("Product " + product.getId() + " does not exist"));
+        checkVersion(current, expectedVersion);
+        Set<String> changedProperties = ProductCacheIndex.changedProperties(current, product);
+        Long previousCategoryId = categoryId(current);
+        BigDecimal previousPrice = current.getPrice();
+        current.setSku(product.getSku());
+        current.setBarcode(product.getBarcode());
+        current.setName(product.getName());
+        current.setDescription(product.getDescription());
+        current.setPrice(product.getPrice());
+        if (product.getCategory() != null) {
+            current.setCategory(resolveCategory(product.getCategory()));
+        }
+        moved(previousCategoryId, previousPrice, categoryId(current), current.getPrice());
+        return flushChanges(current, changedProperties);
+    }
+
+    @Transactional
+    @CachePut(value = "products", key = "#result.id")
+    public ProductSnapshot patch(Long id, Long expectedVersion, ProductMergePatch patch) {
+        Product current = productRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Product not found"));
+        checkVersion(current, expectedVersion);
+        Product before = Product.from(current.getId(), current.getSku(), current.getBarcode(), current.getName(),
+                current.getDescription(), current.getPrice(), current.getCategory());
+        patch.applyTo(current);
+        moved(categoryId(before), before.getPrice(), categoryId(current), current.getPrice());
+        return flushChanges(current, ProductCacheIndex.changedProperties(before, current));
+    }
+
+    // Cached by hand rather than with @Cacheable, so a page read across a write is not kept
+    public ProductPage findAll(Pageable pageable) {
+        ProductPage cached = productCacheIndex.cachedPage(pageable);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = productCacheIndex.generation();
+        Slice<ProductSnapshot> slice = productRepository.findSnapshotsBy(pageable);
+        ProductPage snapshot = new ProductPage(
+                slice.getContent(),
+                slice.getNumber(),
+                slice.getSize(),
+                slice.hasNext(),
+                ProductCacheIndex.sortedBy(pageable));
+        productCacheIndex.cachePage(pageable, snapshot, generation);
+        return snapshot;
+    }
+
+    /**
+     * Best matches for the query, best first. Ranking comes from the search index, the rows from
+     * one query by id.
+     */
+    public List<ProductSnapshot> search(String query, int limit) {
+        List<Long> ids = productSearch.search(query, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductSnapshot> found = productRepository.findSnapshotsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductSnapshot::id, Function.identity()));
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    public long approximateCount() {
+        return productCountEstimator.approximateCount();
+    }
+
+    // Flushing here bumps the version, so the returned snapshot and its ETag are current
+    private ProductSnapshot flushChanges(Product product, Set<String> changedProperties) {
+        productRepository.flush();
+        productCacheIndex.evictPagesOf(product.getId(), changedProperties);
+        productSearch.refresh(List.of(product.getId()));
+        ProductSnapshot snapshot = ProductSnapshot.from(product);
+        productOutbox.append(ProductChange.Type.UPDATED, snapshot);
+        return snapshot;
+    }
+
+    private ProductSnapshot created(Product product) {
+        ProductSnapshot snapshot = ProductSnapshot.from(product);
+        productOutbox.append(ProductChange.Type.CREATED, snapshot);
+        return snapshot;
+    }
+
+    // A null category means the product did not exist before, or no longer exists after
+    private void moved(Long fromCategoryId, BigDecimal fromPrice, Long toCategoryId, BigDecimal toPrice) {
+        productFacetCounts.changes().move(fromCategoryId, fromPrice, toCategoryId, toPrice).apply();
+        categoryStatsService.refresh(Arrays.asList(fromCategoryId, toCategoryId));
+    }
+
+    /**
+     * The managed category a request refers to, by id or else by name. Names resolve through the
+     * directory and the row is a lazy reference, so neither costs a query once the name is known.
+     */
+    private Category resolveCategory(Category requested) {
+        if (requested == null || (requested.getId() == null && requested.getName() == null)) {
+            return null;
+        }
+        Long id = requested.getId() != null ? requested.getId() : categoryDirectory.idOf(requested.getName())
+                .orElseThrow(() -> new IllegalArgumentException("Category not found: " + requested.getName()));
+        return categoryRepository.getReferenceById(id);
+    }
+
+    private static Long categoryId(Product product) {
+        return product.getCategory() != null ? product.getCategory().getId() : null;
     }
 
-    @CacheEvict(value = "products", allEntries = true)
-    public Product update(Product product) {
-        return productRepository.save(product);
+    private static void checkVersion(Product product, Long expectedVersion) {
+        if (expectedVersion != null && product.getVersion() != expectedVersion) {
+            throw new PreconditionFailedException("Product " + product.getId() + " is at version "
+                    + product.getVersion() + ", not " + expectedVersion);
+        }
     }
 
-    @Cacheable(value = "products", key = "'page_' + #pageable.pageNumber + '_' + #pageable.pageSize + '_' + #pageable.sort.toString()")
-    public Page<Product> findAll(Pageable pageable) {
-        return productRepository.findAll(pageable);
+    public Window<ProductSnapshot> scroll(ProductCursor cursor, int size) {
+        return productRepository.findAllBy(cursor.position(), cursor.sort(), Limit.of(size))
+                .map(ProductSnapshot::from);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,4 @@
+-- Faceted filtering: categories and a price range, listed in price order
+CREATE INDEX IF NOT EXISTS idx_products_category_price_id ON products (category_id, price, id);
+-- Case-insensitive name prefix; text_pattern_ops lets LIKE 'abc%' use the index under any collation
+CREATE INDEX IF NOT EXISTS idx_products_name_prefix ON products (lower(name) text_pattern_ops);
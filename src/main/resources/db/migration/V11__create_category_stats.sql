@@ -0,0 +1,81 @@
+-- Per-category product count and price rollup, so category pages read one row instead of
+-- aggregating the category's products. Kept in step by statement-level triggers on products:
+-- a batch of N rows costs one upsert per category it touches, not N.
+CREATE TABLE IF NOT EXISTS category_stats (
+    category_id   BIGINT PRIMARY KEY REFERENCES categories (id) ON DELETE CASCADE,
+    product_count BIGINT  NOT NULL,
+    price_total   NUMERIC NOT NULL,
+    min_price     DECIMAL(10, 2),
+    max_price     DECIMAL(10, 2)
+);
+
+INSERT INTO category_stats (category_id, product_count, price_total, min_price, max_price)
+SELECT category_id, count(*), sum(price), min(price), max(price)
+FROM products
+GROUP BY category_id
+ON CONFLICT (category_id) DO NOTHING;
+
+-- Count and total move by the delta. Min and max cannot be maintained that way once a row goes,
+-- so they are read again; idx_products_category_price_id answers each with one index probe.
+-- That read is its own statement so it runs after the upsert holds the row lock, and sees what
+-- a concurrent writer of the same category committed while this one waited.
+CREATE OR REPLACE FUNCTION category_stats_add(p_category_id BIGINT, p_count BIGINT, p_total NUMERIC)
+    RETURNS void LANGUAGE sql AS $$
+    INSERT INTO category_stats AS s (category_id, product_count, price_total)
+    VALUES (p_category_id, p_count, p_total)
+    ON CONFLICT (category_id) DO UPDATE SET
+        product_count = s.product_count + EXCLUDED.product_count,
+        price_total   = s.price_total + EXCLUDED.price_total;
+    UPDATE category_stats
+    SET min_price = (SELECT min(price) FROM products WHERE category_id = p_category_id),
+        max_price = (SELECT max(price) FROM products WHERE category_id = p_category_id)
+    WHERE category_id = p_category_id;
+$$;
+
+-- Categories are visited in id order so concurrent writers lock their rows in the same order
+CREATE OR REPLACE FUNCTION category_stats_on_insert() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM category_stats_add(category_id, count(*), sum(price))
+    FROM new_rows GROUP BY category_id ORDER BY category_id;
+    RETURN NULL;
+END $$;
+
+CREATE OR REPLACE FUNCTION category_stats_on_delete() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM category_stats_add(category_id, -count(*), -sum(price))
+    FROM old_rows GROUP BY category_id ORDER BY category_id;
+    RETURN NULL;
+END $$;
+
+-- Transition tables cannot be combined with UPDATE OF, so rows whose price and category
+-- did not change are skipped here
+CREATE OR REPLACE FUNCTION category_stats_on_update() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM category_stats_add(category_id, sum(delta_count), sum(delta_total))
+    FROM (
+        SELECT n.category_id, 1 AS delta_count, n.price AS delta_total
+        FROM new_rows n JOIN old_rows o ON o.id = n.id
+        WHERE n.price <> o.price OR n.category_id <> o.category_id
+        UNION ALL
+        SELECT o.category_id, -1, -o.price
+        FROM new_rows n JOIN old_rows o ON o.id = n.id
+        WHERE n.price <> o.price OR n.category_id <> o.category_id
+    ) changed
+    GROUP BY category_id ORDER BY category_id;
+    RETURN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS trg_category_stats_insert ON products;
+CREATE TRIGGER trg_category_stats_insert AFTER INSERT ON products
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION category_stats_on_insert();
+
+DROP TRIGGER IF EXISTS trg_category_stats_delete ON products;
+CREATE TRIGGER trg_category_stats_delete AFTER DELETE ON products
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION category_stats_on_delete();
+
+DROP TRIGGER IF EXISTS trg_category_stats_update ON products;
+CREATE TRIGGER trg_category_stats_update AFTER UPDATE ON products
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION category_stats_on_update();
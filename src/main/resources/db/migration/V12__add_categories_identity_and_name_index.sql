@@ -0,0 +1,7 @@
+-- Categories are created through the API from now on; the entity expects the database to assign ids
+ALTER TABLE categories ALTER COLUMN id ADD GENERATED BY DEFAULT AS IDENTITY;
+
+SELECT setval(pg_get_serial_sequence('categories', 'id'), (SELECT COALESCE(MAX(id), 0) + 1 FROM categories), false);
+
+-- Names resolve to ids, so two categories may not share one
+CREATE UNIQUE INDEX IF NOT EXISTS idx_categories_name ON categories (name);
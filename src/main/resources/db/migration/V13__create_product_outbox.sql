@@ -0,0 +1,17 @@
+-- Product writes, recorded in the transaction that makes them. The relay publishes rows in id
+-- order and stamps each with its stream offset; rows without one are still to be published.
+CREATE TABLE IF NOT EXISTS product_outbox (
+    id            BIGSERIAL PRIMARY KEY,
+    product_id    BIGINT      NOT NULL,
+    type          VARCHAR(16) NOT NULL,
+    payload       JSONB,
+    created_at    TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    stream_offset BIGINT UNIQUE,
+    published_at  TIMESTAMP
+);
+
+-- Only the backlog is indexed for the relay; replay reads through the unique offset index
+CREATE INDEX IF NOT EXISTS idx_product_outbox_unpublished ON product_outbox (id) WHERE stream_offset IS NULL;
+
+-- Offsets come from here rather than from id: ids are taken at insert, so they do not follow commit order
+CREATE SEQUENCE IF NOT EXISTS product_outbox_offset_seq;
@@ -0,0 +1,8 @@
+-- The outbox doubles as the audit queue. Rows written with audit off (bulk catalog loads) are never
+-- audited; the others wait for audited_at. author is captured in the writing transaction, since the
+-- auditor runs later without the request's security context.
+ALTER TABLE product_outbox ADD COLUMN IF NOT EXISTS audit BOOLEAN NOT NULL DEFAULT TRUE;
+ALTER TABLE product_outbox ADD COLUMN IF NOT EXISTS author VARCHAR(255);
+ALTER TABLE product_outbox ADD COLUMN IF NOT EXISTS audited_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_product_outbox_unaudited ON product_outbox (id) WHERE audit AND audited_at IS NULL;
@@ -0,0 +1,3 @@
+-- Composite indexes for keyset (seek) listing on (sort key, id)
+CREATE INDEX IF NOT EXISTS idx_products_name_id ON products (name, id);
+CREATE INDEX IF NOT EXISTS idx_products_price_id ON products (price, id);
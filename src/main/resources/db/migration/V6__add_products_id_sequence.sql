@@ -0,0 +1,4 @@
+-- Sequence for Hibernate's pooled-lo optimizer: every nextval hands out the next 50 ids
+CREATE SEQUENCE IF NOT EXISTS products_id_seq INCREMENT BY 50;
+
+SELECT setval('products_id_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM products), false);
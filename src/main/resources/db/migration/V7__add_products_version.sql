@@ -0,0 +1,2 @@
+-- Optimistic-lock version; also the source of product ETags
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,3 @@
+-- Point lookups by SKU and scanned barcode; INCLUDE lets the id come from an index-only scan
+CREATE UNIQUE INDEX IF NOT EXISTS ux_products_sku ON products (sku) INCLUDE (id);
+CREATE UNIQUE INDEX IF NOT EXISTS ux_products_barcode ON products (barcode) INCLUDE (id);
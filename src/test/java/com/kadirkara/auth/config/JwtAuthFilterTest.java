@@ -0,0 +1,211 @@
+package com.kadirkara.auth.config;
+
+import com.kadirkara.auth.service.AuthenticationCache;
+import com.kadirkara.auth.service.TokenDenylist;
+import com.kadirkara.auth.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JwtAuthFilter Unit Tests")
+public class JwtAuthFilterTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private TokenDenylist tokenDenylist;
+
+    private JwtUtil jwtUtil;
+    private AuthenticationCache authenticationCache;
+    private JwtAuthFilter jwtAuthFilter;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = spy(new JwtUtil());
+        authenticationCache = new AuthenticationCache(100, Duration.ofMinutes(1));
+        jwtAuthFilter = new JwtAuthFilter(jwtUtil, userDetailsService, authenticationCache, tokenDenylist, false);
+        lenient().when(userDetailsService.loadUserByUsername("alice")).thenReturn(
+                new User("alice", "hash", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should verify a token and load its user only once across requests")
+    void shouldVerifyTokenOnce() throws Exception {
+        // Given
+        String jwt = jwtUtil.generateToken("alice", Set.of("ROLE_USER"));
+
+        // When
+        Authentication first = authenticate(jwt);
+        Authentication second = authenticate(jwt);
+
+        // Then
+        assertThat(first.getName()).isEqualTo("alice");
+        assertThat(second.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+        verify(jwtUtil, times(1)).extractAllClaims(jwt);
+        verify(userDetailsService, times(1)).loadUserByUsername("alice");
+    }
+
+    @Test
+    @DisplayName("Should reuse cached user details for a new token of the same user")
+    void shouldReuseUserDetailsForNewToken() throws Exception {
+        // Given
+        String firstJwt = jwtUtil.generateToken("alice", Set.of("ROLE_USER"));
+        String secondJwt = jwtUtil.generateToken("alice", Set.of("ROLE_USER"));
+
+        // When
+        authenticate(firstJwt);
+        Authentication second = authenticate(secondJwt);
+
+        // Then
+        assertThat(second.getName()).isEqualTo("alice");
+        verify(jwtUtil, times(1)).extractAllClaims(secondJwt);
+        verify(userDetailsService, times(1)).loadUserByUsername("alice");
+    }
+
+    @Test
+    @DisplayName("Should verify again after the user changed")
+    void shouldVerifyAgainAfterUserChange() throws Exception {
+        // Given
+        String jwt = jwtUtil.generateToken("alice", Set.of("ROLE_USER"));
+        authenticate(jwt);
+
+        // When
+        authenticationCache.evictUser("alice");
+        authenticate(jwt);
+
+        // Then
+        verify(jwtUtil, times(2)).extractAllClaims(jwt);
+        verify(userDetailsService, times(2)).loadUserByUsername("alice");
+    }
+
+    @Test
+    @DisplayName("Should pick up a role change once the user details expire, without verifying the token again")
+    void shouldSeeRoleChangeOfCachedToken() throws Exception {
+        // Given
+        authenticationCache = new AuthenticationCache(100, Duration.ofMillis(100));
+        jwtAuthFilter = new JwtAuthFilter(jwtUtil, userDetailsService, authenticationCache, tokenDenylist, false);
+        String jwt = jwtUtil.generateToken("alice", Set.of("ROLE_USER"));
+        authenticate(jwt);
+
+        // When
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(
+                new User("alice", "hash", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(authenticate(jwt).getAuthorities()).extracting(Object::toString).containsExactly("ROLE_ADMIN"));
+        verify(jwtUtil, times(1)).extractAllClaims(jwt);
+    }
+
+    @Test
+    @DisplayName("Should build authorities from the roles claim without loading the user in stateless mode")
+    void shouldAuthenticateFromClaimsInStatelessMode() throws Exception {
+        // Given
+        jwtAuthFilter = new JwtAuthFilter(jwtUtil, userDetailsService, authenticationCache, tokenDenylist, true);
+        String jwt = jwtUtil.generateToken("bob", Set.of("ROLE_USER", "ROLE_ADMIN"));
+
+        // When
+        Authentication authentication = authenticate(jwt);
+
+        // Then
+        assertThat(authentication.getName()).isEqualTo("bob");
+        assertThat(authentication.getAuthorities()).extracting(Object::toString)
+                .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    @DisplayName("Should reject a revoked token even when it is cached")
+    void shouldRejectRevokedToken() throws Exception {
+        // Given
+        String jwt = jwtUtil.generateToken("alice", Set.of("ROLE_USER"));
+        authenticate(jwt);
+        String tokenId = jwtUtil.extractAllClaims(jwt).getId();
+        when(tokenDenylist.isRevoked(tokenId)).thenReturn(true);
+
+        // When
+        Authentication authentication = authenticate(jwt);
+
+        // Then
+        assertThat(tokenId).isNotBlank();
+        assertThat(authentication).isNull();
+    }
+
+    // mvn test -Dtest=JwtAuthFilterTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: user lookups per second, stateful vs stateless")
+    void benchmarkUserLookups() throws Exception {
+        // Given: 500 users with one fresh token each, and user details expiring after 100 ms
+        int users = 500;
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            String username = "user-" + i;
+            lenient().when(userDetailsService.loadUserByUsername(username)).thenAnswer(invocation -> {
+                Thread.sleep(1);
+                return new User(username, "hash", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+            });
+            tokens.add(jwtUtil.generateToken(username, Set.of("ROLE_USER")));
+        }
+
+        clearInvocations(userDetailsService);
+
+        // When
+        double stateful = lookupsPerSecond(new JwtAuthFilter(jwtUtil, userDetailsService,
+                new AuthenticationCache(10_000, Duration.ofMillis(100)), tokenDenylist, false), tokens);
+        clearInvocations(userDetailsService);
+        double stateless = lookupsPerSecond(new JwtAuthFilter(jwtUtil, userDetailsService,
+                new AuthenticationCache(10_000, Duration.ofMillis(100)), tokenDenylist, true), tokens);
+
+        // Then
+        System.out.printf("user lookups per second: stateful %.0f, stateless %.0f%n", stateful, stateless);
+        assertThat(stateless).isZero();
+    }
+
+    private double lookupsPerSecond(JwtAuthFilter filter, List<String> tokens) throws Exception {
+        jwtAuthFilter = filter;
+        long start = System.nanoTime();
+        for (int i = 0; i < 20_000; i++) {
+            authenticate(tokens.get(i % tokens.size()));
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return mockingDetails(userDetailsService).getInvocations().size() / seconds;
+    }
+
+    private Authentication authenticate(String jwt) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + jwt);
+        jwtAuthFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,42 @@
+package com.kadirkara.auth.config;
+
+import com.kadirkara.product.ProductApiApplication;
+import com.kadirkara.product.service.ProductImportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = ProductApiApplication.class)
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-test.properties")
+@DisplayName("SecurityConfig Tests")
+public class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ProductImportService productImportService;
+
+    @Test
+    @WithMockUser(roles = "USER")
+    @DisplayName("Should forbid a plain user from importing products")
+    void shouldForbidImportForUser() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/products/import")
+                        .contentType("application/x-ndjson")
+                        .content("{\"name\": \"Phone\", \"price\": 1.00, \"category\": {\"name\": \"Electronics\"}}"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(productImportService);
+    }
+}
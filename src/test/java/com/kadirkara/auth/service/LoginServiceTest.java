@@ -0,0 +1,158 @@
+package com.kadirkara.auth.service;
+
+import com.kadirkara.auth.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LoginService Unit Tests")
+public class LoginServiceTest {
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LoginService loginService;
+
+    @AfterEach
+    void tearDown() {
+        if (loginService != null) {
+            loginService.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should issue a token with the roles of the authenticated principal")
+    void shouldIssueTokenFromAuthentication() {
+        // Given
+        loginService = loginService(2, 10, 5, 20);
+        when(authenticationManager.authenticate(any())).thenReturn(UsernamePasswordAuthenticationToken.authenticated(
+                "alice", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        // When
+        String jwt = loginService.login("alice", "secret", "10.0.0.1").join();
+
+        // Then
+        assertThat(jwtUtil.extractUsername(jwt)).isEqualTo("alice");
+        assertThat(jwtUtil.extractAllClaims(jwt).get("roles", List.class)).containsExactly("ROLE_ADMIN");
+        assertThat(meterRegistry.get("auth.login.hash").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should pass authentication failures through to the caller")
+    void shouldFailOnBadCredentials() {
+        // Given
+        loginService = loginService(2, 10, 5, 20);
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        // When
+        CompletableFuture<String> result = loginService.login("alice", "wrong", "10.0.0.1");
+
+        // Then
+        assertThat(result).failsWithin(5, TimeUnit.SECONDS)
+                .withThrowableOfType(Exception.class)
+                .withCauseInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    @DisplayName("Should throttle a username once its burst is spent")
+    void shouldThrottlePerUsername() {
+        // Given
+        loginService = loginService(2, 10, 2, 20);
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+        loginService.login("alice", "wrong", "10.0.0.1");
+        loginService.login("alice", "wrong", "10.0.0.2");
+
+        // When
+        CompletableFuture<String> throttled = loginService.login("alice", "wrong", "10.0.0.3");
+        CompletableFuture<String> otherUser = loginService.login("bob", "wrong", "10.0.0.3");
+
+        // Then
+        assertThat(throttled).failsWithin(0, TimeUnit.SECONDS)
+                .withThrowableOfType(Exception.class)
+                .withCauseInstanceOf(LoginThrottledException.class);
+        assertThat(otherUser).failsWithin(5, TimeUnit.SECONDS)
+                .withThrowableOfType(Exception.class)
+                .withCauseInstanceOf(BadCredentialsException.class);
+        assertThat(rejections("username")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should throttle a client address across usernames")
+    void shouldThrottlePerAddress() {
+        // Given
+        loginService = loginService(2, 10, 5, 2);
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+        loginService.login("alice", "wrong", "10.0.0.1");
+        loginService.login("bob", "wrong", "10.0.0.1");
+
+        // When
+        CompletableFuture<String> throttled = loginService.login("carol", "wrong", "10.0.0.1");
+
+        // Then
+        assertThat(throttled).failsWithin(0, TimeUnit.SECONDS)
+                .withThrowableOfType(Exception.class)
+                .havingCause()
+                .isInstanceOfSatisfying(LoginThrottledException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isPositive());
+        assertThat(rejections("address")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reject logins once the password-check queue is full")
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        // Given
+        loginService = loginService(1, 1, 5, 20);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(authenticationManager.authenticate(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            throw new BadCredentialsException("Bad credentials");
+        });
+        CompletableFuture<String> running = loginService.login("alice", "wrong", "10.0.0.1");
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> queued = loginService.login("bob", "wrong", "10.0.0.2");
+
+        // When
+        CompletableFuture<String> rejected = loginService.login("carol", "wrong", "10.0.0.3");
+
+        // Then
+        assertThat(rejected).failsWithin(0, TimeUnit.SECONDS)
+                .withThrowableOfType(Exception.class)
+                .withCauseInstanceOf(LoginThrottledException.class);
+        assertThat(meterRegistry.get("auth.login.queue.depth").gauge().value()).isEqualTo(1);
+        assertThat(rejections("queue")).isEqualTo(1);
+        release.countDown();
+        assertThat(running).failsWithin(5, TimeUnit.SECONDS);
+        assertThat(queued).failsWithin(5, TimeUnit.SECONDS);
+    }
+
+    private LoginService loginService(int threads, int queueCapacity, int usernameBurst, int addressBurst) {
+        return new LoginService(authenticationManager, jwtUtil, meterRegistry,
+                threads, queueCapacity, usernameBurst, 1, addressBurst, 1);
+    }
+
+    private double rejections(String reason) {
+        return meterRegistry.get("auth.login.rejected").tag("reason", reason).counter().count();
+    }
+}
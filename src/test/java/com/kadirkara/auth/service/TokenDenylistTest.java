@@ -0,0 +1,88 @@
+package com.kadirkara.auth.service;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@DisplayName("Token denylist on a two-member embedded cluster")
+public class TokenDenylistTest {
+
+    private final List<HazelcastInstance> members = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        members.forEach(HazelcastInstance::shutdown);
+    }
+
+    @Test
+    @DisplayName("Should reject a token on every member once it is revoked on one")
+    void shouldReplicateRevocation() {
+        // Given
+        startCluster();
+        TokenDenylist first = new TokenDenylist(members.get(0), 1_000, 0.01);
+        TokenDenylist second = new TokenDenylist(members.get(1), 1_000, 0.01);
+        String tokenId = UUID.randomUUID().toString();
+
+        // When
+        first.revoke(tokenId, Instant.now().plus(Duration.ofHours(1)));
+
+        // Then
+        await().atMost(Duration.ofSeconds(15)).until(() -> second.isRevoked(tokenId));
+        assertThat(first.isRevoked(tokenId)).isTrue();
+        assertThat(second.isRevoked(UUID.randomUUID().toString())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should forget a revocation when the token expires")
+    void shouldExpireWithToken() {
+        // Given
+        startCluster();
+        TokenDenylist denylist = new TokenDenylist(members.get(0), 1_000, 0.01);
+        String tokenId = UUID.randomUUID().toString();
+
+        // When
+        denylist.revoke(tokenId, Instant.now().plus(Duration.ofSeconds(1)));
+
+        // Then
+        assertThat(denylist.isRevoked(tokenId)).isTrue();
+        await().atMost(Duration.ofSeconds(15)).until(() -> !denylist.isRevoked(tokenId));
+    }
+
+    @Test
+    @DisplayName("Should pick up earlier revocations when a member joins")
+    void shouldRebuildFromMapOnStart() {
+        // Given
+        startCluster();
+        String tokenId = UUID.randomUUID().toString();
+        new TokenDenylist(members.get(0), 1_000, 0.01).revoke(tokenId, Instant.now().plus(Duration.ofHours(1)));
+
+        // When
+        TokenDenylist joined = new TokenDenylist(members.get(1), 1_000, 0.01);
+
+        // Then
+        assertThat(joined.isRevoked(tokenId)).isTrue();
+    }
+
+    private void startCluster() {
+        String clusterName = "denylist-" + UUID.randomUUID();
+        for (int i = 0; i < 2; i++) {
+            Config config = new Config().setClusterName(clusterName);
+            config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+            config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+            config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+            members.add(Hazelcast.newHazelcastInstance(config));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.kadirkara.auth.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BloomFilter Unit Tests")
+public class BloomFilterTest {
+
+    @Test
+    @DisplayName("Should never miss an added value")
+    void shouldContainEveryAddedValue() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        String[] values = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID().toString()).toArray(String[]::new);
+
+        // When
+        for (String value : values) {
+            filter.add(value);
+        }
+
+        // Then
+        assertThat(values).allMatch(filter::mightContain);
+    }
+
+    @Test
+    @DisplayName("Should keep false positives near the configured rate")
+    void shouldKeepFalsePositivesNearConfiguredRate() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.add(UUID.randomUUID().toString()));
+
+        // When
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain(UUID.randomUUID().toString()))
+                .count();
+
+        // Then
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+}
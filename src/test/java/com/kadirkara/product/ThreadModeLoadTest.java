@@ -0,0 +1,189 @@
+package com.kadirkara.product;
+
+import com.kadirkara.auth.util.JwtUtil;
+import com.kadirkara.product.entity.Category;
+import com.kadirkara.product.entity.Product;
+import com.kadirkara.product.repository.CategoryRepository;
+import com.kadirkara.product.repository.ProductRepository;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives {@code GET /api/products/{id}} against a running application backed by Postgres, once
+ * on Tomcat's platform-thread pool and once on virtual threads. The products cache is off so
+ * every request waits on the database. Virtual-thread runs also record pinned-thread events.
+ */
+// Class-level so the container is not started when the benchmark is off
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("Thread mode load test")
+public class ThreadModeLoadTest {
+
+    private static final int PRODUCTS = 1_000;
+    private static final int[] CONNECTIONS = {1_000, 5_000};
+    private static final Duration WARM_UP = Duration.ofSeconds(5);
+    private static final Duration MEASURE = Duration.ofSeconds(20);
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test")
+            .withCommand("postgres", "-c", "max_connections=200");
+
+    // mvn test -Dtest=ThreadModeLoadTest -Dbenchmark=true
+    // 5k connections need a matching open-file limit (ulimit -n) for client and server sockets
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: throughput and p99 on platform versus virtual threads")
+    void benchmarkThreadModes() throws Exception {
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtual)) {
+                List<Long> ids = seed(context);
+                String jwt = context.getBean(JwtUtil.class).generateToken("load-test", Set.of("ROLE_USER"));
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                Map<String, AtomicLong> pinned = new ConcurrentHashMap<>();
+                try (RecordingStream recording = pinnedThreadRecording(pinned)) {
+                    recording.startAsync();
+                    for (int connections : CONNECTIONS) {
+                        run(port, jwt, ids, connections, WARM_UP);
+                        Result result = run(port, jwt, ids, connections, MEASURE);
+                        System.out.printf("%-8s threads, %5d connections: %8.0f req/s, p99 %4d ms, %d errors%n",
+                                virtual ? "virtual" : "platform", connections, result.throughput(),
+                                result.p99Millis(), result.errors());
+                        assertThat(result.errors()).isZero();
+                    }
+                }
+                if (virtual) {
+                    System.out.println("pinned virtual threads by top frame: " + pinned);
+                }
+            }
+        }
+    }
+
+    // Command-line arguments, since builder properties are only defaults under application.yaml
+    private ConfigurableApplicationContext start(boolean virtual) {
+        return new SpringApplicationBuilder(ProductApiApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.cache.type=none",
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "--auth.jwt.stateless=true");
+    }
+
+    private List<Long> seed(ConfigurableApplicationContext context) {
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+        productRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+        Category category = new Category();
+        category.setName("Load");
+        category.setCreatedAt(LocalDateTime.now());
+        category.setUpdatedAt(LocalDateTime.now());
+        Category saved = categoryRepository.save(category);
+        List<Product> products = IntStream.range(0, PRODUCTS)
+                .mapToObj(i -> Product.create("LOAD-" + i, "LB-" + i, "Product " + i, null,
+                        BigDecimal.valueOf(10 + i), saved))
+                .toList();
+        return productRepository.saveAll(products).stream().map(Product::getId).toList();
+    }
+
+    // Each connection is one virtual client thread issuing requests back to back
+    private Result run(int port, String jwt, List<Long> ids, int connections, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> clients = new ArrayList<>();
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+             ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < connections; i++) {
+                clients.add(workers.submit(() -> {
+                    LongStream.Builder latencies = LongStream.builder();
+                    while (System.nanoTime() < deadline) {
+                        long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                        HttpRequest request = HttpRequest.newBuilder(
+                                        URI.create("http://localhost:" + port + "/api/products/" + id))
+                                .header("Authorization", "Bearer " + jwt)
+                                .timeout(Duration.ofSeconds(30))
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.add(System.nanoTime() - start);
+                    }
+                    return latencies.build().toArray();
+                }));
+            }
+            List<long[]> perClient = new ArrayList<>();
+            for (Future<long[]> future : clients) {
+                perClient.add(future.get());
+            }
+            long[] samples = perClient.stream().flatMapToLong(LongStream::of).sorted().toArray();
+            return new Result(samples.length / (duration.toNanos() / 1e9),
+                    samples.length == 0 ? 0 : samples[(int) (samples.length * 0.99)] / 1_000_000,
+                    errors.get());
+        }
+    }
+
+    // JDK 24 no longer pins in synchronized blocks; what remains (native frames, class
+    // initialisers) shows up as jdk.VirtualThreadPinned
+    private RecordingStream pinnedThreadRecording(Map<String, AtomicLong> pinned) {
+        RecordingStream recording = new RecordingStream();
+        recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1)).withStackTrace();
+        recording.onEvent("jdk.VirtualThreadPinned", event -> {
+            List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+            String top = frames.stream()
+                    .filter(frame -> !frame.getMethod().getType().getName().startsWith("java."))
+                    .findFirst()
+                    .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                    .orElse("unknown");
+            pinned.computeIfAbsent(top, key -> new AtomicLong()).incrementAndGet();
+        });
+        return recording;
+    }
+
+    private record Result(double throughput, long p99Millis, long errors) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.kadirkara.product.cache;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+@DisplayName("ProductCacheIndex on an embedded member")
+public class ProductCacheIndexTest {
+
+    private HazelcastInstance hazelcastInstance;
+    private IMap<Object, Object> products;
+    private ProductCacheIndex productCacheIndex;
+
+    @BeforeEach
+    void setUp() {
+        Config config = new Config().setClusterName("product-cache-index-" + UUID.randomUUID());
+        config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getSerializationConfig().getCompactSerializationConfig()
+                .addSerializer(new ProductSnapshotSerializer())
+                .addSerializer(new ProductPageSerializer());
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+        products = hazelcastInstance.getMap(ProductCacheIndex.PRODUCTS_CACHE);
+        productCacheIndex = new ProductCacheIndex(hazelcastInstance, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        hazelcastInstance.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should unindex every product of an evicted page, not only the one that changed")
+    void shouldUnindexEvictedPage() {
+        // Given
+        Pageable byName = PageRequest.of(0, 2, Sort.by("name"));
+        cache(byName, product(1L), product(2L));
+
+        // When
+        productCacheIndex.evictPagesOf(1L, Set.of("price"));
+
+        // Then
+        assertThat(products.containsKey(ProductCacheIndex.pageKey(byName))).isFalse();
+        assertThat(hazelcastInstance.getMultiMap(ProductCacheIndex.PAGES_BY_PRODUCT).size()).isZero();
+        assertThat(hazelcastInstance.getMultiMap(ProductCacheIndex.PAGES_BY_SORT).size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should clear both indexes when every page is evicted")
+    void shouldClearIndexesOnEvictAll() {
+        // Given
+        cache(PageRequest.of(0, 2), product(1L));
+        cache(PageRequest.of(0, 2, Sort.by("price")), product(2L));
+
+        // When
+        productCacheIndex.evictAllPages();
+
+        // Then
+        assertThat(products.size()).isZero();
+        assertThat(hazelcastInstance.getMultiMap(ProductCacheIndex.PAGES_BY_PRODUCT).size()).isZero();
+        assertThat(hazelcastInstance.getMultiMap(ProductCacheIndex.PAGES_BY_SORT).size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should unindex a page the products map expires on its own")
+    void shouldUnindexExpiredPage() {
+        // Given
+        Pageable byName = PageRequest.of(0, 2, Sort.by("name"));
+        cache(byName, product(1L));
+        products.setTtl(ProductCacheIndex.pageKey(byName), 1, TimeUnit.SECONDS);
+
+        // When & Then
+        await().atMost(Duration.ofSeconds(30)).untilAsserted(() -> {
+            assertThat(products.containsKey(ProductCacheIndex.pageKey(byName))).isFalse();
+            assertThat(hazelcastInstance.getMultiMap(ProductCacheIndex.PAGES_BY_PRODUCT).size()).isZero();
+            assertThat(hazelcastInstance.getMultiMap(ProductCacheIndex.PAGES_BY_SORT).size()).isZero();
+        });
+    }
+
+    @Test
+    @DisplayName("Should not cache a page queried before a write committed and evicted")
+    void shouldNotCachePageQueriedAcrossCommit() {
+        // Given
+        Pageable byName = PageRequest.of(0, 2, Sort.by("name"));
+        long queriedAt = productCacheIndex.generation();
+        ProductPage stale = page(byName, product(1L));
+
+        // When
+        productCacheIndex.evictPagesOf(1L, Set.of("price"));
+        productCacheIndex.cachePage(byName, stale, queriedAt);
+
+        // Then
+        assertThat(productCacheIndex.cachedPage(byName)).isNull();
+        assertThat(hazelcastInstance.getMultiMap(ProductCacheIndex.PAGES_BY_PRODUCT).size()).isZero();
+        assertThat(hazelcastInstance.getMultiMap(ProductCacheIndex.PAGES_BY_SORT).size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drop a page whose eviction started while it was being cached")
+    void shouldDropPageEvictedWhileCaching() {
+        // Given
+        Pageable byName = PageRequest.of(0, 2, Sort.by("name"));
+        long queriedAt = productCacheIndex.generation();
+        ProductPage stale = page(byName, product(1L));
+        ProductCacheIndex reader = spy(productCacheIndex);
+        // The writer commits right after the reader's first check, before the page is in the index
+        doAnswer(invocation -> {
+            productCacheIndex.evictAllPages();
+            return queriedAt;
+        }).doCallRealMethod().when(reader).generation();
+
+        // When
+        reader.cachePage(byName, stale, queriedAt);
+
+        // Then
+        assertThat(productCacheIndex.cachedPage(byName)).isNull();
+        assertThat(hazelcastInstance.getMultiMap(ProductCacheIndex.PAGES_BY_PRODUCT).size()).isZero();
+        assertThat(hazelcastInstance.getMultiMap(ProductCacheIndex.PAGES_BY_SORT).size()).isZero();
+    }
+
+    private void cache(Pageable pageable, ProductSnapshot... content) {
+        productCacheIndex.cachePage(pageable, page(pageable, content), productCacheIndex.generation());
+    }
+
+    private static ProductPage page(Pageable pageable, ProductSnapshot... content) {
+        return new ProductPage(List.of(content), pageable.getPageNumber(), pageable.getPageSize(), false,
+                ProductCacheIndex.sortedBy(pageable));
+    }
+
+    private static ProductSnapshot product(Long id) {
+        return new ProductSnapshot(id, "SKU" + id, null, "Product " + id, new BigDecimal("9.99"), 1L, 0L);
+    }
+}
@@ -0,0 +1,128 @@
+package com.kadirkara.product.cache;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.kadirkara.product.dto.ProductFilter;
+import com.kadirkara.product.repository.ProductFilterRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductFacetCounts Unit Tests")
+public class ProductFacetCountsTest {
+
+    private static HazelcastInstance hazelcastInstance;
+
+    @Mock
+    private ProductFilterRepository productFilterRepository;
+
+    private ProductFacetCounts productFacetCounts;
+
+    @BeforeAll
+    static void startHazelcast() {
+        Config config = new Config().setClusterName("product-facets-" + UUID.randomUUID());
+        config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    static void stopHazelcast() {
+        hazelcastInstance.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        productFacetCounts = new ProductFacetCounts(productFilterRepository, hazelcastInstance,
+                new BigDecimal[]{BigDecimal.ZERO, new BigDecimal("10"), new BigDecimal("50")});
+    }
+
+    @AfterEach
+    void tearDown() {
+        hazelcastInstance.getMap(ProductFacetCounts.PRODUCT_FACETS).clear();
+    }
+
+    @Test
+    @DisplayName("Should move a product between cells when its category and price change")
+    void shouldApplyDeltas() {
+        // Given
+        productFacetCounts.changes()
+                .add(1L, new BigDecimal("5.00"))
+                .add(1L, new BigDecimal("75.00"))
+                .apply();
+
+        // When
+        productFacetCounts.changes().move(1L, new BigDecimal("75.00"), 2L, new BigDecimal("10.00")).apply();
+
+        // Then
+        Map<Long, long[]> counts = productFacetCounts.snapshot();
+        assertThat(counts.get(1L)).containsExactly(1, 0, 0);
+        assertThat(counts.get(2L)).containsExactly(0, 1, 0);
+    }
+
+    @Test
+    @DisplayName("Should hold deltas back until the transaction commits")
+    void shouldApplyDeltasAfterCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            productFacetCounts.changes().add(1L, new BigDecimal("20.00")).apply();
+
+            // Then
+            assertThat(productFacetCounts.snapshot()).isEmpty();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(productFacetCounts.snapshot().get(1L)).containsExactly(0, 1, 0);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should replace drifted counts and drop emptied categories on recount")
+    void shouldRecountFromDatabase() {
+        // Given
+        productFacetCounts.changes().add(1L, new BigDecimal("5.00")).add(3L, new BigDecimal("5.00")).apply();
+        when(productFilterRepository.countByCategoryAndBucket(ProductFilter.none(), productFacetCounts.buckets()))
+                .thenReturn(Map.of(1L, new long[]{2, 0, 1}));
+
+        // When
+        productFacetCounts.recount();
+
+        // Then
+        Map<Long, long[]> counts = productFacetCounts.snapshot();
+        assertThat(counts).containsOnlyKeys(1L);
+        assertThat(counts.get(1L)).containsExactly(2, 0, 1);
+    }
+
+    @Test
+    @DisplayName("Should not recount at startup when another member already filled the counts")
+    void shouldSkipBootstrapWhenFilled() {
+        // Given
+        productFacetCounts.changes().add(1L, new BigDecimal("5.00")).apply();
+
+        // When
+        productFacetCounts.bootstrap();
+
+        // Then
+        verify(productFilterRepository, never()).countByCategoryAndBucket(any(), any());
+    }
+}
@@ -0,0 +1,119 @@
+package com.kadirkara.product.cache;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.IMap;
+import com.hazelcast.spi.impl.SerializationServiceSupport;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Compact serialization of cached products")
+public class ProductSnapshotSerializerTest {
+
+    private static HazelcastInstance hazelcastInstance;
+    private static SerializationService serializationService;
+
+    private final ProductSnapshot snapshot =
+            new ProductSnapshot(1L, "SP-001", "1234567890123", "Smartphone", new BigDecimal("699.99"), 1L, 3L);
+
+    // Compact schemas are registered with the cluster, so a member is needed to serialize
+    @BeforeAll
+    static void startMember() {
+        Config config = new Config().setClusterName("compact-" + System.nanoTime());
+        config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getSerializationConfig().getCompactSerializationConfig()
+                .addSerializer(new ProductSnapshotSerializer())
+                .addSerializer(new ProductPageSerializer())
+                .addSerializer(new CategoryStatsSerializer())
+                .addSerializer(new ProductChangeSerializer());
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+        serializationService = ((SerializationServiceSupport) hazelcastInstance).getSerializationService();
+    }
+
+    @AfterAll
+    static void stopMember() {
+        hazelcastInstance.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should carry the snapshot of a version-guarded put to the owning member")
+    void shouldRoundTripPutIfNewer() {
+        // Given
+        PutIfNewer put = serializationService.toObject(serializationService.toData(new PutIfNewer(snapshot)));
+        Map.Entry<Object, Object> stale = new AbstractMap.SimpleEntry<>(1L, new ProductSnapshot(1L, "SP-001", "1234567890123", "Smartphone", BigDecimal.ONE, 1L, 2L));
+        Map.Entry<Object, Object> newer = new AbstractMap.SimpleEntry<>(1L, new ProductSnapshot(1L, "SP-001", "1234567890123", "Smartphone", BigDecimal.ONE, 1L, 4L));
+
+        // When
+        put.process(stale);
+        put.process(newer);
+
+        // Then
+        assertThat(stale.getValue()).isEqualTo(snapshot);
+        assertThat(newer.getValue()).isNotEqualTo(snapshot);
+    }
+
+    @Test
+    @DisplayName("Should round-trip a product snapshot")
+    void shouldRoundTripSnapshot() {
+        // When
+        Data data = serializationService.toData(snapshot);
+        ProductSnapshot copy = serializationService.toObject(data);
+
+        // Then
+        assertThat(copy).isEqualTo(snapshot);
+        assertThat(data.totalSize()).isLessThan(200);
+    }
+
+    @Test
+    @DisplayName("Should round-trip a listing page")
+    void shouldRoundTripPage() {
+        // Given
+        ProductPage page = new ProductPage(List.of(snapshot, snapshot), 0, 10, false, List.of("name", "price"));
+
+        IMap<String, ProductPage> products = hazelcastInstance.getMap(ProductCacheIndex.PRODUCTS_CACHE);
+
+        // When
+        products.put("page_0_10_name: ASC,price: DESC", page);
+
+        // Then
+        assertThat(products.get("page_0_10_name: ASC,price: DESC")).isEqualTo(page);
+    }
+
+    @Test
+    @DisplayName("Should round-trip category stats, with and without prices")
+    void shouldRoundTripCategoryStats() {
+        // Given
+        CategoryStats stats = new CategoryStats(1L, "Electronics", 3L,
+                new BigDecimal("9.99"), new BigDecimal("24.33"), new BigDecimal("49.00"));
+        CategoryStats empty = new CategoryStats(2L, "Books", 0L, null, null, null);
+
+        // When / Then
+        assertThat((CategoryStats) serializationService.toObject(serializationService.toData(stats))).isEqualTo(stats);
+        assertThat((CategoryStats) serializationService.toObject(serializationService.toData(empty))).isEqualTo(empty);
+    }
+
+    @Test
+    @DisplayName("Should round-trip product changes, including deletes without a product")
+    void shouldRoundTripProductChanges() {
+        // Given
+        ProductChange updated = new ProductChange(7L, ProductChange.Type.UPDATED, 1L, snapshot);
+        ProductChange deleted = new ProductChange(8L, ProductChange.Type.DELETED, 1L, null);
+
+        // When / Then
+        assertThat((ProductChange) serializationService.toObject(serializationService.toData(updated))).isEqualTo(updated);
+        assertThat((ProductChange) serializationService.toObject(serializationService.toData(deleted))).isEqualTo(deleted);
+    }
+}
@@ -0,0 +1,129 @@
+package com.kadirkara.product.config;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.kadirkara.product.cache.ProductCacheIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@DisplayName("Products near cache on a two-member embedded cluster")
+public class ProductNearCacheTest {
+
+    private final List<HazelcastInstance> members = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        members.forEach(HazelcastInstance::shutdown);
+    }
+
+    @Test
+    @DisplayName("Should serve the new value on the other member after an update")
+    void shouldInvalidateNearCacheOnUpdate() {
+        // Given
+        List<HazelcastInstance> cluster = startCluster(true);
+        IMap<Long, String> writer = cluster.get(0).getMap(ProductCacheIndex.PRODUCTS_CACHE);
+        IMap<Long, String> reader = cluster.get(1).getMap(ProductCacheIndex.PRODUCTS_CACHE);
+        long id = keyOwnedBy(cluster.get(0));
+        writer.put(id, "v1");
+        assertThat(reader.get(id)).isEqualTo("v1");
+        assertThat(reader.get(id)).isEqualTo("v1");
+
+        // When
+        writer.put(id, "v2");
+
+        // Then
+        await().atMost(Duration.ofSeconds(15)).until(() -> "v2".equals(reader.get(id)));
+        assertThat(reader.getLocalMapStats().getNearCacheStats().getHits()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should serve nothing on the other member after an eviction")
+    void shouldInvalidateNearCacheOnEvict() {
+        // Given
+        List<HazelcastInstance> cluster = startCluster(true);
+        IMap<Long, String> writer = cluster.get(0).getMap(ProductCacheIndex.PRODUCTS_CACHE);
+        IMap<Long, String> reader = cluster.get(1).getMap(ProductCacheIndex.PRODUCTS_CACHE);
+        long id = keyOwnedBy(cluster.get(0));
+        writer.put(id, "v1");
+        assertThat(reader.get(id)).isEqualTo("v1");
+
+        // When
+        writer.delete(id);
+
+        // Then
+        await().atMost(Duration.ofSeconds(15)).until(() -> reader.get(id) == null);
+    }
+
+    // mvn test -Dtest=ProductNearCacheTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: p99 get latency with and without the near cache")
+    void benchmarkNearCache() {
+        long withoutNearCache = p99GetNanos(startCluster(false));
+        long withNearCache = p99GetNanos(startCluster(true));
+
+        System.out.printf("products get p99: near cache off %d us, on %d us%n",
+                withoutNearCache / 1_000, withNearCache / 1_000);
+        assertThat(withNearCache).isLessThan(withoutNearCache);
+    }
+
+    private long p99GetNanos(List<HazelcastInstance> cluster) {
+        IMap<Long, String> writer = cluster.get(0).getMap(ProductCacheIndex.PRODUCTS_CACHE);
+        IMap<Long, String> reader = cluster.get(1).getMap(ProductCacheIndex.PRODUCTS_CACHE);
+        int keys = 1_000;
+        for (long id = 0; id < keys; id++) {
+            writer.put(id, "product-" + id);
+        }
+        for (long id = 0; id < keys; id++) {
+            reader.get(id);
+        }
+        long[] samples = new long[50_000];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            reader.get((long) (i % keys));
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[(int) (samples.length * 0.99)];
+    }
+
+    // Near caches only hold entries owned by another member
+    private long keyOwnedBy(HazelcastInstance member) {
+        long id = 1L;
+        while (!member.getPartitionService().getPartition(id).getOwner().localMember()) {
+            id++;
+        }
+        return id;
+    }
+
+    private List<HazelcastInstance> startCluster(boolean nearCache) {
+        String clusterName = "near-cache-" + UUID.randomUUID();
+        List<HazelcastInstance> cluster = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Config config = new Config().setClusterName(clusterName);
+            config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+            config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+            config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+            if (nearCache) {
+                config.getMapConfig(ProductCacheIndex.PRODUCTS_CACHE)
+                        .setNearCacheConfig(CacheConfig.productsNearCacheConfig(1_000));
+            }
+            cluster.add(Hazelcast.newHazelcastInstance(config));
+        }
+        members.addAll(cluster);
+        return cluster;
+    }
+}
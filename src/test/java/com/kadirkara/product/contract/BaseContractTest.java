@@ -1,21 +1,16 @@
 package com.kadirkara.product.contract;
 
-import com.kadirkara.product.controller.ProductController;
+import com.kadirkara.product.cache.ProductPage;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.controller.ProductControllerTestSupport;
 import com.kadirkara.product.dto.ProductResponse;
 import com.kadirkara.product.entity.Category;
 import com.kadirkara.product.entity.Product;
-import com.kadirkara.product.exception.GlobalExceptionHandler;
-import com.kadirkara.product.mapper.ProductMapper;
-import com.kadirkara.product.service.ProductService;
 import io.restassured.module.mockmvc.RestAssuredMockMvc;
 import org.junit.jupiter.api.BeforeEach;
-import org.mockito.Mock;
-import org.mockito.MockitoAnnotations;
-import org.springframework.data.domain.PageImpl;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
-import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -23,28 +18,12 @@ import java.util.List;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 
-public abstract class BaseContractTest {
-
-    @Mock
-    ProductService productService;
-
-    @Mock
-    ProductMapper productMapper;
+// Stubs cover every contract, so a given contract leaves most of them unused
+@MockitoSettings(strictness = Strictness.LENIENT)
+public abstract class BaseContractTest extends ProductControllerTestSupport {
 
     @BeforeEach
     public void setup() {
-        MockitoAnnotations.openMocks(this);
-
-        // Create controller with mocked dependencies
-        ProductController productController = new ProductController(productService, productMapper);
-
-        // Setup standalone MockMvc with exception handler and custom argument resolvers
-        MockMvc mockMvc = MockMvcBuilders
-                .standaloneSetup(productController)
-                .setControllerAdvice(new GlobalExceptionHandler())
-                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
-                .build();
-
         RestAssuredMockMvc.mockMvc(mockMvc);
         setupMockData();
     }
@@ -63,6 +42,7 @@ public abstract class BaseContractTest {
         product.setDescription("Test Description");
         product.setPrice(BigDecimal.valueOf(99.99));
         product.setCategory(category);
+        ProductSnapshot snapshot = ProductSnapshot.from(product);
 
         // Create ProductResponse with correct structure (only 3 fields)
         ProductResponse productResponse = new ProductResponse(
@@ -72,22 +52,22 @@ public abstract class BaseContractTest {
         );
 
         // Mock service behavior for GET /api/products/1
-        given(productService.findById(1L)).willReturn(product);
-        given(productMapper.toResponse(product)).willReturn(productResponse);
+        given(productService.findById(1L)).willReturn(snapshot);
+        given(productMapper.toResponse(snapshot)).willReturn(productResponse);
 
         // Mock service behavior for GET /api/products/999 (throw NoSuchElementException for proper 404 handling)
         given(productService.findById(999L)).willThrow(new java.util.NoSuchElementException("Product not found"));
 
         // Mock for create product (POST /api/products)
-        given(productService.save(any(Product.class))).willReturn(product);
+        given(productService.save(any(Product.class))).willReturn(snapshot);
         given(productMapper.toEntity(any())).willReturn(product);
-        given(productMapper.toResponse(any(Product.class))).willReturn(productResponse);
+        given(productMapper.toResponse(any(ProductSnapshot.class))).willReturn(productResponse);
 
         // Mock for list products (GET /api/products) - simplified without Pageable
-        given(productService.findAll(any(Pageable.class))).willReturn(new PageImpl<>(List.of(product)));
+        given(productService.findAll(any(Pageable.class))).willReturn(new ProductPage(List.of(snapshot), 0, 1, false));
 
         // Mock for update product (PUT /api/products/1)
-        given(productService.update(any(Product.class))).willReturn(product);
+        given(productService.update(any(Product.class))).willReturn(snapshot);
 
         // Mock for delete product (DELETE /api/products/1) - no return value needed
     }
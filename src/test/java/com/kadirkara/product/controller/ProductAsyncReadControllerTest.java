@@ -0,0 +1,98 @@
+package com.kadirkara.product.controller;
+
+import com.kadirkara.product.cache.ProductPage;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.dto.ProductResponse;
+import com.kadirkara.product.mapper.ProductMapper;
+import com.kadirkara.product.service.ProductAsyncReader;
+import com.kadirkara.product.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductAsyncReadController Tests")
+public class ProductAsyncReadControllerTest {
+
+    @Mock
+    private ProductAsyncReader productAsyncReader;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductAsyncReadController(productAsyncReader, productService, productMapper))
+                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should build absolute links when the product arrives on another thread")
+    void shouldLinkAbsolutelyWhenCompletedElsewhere() throws Exception {
+        // Given
+        ProductSnapshot snapshot = snapshot();
+        CompletableFuture<ProductSnapshot> lookup = new CompletableFuture<>();
+        when(productAsyncReader.findById(1L)).thenReturn(lookup);
+        when(productMapper.toResponse(snapshot)).thenReturn(new ProductResponse(1L, "Test Product", 99.99));
+        MvcResult started = mockMvc.perform(get("/api/async/products/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When
+        CompletableFuture.runAsync(() -> lookup.complete(snapshot)).join();
+
+        // Then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.links[0].href").value("http://localhost/api/products/1"))
+                .andExpect(jsonPath("$.links[1].href").value("http://localhost/api/products"));
+    }
+
+    @Test
+    @DisplayName("Should build the same absolute links for a page that was already cached")
+    void shouldLinkAbsolutelyWhenAlreadyComplete() throws Exception {
+        // Given
+        ProductSnapshot snapshot = snapshot();
+        when(productAsyncReader.findAll(any(Pageable.class)))
+                .thenReturn(CompletableFuture.completedFuture(new ProductPage(List.of(snapshot), 0, 10, false)));
+        when(productMapper.toResponse(snapshot)).thenReturn(new ProductResponse(1L, "Test Product", 99.99));
+        MvcResult started = mockMvc.perform(get("/api/async/products"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When / Then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].links[0].href").value("http://localhost/api/products/1"));
+    }
+
+    private static ProductSnapshot snapshot() {
+        return new ProductSnapshot(1L, "SKU001", "123456789", "Test Product", new BigDecimal("99.99"), 1L, 0L);
+    }
+}
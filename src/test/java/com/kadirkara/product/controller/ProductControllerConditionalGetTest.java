@@ -0,0 +1,126 @@
+package com.kadirkara.product.controller;
+
+import com.kadirkara.product.cache.ProductPage;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.dto.ProductResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisplayName("ProductController conditional GET Tests")
+public class ProductControllerConditionalGetTest extends ProductControllerTestSupport {
+
+    @Test
+    @DisplayName("Should return a version ETag and Cache-Control with the product")
+    void shouldReturnETagWithProduct() throws Exception {
+        // Given
+        ProductSnapshot snapshot = snapshot(1L, 3L);
+        when(productService.findById(1L)).thenReturn(snapshot);
+        when(productMapper.toResponse(snapshot)).thenReturn(new ProductResponse(1L, "Test Product", 99.99));
+
+        // When / Then
+        mockMvc.perform(get("/api/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, must-revalidate, private"));
+    }
+
+    @Test
+    @DisplayName("Should answer 304 without building the body when the ETag matches")
+    void shouldReturnNotModifiedForMatchingETag() throws Exception {
+        // Given
+        when(productService.findById(1L)).thenReturn(snapshot(1L, 3L));
+
+        // When / Then
+        mockMvc.perform(get("/api/products/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(content().string(""));
+        verifyNoInteractions(productMapper);
+    }
+
+    @Test
+    @DisplayName("Should answer a barcode lookup with the same ETag as the product")
+    void shouldReturnETagForBarcodeLookup() throws Exception {
+        // Given
+        when(productLookupService.findByBarcode("BC-1")).thenReturn(snapshot(1L, 3L));
+
+        // When / Then
+        mockMvc.perform(get("/api/products/by-barcode/BC-1").header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""));
+    }
+
+    @Test
+    @DisplayName("Should return the product again once its version has moved on")
+    void shouldReturnProductForStaleETag() throws Exception {
+        // Given
+        ProductSnapshot snapshot = snapshot(1L, 4L);
+        when(productService.findById(1L)).thenReturn(snapshot);
+        when(productMapper.toResponse(snapshot)).thenReturn(new ProductResponse(1L, "Test Product", 99.99));
+
+        // When / Then
+        mockMvc.perform(get("/api/products/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-4\""));
+    }
+
+    @Test
+    @DisplayName("Should change the page ETag when a product on it changes")
+    void shouldChangePageETagWithProductVersion() throws Exception {
+        // Given
+        when(productService.approximateCount()).thenReturn(2L);
+        when(productMapper.toResponse(any(ProductSnapshot.class)))
+                .thenAnswer(invocation -> response(invocation.getArgument(0)));
+        when(productService.findAll(any(Pageable.class)))
+                .thenReturn(new ProductPage(List.of(snapshot(1L, 0L), snapshot(2L, 0L)), 0, 10, false))
+                .thenReturn(new ProductPage(List.of(snapshot(1L, 0L), snapshot(2L, 1L)), 0, 10, false));
+        MvcResult first = mockMvc.perform(get("/api/products")).andExpect(status().isOk()).andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When
+        MvcResult second = mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn();
+
+        // Then
+        assertThat(second.getResponse().getStatus()).isEqualTo(200);
+        assertThat(second.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+    }
+
+    @Test
+    @DisplayName("Should answer 304 for an unchanged page")
+    void shouldReturnNotModifiedForUnchangedPage() throws Exception {
+        // Given
+        when(productService.approximateCount()).thenReturn(2L);
+        when(productMapper.toResponse(any(ProductSnapshot.class)))
+                .thenAnswer(invocation -> response(invocation.getArgument(0)));
+        when(productService.findAll(any(Pageable.class)))
+                .thenReturn(new ProductPage(List.of(snapshot(1L, 0L), snapshot(2L, 0L)), 0, 10, false));
+        String etag = mockMvc.perform(get("/api/products")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When / Then
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    private ProductResponse response(ProductSnapshot snapshot) {
+        return new ProductResponse(snapshot.id(), snapshot.name(), snapshot.price().doubleValue());
+    }
+
+    private ProductSnapshot snapshot(long id, long version) {
+        return new ProductSnapshot(id, "SKU-" + id, "BC-" + id, "Product " + id, new BigDecimal("99.99"), 1L, version);
+    }
+}
@@ -0,0 +1,61 @@
+package com.kadirkara.product.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisplayName("ProductController export Tests")
+public class ProductControllerExportTest extends ProductControllerTestSupport {
+
+    @Test
+    @DisplayName("Should gzip the export for a client that accepts gzip, and vary on Accept-Encoding")
+    void shouldGzipWhenAccepted() throws Exception {
+        // Given
+        MvcResult started = mockMvc.perform(get("/api/products/export").header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When / Then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Test
+    @DisplayName("Should send the export uncompressed when gzip is refused with q=0")
+    void shouldNotGzipWhenRefused() throws Exception {
+        // Given
+        MvcResult started = mockMvc.perform(get("/api/products/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When / Then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Test
+    @DisplayName("Should read gzip preferences from q-values and the wildcard")
+    void shouldParseAcceptEncoding() {
+        // When & Then
+        assertThat(ProductController.acceptsGzip("gzip")).isTrue();
+        assertThat(ProductController.acceptsGzip("br, GZIP; q=0.8")).isTrue();
+        assertThat(ProductController.acceptsGzip("*")).isTrue();
+        assertThat(ProductController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(ProductController.acceptsGzip("gzip;q=0.0, *;q=1")).isFalse();
+        assertThat(ProductController.acceptsGzip("*;q=0")).isFalse();
+        assertThat(ProductController.acceptsGzip("deflate")).isFalse();
+        assertThat(ProductController.acceptsGzip(null)).isFalse();
+    }
+}
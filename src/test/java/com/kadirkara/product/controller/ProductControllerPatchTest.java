@@ -0,0 +1,138 @@
+package com.kadirkara.product.controller;
+
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.dto.ProductMergePatch;
+import com.kadirkara.product.dto.ProductResponse;
+import com.kadirkara.product.exception.PreconditionFailedException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisplayName("ProductController merge patch Tests")
+public class ProductControllerPatchTest extends ProductControllerTestSupport {
+
+    private static final String MERGE_PATCH = "application/merge-patch+json";
+
+    @Test
+    @DisplayName("Should patch at the If-Match version and return the new ETag")
+    void shouldPatchAndReturnNewETag() throws Exception {
+        // Given
+        ProductSnapshot patched = new ProductSnapshot(1L, "SKU001", "123456789", "Test Product",
+                new BigDecimal("79.99"), 1L, 4L);
+        when(productService.patch(eq(1L), eq(3L), any(ProductMergePatch.class))).thenReturn(patched);
+        when(productMapper.toResponse(patched)).thenReturn(new ProductResponse(1L, "Test Product", 79.99));
+
+        // When / Then
+        mockMvc.perform(patch("/api/products/1").contentType(MERGE_PATCH).content("{\"price\": 79.99}")
+                        .header(HttpHeaders.IF_MATCH, "\"1-3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-4\""))
+                .andExpect(jsonPath("$.price").value(79.99));
+    }
+
+    @Test
+    @DisplayName("Should answer 412 when the product moved past the If-Match version")
+    void shouldRejectStaleIfMatch() throws Exception {
+        // Given
+        when(productService.patch(eq(1L), eq(3L), any(ProductMergePatch.class)))
+                .thenThrow(new PreconditionFailedException("Product 1 is at version 4, not 3"));
+
+        // When / Then
+        mockMvc.perform(patch("/api/products/1").contentType(MERGE_PATCH).content("{\"price\": 79.99}")
+                        .header(HttpHeaders.IF_MATCH, "\"1-3\""))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @DisplayName("Should answer 412 for an If-Match that belongs to another product")
+    void shouldRejectForeignIfMatch() throws Exception {
+        // When / Then
+        mockMvc.perform(patch("/api/products/1").contentType(MERGE_PATCH).content("{\"price\": 79.99}")
+                        .header(HttpHeaders.IF_MATCH, "\"2-3\""))
+                .andExpect(status().isPreconditionFailed());
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    @DisplayName("Should answer 409 when another writer commits first")
+    void shouldReportConcurrentModification() throws Exception {
+        // Given
+        when(productService.patch(eq(1L), isNull(), any(ProductMergePatch.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException("Product", 1L));
+
+        // When / Then
+        mockMvc.perform(patch("/api/products/1").contentType(MERGE_PATCH).content("{\"name\": \"Renamed\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("Should reject a patch of a field that cannot be patched")
+    void shouldRejectUnknownField() throws Exception {
+        // When / Then
+        mockMvc.perform(patch("/api/products/1").contentType(MERGE_PATCH).content("{\"id\": 2}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Field cannot be patched: id"));
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    @DisplayName("Should reject a patch that clears the sku, which the table requires")
+    void shouldRejectNullSku() throws Exception {
+        // When / Then
+        mockMvc.perform(patch("/api/products/1").contentType(MERGE_PATCH).content("{\"sku\": null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("sku must be a non-blank string"));
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    @DisplayName("Should reject prices that do not fit DECIMAL(10, 2)")
+    void shouldRejectUnstorablePrice() throws Exception {
+        // When / Then
+        mockMvc.perform(patch("/api/products/1").contentType(MERGE_PATCH).content("{\"price\": 9.999}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Price must have at most 2 decimal places"));
+        mockMvc.perform(patch("/api/products/1").contentType(MERGE_PATCH).content("{\"price\": 100000000}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Price must be below 100000000"));
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    @DisplayName("Should answer 409 when the patched sku or barcode belongs to another product")
+    void shouldReportDuplicateKey() throws Exception {
+        // Given
+        when(productService.patch(eq(1L), isNull(), any(ProductMergePatch.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint \"ux_products_sku\""));
+
+        // When / Then
+        mockMvc.perform(patch("/api/products/1").contentType(MERGE_PATCH).content("{\"sku\": \"SKU002\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("A product with this sku already exists"));
+    }
+
+    @Test
+    @DisplayName("Should answer 409 without blaming a product for a constraint it does not know")
+    void shouldReportUnknownConstraintGenerically() throws Exception {
+        // Given
+        when(productService.patch(eq(1L), isNull(), any(ProductMergePatch.class)))
+                .thenThrow(new DataIntegrityViolationException("insert or update violates foreign key constraint \"fk_other\""));
+
+        // When / Then
+        mockMvc.perform(patch("/api/products/1").contentType(MERGE_PATCH).content("{\"sku\": \"SKU002\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Conflicts with existing data"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.kadirkara.product.controller;
+
+import com.kadirkara.product.exception.GlobalExceptionHandler;
+import com.kadirkara.product.mapper.ProductMapper;
+import com.kadirkara.product.service.PriceUpdateService;
+import com.kadirkara.product.service.ProductExportService;
+import com.kadirkara.product.service.ProductFilterService;
+import com.kadirkara.product.service.ProductImportService;
+import com.kadirkara.product.service.ProductLookupService;
+import com.kadirkara.product.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+
+/**
+ * Standalone MockMvc over a {@link ProductController} whose collaborators are all mocks.
+ * A new controller dependency is added here once instead of in every controller test.
+ */
+@ExtendWith(MockitoExtension.class)
+public abstract class ProductControllerTestSupport {
+
+    @Mock
+    protected ProductService productService;
+
+    @Mock
+    protected ProductMapper productMapper;
+
+    @Mock
+    protected ProductImportService productImportService;
+
+    @Mock
+    protected ProductExportService productExportService;
+
+    @Mock
+    protected PriceUpdateService priceUpdateService;
+
+    @Mock
+    protected ProductLookupService productLookupService;
+
+    @Mock
+    protected ProductFilterService productFilterService;
+
+    protected MockMvc mockMvc;
+
+    @BeforeEach
+    void setUpProductController() {
+        ProductController productController = new ProductController(productService, productMapper,
+                productImportService, productExportService, priceUpdateService, productLookupService, productFilterService,
+                Duration.ofSeconds(60), false);
+        mockMvc = MockMvcBuilders.standaloneSetup(productController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+                .build();
+    }
+}
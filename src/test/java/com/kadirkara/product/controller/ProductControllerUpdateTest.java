@@ -0,0 +1,51 @@
+package com.kadirkara.product.controller;
+
+import com.kadirkara.product.entity.Product;
+import com.kadirkara.product.exception.PreconditionFailedException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.util.NoSuchElementException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisplayName("ProductController update Tests")
+public class ProductControllerUpdateTest extends ProductControllerTestSupport {
+
+    private static final String PRODUCT = """
+            {"name": "Phone", "price": 699.99, "sku": "SP-001", "category": {"name": "Electronics"}}""";
+
+    @Test
+    @DisplayName("Should answer 404 for a PUT to a product that does not exist")
+    void shouldAnswerNotFoundForMissingProduct() throws Exception {
+        // Given
+        when(productService.update(any(), isNull())).thenThrow(new NoSuchElementException("Product not found"));
+
+        // When / Then
+        mockMvc.perform(put("/api/products/42").contentType(MediaType.APPLICATION_JSON).content(PRODUCT))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Product not found"));
+    }
+
+    @Test
+    @DisplayName("Should answer 412 for a PUT with If-Match to a product that does not exist")
+    void shouldAnswerPreconditionFailedForMissingProductWithIfMatch() throws Exception {
+        // Given
+        when(productService.update(any(), eq(3L))).thenThrow(new PreconditionFailedException("Product 42 does not exist"));
+
+        // When / Then
+        mockMvc.perform(put("/api/products/42").contentType(MediaType.APPLICATION_JSON).content(PRODUCT)
+                        .header(HttpHeaders.IF_MATCH, "\"42-3\""))
+                .andExpect(status().isPreconditionFailed());
+        verify(productMapper).toEntity(argThat(request -> request.id() == 42L));
+        verify(productService, never()).save(any(Product.class));
+    }
+}
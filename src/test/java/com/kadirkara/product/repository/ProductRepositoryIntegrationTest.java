@@ -1,28 +1,66 @@
 package com.kadirkara.product.repository;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.core.HazelcastInstance;
+import com.kadirkara.product.cache.CategoryStats;
+import com.kadirkara.product.cache.PriceBuckets;
+import com.kadirkara.product.cache.ProductChange;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.dto.ProductCursor;
+import com.kadirkara.product.dto.ProductFilter;
 import com.kadirkara.product.entity.Category;
 import com.kadirkara.product.entity.Product;
+import com.kadirkara.product.search.DatabaseProductSearch;
+import com.kadirkara.product.search.ProductSearchIndex;
+import com.kadirkara.product.service.ProductExportService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
 
 @DataJpaTest
 @Testcontainers
@@ -44,6 +82,8 @@ public class ProductRepositoryIntegrationTest {
         registry.add("spring.datasource.password", postgres::getPassword);
         registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
         registry.add("spring.flyway.enabled", () -> "false");
+        registry.add("spring.jpa.properties.hibernate.session_factory.statement_inspector",
+                SqlStatementCounter.class::getName);
     }
 
     @Autowired
@@ -55,6 +95,12 @@ public class ProductRepositoryIntegrationTest {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private Category testCategory;
 
     @BeforeEach
@@ -105,6 +151,566 @@ public class ProductRepositoryIntegrationTest {
         assertThat(productPage.getContent().get(0).getName()).isEqualTo("Product 1");
     }
 
+    @Test
+    @DisplayName("Should find a slice of products and tell whether more follow")
+    void shouldFindSliceOfProducts() {
+        // Given
+        for (int i = 1; i <= 5; i++) {
+            Product product = createTestProduct("Product " + i, "SKU00" + i, "12345678" + i);
+            entityManager.persistAndFlush(product);
+        }
+
+        // When
+        Slice<ProductSnapshot> first = productRepository.findSnapshotsBy(PageRequest.of(0, 3, Sort.by("name")));
+        Slice<ProductSnapshot> last = productRepository.findSnapshotsBy(first.nextPageable());
+
+        // Then
+        assertThat(first.getContent()).extracting(ProductSnapshot::name)
+                .containsExactly("Product 1", "Product 2", "Product 3");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last.getContent()).extracting(ProductSnapshot::name).containsExactly("Product 4", "Product 5");
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should list product snapshots with their category ids in one statement")
+    void shouldListSnapshotsInOneStatement() {
+        // Given
+        persistProductsInOwnCategories(5);
+        SqlStatementCounter.reset();
+
+        // When
+        Slice<ProductSnapshot> slice = productRepository.findSnapshotsBy(PageRequest.of(0, 5, Sort.by("name")));
+
+        // Then
+        assertThat(slice.getContent()).extracting(ProductSnapshot::categoryId).doesNotContainNull().doesNotHaveDuplicates();
+        SqlStatementCounter.assertAtMost(1);
+    }
+
+    @Test
+    @DisplayName("Should update only the changed column and bump the version")
+    void shouldUpdateOnlyChangedColumn() {
+        // Given
+        Product product = entityManager.persistAndFlush(createTestProduct("Test Product", "SKU001", "123456789"));
+        entityManager.clear();
+        Product loaded = productRepository.findById(product.getId()).orElseThrow();
+        SqlStatementCounter.reset();
+
+        // When
+        loaded.setPrice(new BigDecimal("79.99"));
+        productRepository.flush();
+
+        // Then
+        assertThat(SqlStatementCounter.statements()).singleElement().satisfies(sql -> assertThat(sql)
+                .startsWith("update products set")
+                .contains("price=", "version=")
+                .doesNotContain("name=", "description="));
+        assertThat(loaded.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should write many prices in one statement and return the changed rows")
+    void shouldWritePricesInOneStatement() {
+        // Given
+        Product first = entityManager.persistAndFlush(createTestProduct("First", "SKU001", "111"));
+        Product second = entityManager.persistAndFlush(createTestProduct("Second", "SKU002", "222"));
+        entityManager.clear();
+        ProductPriceWriter writer = new ProductPriceWriter(jdbcTemplate);
+
+        // When
+        List<ProductPriceWriter.PriceChange> byId = writer.updateById(Map.of(first.getId(), new BigDecimal("11.50"), -1L, BigDecimal.ONE));
+        List<ProductPriceWriter.PriceChange> bySku = writer.updateBySku(Map.of("SKU002", new BigDecimal("22.50")));
+
+        // Then
+        assertThat(byId).singleElement().satisfies(change -> {
+            assertThat(change.product().price()).isEqualByComparingTo("11.50");
+            assertThat(change.product().version()).isEqualTo(1L);
+            assertThat(change.previousPrice()).isEqualByComparingTo(first.getPrice());
+        });
+        assertThat(bySku).extracting(change -> change.product().id()).containsExactly(second.getId());
+        assertThat(productRepository.findById(second.getId()).orElseThrow().getPrice()).isEqualByComparingTo("22.50");
+    }
+
+    @Test
+    @DisplayName("Should resolve the skus of a price batch to product ids")
+    void shouldResolveSkusOfPriceBatch() {
+        // Given
+        Product product = entityManager.persistAndFlush(createTestProduct("First", "SKU001", "111"));
+        ProductPriceWriter writer = new ProductPriceWriter(jdbcTemplate);
+
+        // When
+        Map<String, Long> ids = writer.idsBySku(List.of("SKU001", "MISSING"));
+
+        // Then
+        assertThat(ids).containsExactly(Map.entry("SKU001", product.getId()));
+    }
+
+    @Test
+    @DisplayName("Should resolve SKU and barcode to the product id")
+    void shouldFindIdBySkuAndBarcode() {
+        // Given
+        Product product = entityManager.persistAndFlush(createTestProduct("Test Product", "SKU001", "123456789"));
+
+        // When / Then
+        assertThat(productRepository.findIdBySku("SKU001")).contains(product.getId());
+        assertThat(productRepository.findIdByBarcode("123456789")).contains(product.getId());
+        assertThat(productRepository.findIdByBarcode("000000000")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should resolve category names in one query and tell used categories apart")
+    void shouldResolveCategoryNames() {
+        // Given
+        entityManager.persistAndFlush(createTestProduct("Test Product", "SKU001", "123456789"));
+
+        // When
+        List<Category> found = categoryRepository.findByNameIn(List.of("Electronics", "Garden"));
+
+        // Then
+        assertThat(found).extracting(Category::getId).containsExactly(testCategory.getId());
+        assertThat(productRepository.existsByCategoryId(testCategory.getId())).isTrue();
+        assertThat(productRepository.existsByCategoryId(-1L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should search by word, prefix and typo in the database search mode")
+    void shouldSearchWithTsvectorAndTrigrams() throws IOException {
+        // Given
+        applyMigration("V9__add_products_search_indexes.sql");
+        Product headphones = createTestProduct("Wireless Headphones", "SKU001", "111");
+        headphones.setDescription("Noise cancelling");
+        Product stand = createTestProduct("Headphone Stand", "SKU002", "222");
+        stand.setDescription("Holds wireless headsets");
+        entityManager.persistAndFlush(headphones);
+        entityManager.persistAndFlush(stand);
+        entityManager.persistAndFlush(createTestProduct("Novel Book", "SKU003", "333"));
+        DatabaseProductSearch search = new DatabaseProductSearch(productRepository);
+
+        // When / Then
+        assertThat(search.search("wireless", 10)).containsExactly(headphones.getId(), stand.getId());
+        assertThat(search.search("wire head", 10)).containsExactly(headphones.getId(), stand.getId());
+        assertThat(search.search("headphnes", 10)).contains(headphones.getId()).hasSizeLessThan(3);
+    }
+
+    @Test
+    @DisplayName("Should filter by category, price range and name prefix and count per bucket")
+    void shouldFilterAndCountFacets() {
+        // Given
+        Category books = new Category();
+        books.setName("Books");
+        books.setCreatedAt(java.time.LocalDateTime.now());
+        books.setUpdatedAt(java.time.LocalDateTime.now());
+        entityManager.persist(books);
+        Product phone = createTestProduct("Phone 100%", "SKU001", "111");
+        phone.setPrice(new BigDecimal("10.00"));
+        Product charger = createTestProduct("Phone charger", "SKU002", "222");
+        charger.setPrice(new BigDecimal("49.99"));
+        Product headset = createTestProduct("Headset", "SKU003", "333");
+        headset.setPrice(new BigDecimal("50.00"));
+        Product novel = createTestProduct("phonetics primer", "SKU004", "444");
+        novel.setPrice(new BigDecimal("9.99"));
+        novel.setCategory(books);
+        List.of(phone, charger, headset, novel).forEach(entityManager::persist);
+        entityManager.flush();
+        ProductFilterRepository repository = new ProductFilterRepository(jdbcTemplate);
+        PriceBuckets buckets = new PriceBuckets(BigDecimal.ZERO, new BigDecimal("10"), new BigDecimal("50"));
+
+        // When
+        List<ProductSnapshot> inRange = repository.find(new ProductFilter(List.of(testCategory.getId()),
+                new BigDecimal("10"), new BigDecimal("50"), null), PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "price")));
+        List<ProductSnapshot> byPrefix = repository.find(new ProductFilter(null, null, null, "PHONE"), PageRequest.of(0, 10));
+        List<ProductSnapshot> escaped = repository.find(new ProductFilter(null, null, null, "phone 100%"), PageRequest.of(0, 10));
+        Map<Long, long[]> counts = repository.countByCategoryAndBucket(ProductFilter.none(), buckets);
+
+        // Then
+        assertThat(inRange).extracting(ProductSnapshot::id).containsExactly(charger.getId(), phone.getId());
+        assertThat(byPrefix).extracting(ProductSnapshot::id).containsExactly(novel.getId(), phone.getId(), charger.getId());
+        assertThat(escaped).extracting(ProductSnapshot::id).containsExactly(phone.getId());
+        assertThat(counts.get(testCategory.getId())).containsExactly(0, 2, 1);
+        assertThat(counts.get(books.getId())).containsExactly(1, 0, 0);
+    }
+
+    @Test
+    @DisplayName("Should claim the outbox once, in id order, and replay it by offset")
+    void shouldRelayOutboxByOffset() throws IOException {
+        // Given
+        applyMigration("V13__create_product_outbox.sql");
+        ProductOutbox outbox = new ProductOutbox(jdbcTemplate, new ObjectMapper(), true);
+        ProductSnapshot phone = new ProductSnapshot(1L, "SKU001", "111", "Phone", new BigDecimal("9.99"), testCategory.getId(), 0L);
+        outbox.append(ProductChange.Type.CREATED, phone);
+        outbox.appendDeleted(2L);
+
+        // When
+        boolean locked = outbox.tryLockRelay();
+        List<ProductChange> claimed = outbox.claim(10);
+        List<ProductChange> again = outbox.claim(10);
+        List<ProductChange> replayed = outbox.since(claimed.get(0).offset() - 1, 10);
+
+        // Then
+        assertThat(locked).isTrue();
+        assertThat(claimed).extracting(ProductChange::type).containsExactly(ProductChange.Type.CREATED, ProductChange.Type.DELETED);
+        assertThat(claimed.get(1).offset()).isGreaterThan(claimed.get(0).offset());
+        assertThat(again).isEmpty();
+        assertThat(replayed).isEqualTo(claimed);
+        assertThat(replayed.get(0).product()).isEqualTo(phone);
+    }
+
+    @Test
+    @DisplayName("Should queue only audited changes and keep them until they are audited")
+    void shouldQueueAuditedChanges() throws IOException {
+        // Given
+        applyMigration("V13__create_product_outbox.sql");
+        applyMigration("V14__add_product_outbox_audit.sql");
+        ProductOutbox outbox = new ProductOutbox(jdbcTemplate, new ObjectMapper(), true);
+        ProductSnapshot phone = new ProductSnapshot(1L, "SKU001", "111", "Phone", new BigDecimal("9.99"), testCategory.getId(), 0L);
+        ProductSnapshot novel = new ProductSnapshot(2L, "SKU002", "222", "Novel", new BigDecimal("19.99"), testCategory.getId(), 0L);
+        outbox.appendAll(ProductChange.Type.CREATED, List.of(novel), false);
+        outbox.append(ProductChange.Type.CREATED, phone);
+        outbox.claim(10);
+
+        // When
+        boolean locked = outbox.tryLockAudit();
+        List<ProductOutbox.AuditEntry> queued = outbox.claimAudit(10);
+        int purgedBeforeAudit = outbox.purgePublishedBefore(LocalDateTime.now().plusDays(1));
+        outbox.markAudited(queued.stream().map(ProductOutbox.AuditEntry::id).toList());
+        int purgedAfterAudit = outbox.purgePublishedBefore(LocalDateTime.now().plusDays(1));
+
+        // Then
+        assertThat(locked).isTrue();
+        assertThat(queued).singleElement().satisfies(entry -> {
+            assertThat(entry.product()).isEqualTo(phone);
+            assertThat(entry.author()).isEqualTo("system");
+        });
+        assertThat(purgedBeforeAudit).isEqualTo(1);
+        assertThat(purgedAfterAudit).isEqualTo(1);
+        assertThat(outbox.claimAudit(10)).isEmpty();
+        assertThat(outbox.oldestUnaudited()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should queue nothing for audit and purge every published change while auditing is off")
+    void shouldPurgeUnauditedChangesWhenAuditingIsOff() throws IOException {
+        // Given
+        applyMigration("V13__create_product_outbox.sql");
+        applyMigration("V14__add_product_outbox_audit.sql");
+        ProductSnapshot phone = new ProductSnapshot(1L, "SKU001", "111", "Phone", new BigDecimal("9.99"), testCategory.getId(), 0L);
+        ProductSnapshot novel = new ProductSnapshot(2L, "SKU002", "222", "Novel", new BigDecimal("19.99"), testCategory.getId(), 0L);
+        new ProductOutbox(jdbcTemplate, new ObjectMapper(), true).append(ProductChange.Type.CREATED, phone);
+        ProductOutbox outbox = new ProductOutbox(jdbcTemplate, new ObjectMapper(), false);
+        outbox.append(ProductChange.Type.CREATED, novel);
+        outbox.appendDeleted(3L);
+        outbox.claim(10);
+
+        // When
+        List<ProductOutbox.AuditEntry> queued = outbox.claimAudit(10);
+        int purged = outbox.purgePublishedBefore(LocalDateTime.now().plusDays(1));
+
+        // Then
+        assertThat(queued).singleElement().satisfies(entry -> assertThat(entry.product()).isEqualTo(phone));
+        assertThat(purged).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM product_outbox", Integer.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep the category stats rollup in step with product writes")
+    void shouldMaintainCategoryStats() throws IOException {
+        // Given
+        Category books = new Category();
+        books.setName("Books");
+        books.setCreatedAt(java.time.LocalDateTime.now());
+        books.setUpdatedAt(java.time.LocalDateTime.now());
+        entityManager.persistAndFlush(books);
+        applyMigration("V11__create_category_stats.sql");
+        CategoryStatsRepository repository = new CategoryStatsRepository(jdbcTemplate);
+        Product cheap = createTestProduct("Cheap", "SKU001", "111");
+        cheap.setPrice(new BigDecimal("10.00"));
+        Product dear = createTestProduct("Dear", "SKU002", "222");
+        dear.setPrice(new BigDecimal("30.00"));
+        entityManager.persist(cheap);
+        entityManager.persist(dear);
+        entityManager.flush();
+
+        // When
+        CategoryStats afterInsert = repository.findById(testCategory.getId()).orElseThrow();
+        new ProductPriceWriter(jdbcTemplate).updateById(Map.of(dear.getId(), new BigDecimal("20.00")));
+        CategoryStats afterPriceChange = repository.findById(testCategory.getId()).orElseThrow();
+        jdbcTemplate.update("UPDATE products SET category_id = ? WHERE id = ?", books.getId(), cheap.getId());
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", dear.getId());
+
+        // Then
+        assertThat(afterInsert).isEqualTo(new CategoryStats(testCategory.getId(), "Electronics", 2,
+                new BigDecimal("10.00"), new BigDecimal("20.00"), new BigDecimal("30.00")));
+        assertThat(afterPriceChange.avgPrice()).isEqualByComparingTo("15.00");
+        assertThat(afterPriceChange.maxPrice()).isEqualByComparingTo("20.00");
+        assertThat(repository.findById(testCategory.getId()).orElseThrow())
+                .isEqualTo(new CategoryStats(testCategory.getId(), "Electronics", 0, null, null, null));
+        assertThat(repository.findById(books.getId()).orElseThrow().minPrice()).isEqualByComparingTo("10.00");
+        assertThat(repository.findById(-1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should find a product snapshot by id without loading the entity")
+    void shouldFindSnapshotById() {
+        // Given
+        Product product = entityManager.persistAndFlush(createTestProduct("Test Product", "SKU001", "123456789"));
+        entityManager.clear();
+
+        // When
+        Optional<ProductSnapshot> snapshot = productRepository.findSnapshotById(product.getId());
+
+        // Then
+        assertThat(snapshot).contains(new ProductSnapshot(product.getId(), "SKU001", "123456789", "Test Product",
+                new BigDecimal("99.99"), testCategory.getId(), 0L));
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should load a keyset window and its categories in one statement")
+    void shouldLoadWindowWithCategoriesInOneStatement() {
+        // Given
+        persistProductsInOwnCategories(5);
+        SqlStatementCounter.reset();
+
+        // When
+        List<String> categories = productRepository.findAllBy(ScrollPosition.keyset(), Sort.by("name", "id"), Limit.of(5))
+                .stream()
+                .map(product -> product.getCategory().getName())
+                .toList();
+
+        // Then
+        assertThat(categories).containsExactly("Category 1", "Category 2", "Category 3", "Category 4", "Category 5");
+        SqlStatementCounter.assertAtMost(1);
+    }
+
+    @Test
+    @DisplayName("Should scroll products by keyset through encoded cursors")
+    void shouldScrollProductsByKeyset() {
+        // Given
+        for (int i = 1; i <= 5; i++) {
+            Product product = createTestProduct("Product " + i, "SKU00" + i, "12345678" + i);
+            product.setPrice(BigDecimal.valueOf(10L * (6 - i)));
+            entityManager.persistAndFlush(product);
+        }
+        ProductCursor cursor = ProductCursor.first("price,desc");
+        List<String> names = new ArrayList<>();
+
+        // When
+        Window<Product> window;
+        do {
+            window = productRepository.findAllBy(cursor.position(), cursor.sort(), Limit.of(2));
+            window.forEach(product -> names.add(product.getName()));
+            if (!window.isEmpty()) {
+                KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+                cursor = ProductCursor.decode(cursor.next(last.getKeys()).encode());
+            }
+        } while (window.hasNext());
+
+        // Then
+        assertThat(names).containsExactly("Product 1", "Product 2", "Product 3", "Product 4", "Product 5");
+    }
+
+    // mvn test -Dtest=ProductRepositoryIntegrationTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: offset vs keyset latency at page 1 and page 10,000")
+    void benchmarkOffsetVersusKeyset() {
+        // Given
+        int rows = 200_000;
+        entityManager.getEntityManager().createNativeQuery("""
+                        INSERT INTO products (id, sku, barcode, name, description, price, category_id)
+                        SELECT nextval('products_id_seq'), 'SKU-' || g, 'BC-' || g, 'Product ' || lpad(g::text, 7, '0'), NULL, g % 1000, :category
+                        FROM generate_series(1, :rows) g""")
+                .setParameter("category", testCategory.getId())
+                .setParameter("rows", rows)
+                .executeUpdate();
+        entityManager.getEntityManager().createNativeQuery("CREATE INDEX idx_products_name_id ON products (name, id)").executeUpdate();
+        entityManager.getEntityManager().createNativeQuery("ANALYZE products").executeUpdate();
+        Sort sort = Sort.by("name", "id");
+        Product deep = productRepository.findAll(PageRequest.of(9_999, 10, sort)).getContent().get(9);
+        ScrollPosition deepPosition = ScrollPosition.forward(Map.of("name", deep.getName(), "id", deep.getId()));
+
+        // When
+        long offsetFirst = medianNanos(() -> productRepository.findAll(PageRequest.of(0, 10, sort)));
+        long offsetDeep = medianNanos(() -> productRepository.findAll(PageRequest.of(10_000, 10, sort)));
+        long keysetFirst = medianNanos(() -> productRepository.findAllBy(ScrollPosition.keyset(), sort, Limit.of(10)));
+        long keysetDeep = medianNanos(() -> productRepository.findAllBy(deepPosition, sort, Limit.of(10)));
+
+        // Then
+        System.out.printf("offset page 1 %d us, page 10000 %d us; keyset page 1 %d us, page 10000 %d us%n",
+                offsetFirst / 1_000, offsetDeep / 1_000, keysetFirst / 1_000, keysetDeep / 1_000);
+        assertThat(keysetDeep).isLessThan(offsetDeep);
+    }
+
+    // mvn test -Dtest=ProductRepositoryIntegrationTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: rows/sec and allocation per request, entities vs snapshot projection")
+    void benchmarkEntityVersusProjection() {
+        // Given
+        String description = "x".repeat(2_000);
+        for (int i = 0; i < 5_000; i++) {
+            Product product = createTestProduct(String.format("Product %05d", i), "SKU-" + i, "BC-" + i);
+            product.setDescription(description);
+            entityManager.persist(product);
+            if (i % 500 == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Pageable page = PageRequest.of(0, 100, Sort.by("name", "id"));
+
+        // When
+        Throughput entities = throughput(() -> entityManager.getEntityManager()
+                .createQuery("select p from Product p order by p.name, p.id", Product.class)
+                .setMaxResults(100)
+                .getResultList().stream()
+                .map(ProductSnapshot::from)
+                .toList());
+        Throughput projection = throughput(() -> productRepository.findSnapshotsBy(page).getContent());
+
+        // Then
+        System.out.printf("entities %,.0f rows/s %,d B/request; projection %,.0f rows/s %,d B/request%n",
+                entities.rowsPerSecond(), entities.bytesPerRequest(),
+                projection.rowsPerSecond(), projection.bytesPerRequest());
+        assertThat(projection.bytesPerRequest()).isLessThan(entities.bytesPerRequest());
+    }
+
+    // mvn test -Dtest=ProductRepositoryIntegrationTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: price updates/sec, batched UPDATE ... FROM (VALUES ...) vs one UPDATE per row")
+    void benchmarkBatchedPriceUpdates() {
+        // Given
+        int rows = 200_000;
+        entityManager.getEntityManager().createNativeQuery("""
+                        INSERT INTO products (id, sku, barcode, name, price, category_id, version)
+                        SELECT nextval('products_id_seq'), 'SKU-' || g, 'BC-' || g, 'Product ' || g, g % 1000, :category, 0
+                        FROM generate_series(1, :rows) g""")
+                .setParameter("category", testCategory.getId())
+                .setParameter("rows", rows)
+                .executeUpdate();
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM products ORDER BY id", Long.class);
+        ProductPriceWriter writer = new ProductPriceWriter(jdbcTemplate);
+        Map<Long, BigDecimal> batch = new LinkedHashMap<>();
+        ids.forEach(id -> batch.put(id, BigDecimal.valueOf(id % 500, 2)));
+
+        // When
+        long start = System.nanoTime();
+        int batched = writer.updateById(batch).size();
+        long batchedNanos = System.nanoTime() - start;
+        List<Long> sample = ids.subList(0, 10_000);
+        start = System.nanoTime();
+        sample.forEach(id -> jdbcTemplate.update("UPDATE products SET price = ?, version = version + 1 WHERE id = ?",
+                BigDecimal.ONE, id));
+        long singleNanos = System.nanoTime() - start;
+
+        // Then
+        System.out.printf("batched: %,.0f updates/sec, one per row: %,.0f updates/sec%n",
+                batched * 1e9 / batchedNanos, sample.size() * 1e9 / singleNanos);
+        assertThat(batched).isEqualTo(rows);
+    }
+
+    // mvn test -Dtest=ProductRepositoryIntegrationTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: search latency and index size, in-memory index vs tsvector/trigram")
+    void benchmarkSearchModes() throws IOException {
+        // Given
+        applyMigration("V9__add_products_search_indexes.sql");
+        int rows = 200_000;
+        entityManager.getEntityManager().createNativeQuery("""
+                        INSERT INTO products (id, sku, barcode, name, description, price, category_id)
+                        SELECT nextval('products_id_seq'), 'SKU-' || g, 'BC-' || g,
+                               'item' || (g % 5000) || ' model' || ((g * 7) % 5000),
+                               'part' || (g % 20000) || ' part' || ((g * 31) % 20000) || ' part' || ((g * 17) % 20000),
+                               g % 1000, :category
+                        FROM generate_series(1, :rows) g""")
+                .setParameter("category", testCategory.getId())
+                .setParameter("rows", rows)
+                .executeUpdate();
+        jdbcTemplate.execute("ANALYZE products");
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            queries.add(switch (i % 3) {
+                case 0 -> "item" + (i * 13 % 5000);
+                case 1 -> "model" + (i * 7 % 5000) + " part";
+                default -> "itme" + (i * 11 % 5000);
+            });
+        }
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long baseline = retainedHeap(memory);
+        ProductSearchIndex memoryIndex = new ProductSearchIndex(productRepository, transactionManager,
+                mock(HazelcastInstance.class, RETURNS_DEEP_STUBS), new SimpleMeterRegistry());
+        memoryIndex.build();
+        long memoryBytes = retainedHeap(memory) - baseline;
+        DatabaseProductSearch databaseSearch = new DatabaseProductSearch(productRepository);
+
+        // When
+        double memoryMicros = averageMicros(queries, query -> memoryIndex.search(query, 20));
+        double databaseMicros = averageMicros(queries, query -> databaseSearch.search(query, 20));
+        Long databaseBytes = jdbcTemplate.queryForObject("""
+                SELECT pg_relation_size('idx_products_search_vector') + pg_relation_size('idx_products_name_trgm')
+                     + pg_relation_size('idx_products_description_trgm')
+                     + (SELECT sum(pg_column_size(search_vector)) FROM products)""", Long.class);
+
+        // Then
+        System.out.printf("memory: %.0f us/query, %,d KB heap; database: %.0f us/query, %,d KB indexes and column%n",
+                memoryMicros, memoryBytes / 1024, databaseMicros, databaseBytes / 1024);
+        assertThat(memoryIndex.size()).isEqualTo(rows);
+    }
+
+    // mvn test -Dtest=ProductRepositoryIntegrationTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: exporting 1M products keeps retained heap under 64 MB")
+    void benchmarkExportHeap() throws IOException {
+        // Given
+        int rows = 1_000_000;
+        entityManager.getEntityManager().createNativeQuery("""
+                        INSERT INTO products (id, sku, barcode, name, description, price, category_id)
+                        SELECT nextval('products_id_seq'), 'SKU-' || g, 'BC-' || g, 'Product ' || g,
+                               repeat('x', 200), g % 1000, :category
+                        FROM generate_series(1, :rows) g""")
+                .setParameter("category", testCategory.getId())
+                .setParameter("rows", rows)
+                .executeUpdate();
+        ProductExportService exportService = new ProductExportService(
+                productRepository, entityManager.getEntityManager(), new ObjectMapper());
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long[] peakRetained = {0};
+        long baseline = retainedHeap(memory);
+        OutputStream sampler = new OutputStream() {
+            private long written;
+
+            @Override
+            public void write(int b) {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                long before = written;
+                written += len;
+                if (before / 50_000_000 != written / 50_000_000) {
+                    peakRetained[0] = Math.max(peakRetained[0], retainedHeap(memory) - baseline);
+                }
+            }
+        };
+
+        // When
+        long start = System.nanoTime();
+        long exported = exportService.exportNdjson(sampler);
+        long elapsed = System.nanoTime() - start;
+
+        // Then
+        System.out.printf("exported %,d rows in %d ms, peak retained heap %,d KB%n",
+                exported, elapsed / 1_000_000, peakRetained[0] / 1_024);
+        assertThat(exported).isEqualTo(rows);
+        assertThat(peakRetained[0]).isLessThan(64L * 1024 * 1024);
+    }
+
     @Test
     @DisplayName("Should delete product by id")
     void shouldDeleteProductById() {
@@ -211,6 +817,75 @@ public class ProductRepositoryIntegrationTest {
         }
     }
 
+    // Hibernate creates the schema here, so the database search column and indexes come from V9 itself
+    private void applyMigration(String name) throws IOException {
+        try (InputStream migration = new ClassPathResource("db/migration/" + name).getInputStream()) {
+            jdbcTemplate.execute(new String(migration.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static double averageMicros(List<String> queries, Consumer<String> search) {
+        queries.forEach(search);
+        long start = System.nanoTime();
+        queries.forEach(search);
+        return (System.nanoTime() - start) / 1_000.0 / queries.size();
+    }
+
+    private static long retainedHeap(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private record Throughput(double rowsPerSecond, long bytesPerRequest) {
+    }
+
+    private Throughput throughput(Supplier<List<?>> request) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 200; i++) {
+            request.get();
+            entityManager.clear();
+        }
+        int requests = 500;
+        long rows = 0;
+        long bytes = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            rows += request.get().size();
+            entityManager.clear();
+        }
+        long elapsed = System.nanoTime() - start;
+        bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+        return new Throughput(rows * 1e9 / elapsed, bytes / requests);
+    }
+
+    private long medianNanos(Supplier<?> query) {
+        long[] samples = new long[21];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            query.get();
+            samples[i] = System.nanoTime() - start;
+            entityManager.clear();
+        }
+        Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
+
+    // One category per product, so lazy loading would cost a statement per row
+    private void persistProductsInOwnCategories(int count) {
+        for (int i = 1; i <= count; i++) {
+            Category category = new Category();
+            category.setName("Category " + i);
+            category.setCreatedAt(java.time.LocalDateTime.now());
+            category.setUpdatedAt(java.time.LocalDateTime.now());
+            entityManager.persist(category);
+            Product product = createTestProduct("Product " + i, "SKU00" + i, "12345678" + i);
+            product.setCategory(category);
+            entityManager.persist(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
     private Product createTestProduct(String name, String sku, String barcode) {
         Product product = new Product();
         product.setSku(sku);
@@ -0,0 +1,46 @@
+package com.kadirkara.product.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the SQL statements Hibernate prepares, to catch N+1 regressions in tests. Register it with
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}; Hibernate creates its
+ * own instance, so the count is static.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final AtomicInteger COUNT = new AtomicInteger();
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.incrementAndGet();
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.set(0);
+        STATEMENTS.clear();
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS);
+    }
+
+    public static int count() {
+        return COUNT.get();
+    }
+
+    public static void assertAtMost(int expected) {
+        assertThat(COUNT.get())
+                .as("SQL statements issued")
+                .isLessThanOrEqualTo(expected);
+    }
+}
@@ -0,0 +1,56 @@
+package com.kadirkara.product.search;
+
+import com.kadirkara.product.repository.ProductRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DatabaseProductSearch Unit Tests")
+public class DatabaseProductSearchTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private DatabaseProductSearch databaseProductSearch;
+
+    @Test
+    @DisplayName("Should require every word as a whole word or prefix")
+    void shouldBuildPrefixConjunction() {
+        // Given
+        when(productRepository.searchIds("wireless:* & head:*", "wireless head", 20)).thenReturn(List.of(7L, 3L));
+
+        // When
+        List<Long> ids = databaseProductSearch.search("Wireless, head!", 20);
+
+        // Then
+        assertThat(ids).containsExactly(7L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should pass only letters and digits to to_tsquery")
+    void shouldDropTsqueryOperators() {
+        // Given
+        when(productRepository.searchIds("crème:* & a:* & b:*", "crème a b", 5)).thenReturn(List.of());
+
+        // When / Then
+        assertThat(databaseProductSearch.search("crème & (a | !b):*", 5)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reject a query without any word")
+    void shouldRejectEmptyQuery() {
+        assertThatThrownBy(() -> databaseProductSearch.search("&|!", 5)).isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(productRepository);
+    }
+}
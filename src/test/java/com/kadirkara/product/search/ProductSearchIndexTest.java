@@ -0,0 +1,281 @@
+package com.kadirkara.product.search;
+
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+import com.kadirkara.product.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductSearchIndex Unit Tests")
+public class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private HazelcastInstance hazelcastInstance;
+
+    @Mock
+    private ITopic<long[]> refreshes;
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(hazelcastInstance.<long[]>getTopic(ProductSearchIndex.SEARCH_REFRESHES)).thenReturn(refreshes);
+        index = new ProductSearchIndex(productRepository, transactionManager, hazelcastInstance, new SimpleMeterRegistry());
+        index.index(List.of(
+                new ProductSearchDocument(1L, "Wireless Headphones", "Noise cancelling over-ear headphones", "Electronics"),
+                new ProductSearchDocument(2L, "Headphone Stand", "Wooden stand for wireless headsets", "Home Appliances"),
+                new ProductSearchDocument(3L, "Novel Book", "Bestselling novel of the year", "Books"),
+                new ProductSearchDocument(4L, "Crème Brûlée Set", "Ramekins and a torch", "Home Appliances")), false);
+    }
+
+    @Test
+    @DisplayName("Should rank a match in the name above a match in the description")
+    void shouldRankNameMatchesFirst() {
+        // When
+        List<Long> results = index.search("wireless", 10);
+
+        // Then
+        assertThat(results).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Should match a word prefix and require every query word")
+    void shouldMatchPrefixesOfEveryWord() {
+        // When / Then
+        assertThat(index.search("head wire", 10)).containsExactly(1L, 2L);
+        assertThat(index.search("head novel", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should match a misspelled word, category names and accents")
+    void shouldMatchTyposCategoriesAndAccents() {
+        // When / Then
+        assertThat(index.search("hedphones", 10)).containsExactly(1L, 2L);
+        assertThat(index.search("books", 10)).containsExactly(3L);
+        assertThat(index.search("creme brulee", 10)).containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("Should reindex an updated product and forget a deleted one")
+    void shouldFollowUpdatesAndDeletes() {
+        // Given
+        when(productRepository.findSearchDocumentsByIdIn(List.of(3L)))
+                .thenReturn(List.of(new ProductSearchDocument(3L, "Audio Book", "Narrated novel", "Books")));
+
+        // When
+        index.refresh(List.of(3L));
+        index.remove(1L);
+
+        // Then
+        assertThat(index.search("audio", 10)).containsExactly(3L);
+        assertThat(index.search("bestselling", 10)).isEmpty();
+        assertThat(index.search("wireless", 10)).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(3);
+        verify(refreshes).publish(new long[] {3L});
+        verify(refreshes).publish(new long[] {1L});
+    }
+
+    @Test
+    @DisplayName("Should give a new product the document number of a deleted one")
+    void shouldReuseDocumentNumbers() {
+        // Given
+        index.remove(1L);
+
+        // When
+        index.index(List.of(new ProductSearchDocument(5L, "Desk Lamp", "Warm light", "Home Appliances")), false);
+
+        // Then
+        assertThat(index.documentNumbers()).isEqualTo(4);
+        assertThat(index.search("lamp", 10)).containsExactly(5L);
+        assertThat(index.search("wireless", 10)).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Should find a misspelled word among many terms of other lengths")
+    void shouldMatchTypoAmongManyTerms() {
+        // Given
+        List<ProductSearchDocument> documents = LongStream.rangeClosed(10, 3_000)
+                .mapToObj(id -> new ProductSearchDocument(id, "h" + "x".repeat((int) (id % 40) + 12) + id, null, null))
+                .toList();
+        index.index(documents, false);
+
+        // When / Then
+        assertThat(index.search("hedphones", 10)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Should reindex a large refresh in chunks of 1000 products")
+    void shouldReindexInChunks() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, 1_500).boxed().toList();
+
+        // When
+        index.refresh(ids);
+
+        // Then
+        verify(productRepository).findSearchDocumentsByIdIn(ids.subList(0, 1_000));
+        verify(productRepository).findSearchDocumentsByIdIn(ids.subList(1_000, 1_500));
+        verify(refreshes, times(2)).publish(any());
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reindex products written on another member, but not its own writes again")
+    void shouldFollowWritesOfOtherMembers() {
+        // Given
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<MessageListener<long[]>> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(refreshes).addMessageListener(listener.capture());
+        Member local = mock(Member.class);
+        Member remote = mock(Member.class);
+        when(local.localMember()).thenReturn(true);
+        when(remote.localMember()).thenReturn(false);
+        when(productRepository.findSearchDocumentsByIdIn(List.of(3L, 1L)))
+                .thenReturn(List.of(new ProductSearchDocument(3L, "Audio Book", "Narrated novel", "Books")));
+
+        // When
+        listener.getValue().onMessage(new Message<>(ProductSearchIndex.SEARCH_REFRESHES, new long[] {2L}, 0, local));
+        listener.getValue().onMessage(new Message<>(ProductSearchIndex.SEARCH_REFRESHES, new long[] {3L, 1L}, 0, remote));
+
+        // Then
+        verify(productRepository, never()).findSearchDocumentsByIdIn(List.of(2L));
+        assertThat(index.search("audio", 10)).containsExactly(3L);
+        assertThat(index.search("wireless", 10)).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should not let the startup build overwrite a product written meanwhile")
+    void shouldKeepWritesMadeDuringBuild() {
+        // Given
+        when(productRepository.findSearchDocumentsByIdIn(List.of(5L)))
+                .thenReturn(List.of(new ProductSearchDocument(5L, "Renamed Lamp", null, "Home Appliances")));
+        when(productRepository.streamSearchDocumentsBy()).thenAnswer(invocation -> {
+            index.refresh(List.of(5L));
+            return Stream.of(new ProductSearchDocument(5L, "Desk Lamp", null, "Home Appliances"));
+        });
+
+        // When
+        index.build();
+
+        // Then
+        assertThat(index.search("renamed", 10)).containsExactly(5L);
+        assertThat(index.search("desk", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reject a query without any word")
+    void shouldRejectEmptyQuery() {
+        assertThatThrownBy(() -> index.search(" -- ", 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // mvn test -Dtest=ProductSearchIndexTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: index memory per 1M products and queries/sec")
+    void benchmarkMillionProducts() {
+        // Given
+        String[] words = vocabulary(20_000);
+        String[] categories = {"Electronics", "Books", "Clothing", "Home Appliances", "Sports & Outdoors",
+                "Health & Beauty", "Toys & Games", "Automotive", "Grocery"};
+        Random random = new Random(42);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        index = new ProductSearchIndex(productRepository, transactionManager, hazelcastInstance, new SimpleMeterRegistry());
+        long before = retainedHeap(memory);
+
+        // When
+        int products = 1_000_000;
+        List<ProductSearchDocument> batch = new ArrayList<>(1_000);
+        for (long id = 1; id <= products; id++) {
+            batch.add(new ProductSearchDocument(id, sentence(words, random, 4), sentence(words, random, 20),
+                    categories[random.nextInt(categories.length)]));
+            if (batch.size() == 1_000) {
+                index.index(batch, false);
+                batch.clear();
+            }
+        }
+        long retained = retainedHeap(memory) - before;
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            String word = words[random.nextInt(words.length)];
+            queries.add(switch (i % 3) {
+                case 0 -> word + " " + words[random.nextInt(words.length)];
+                case 1 -> word.substring(0, 4);
+                default -> word.substring(1, 2) + word;
+            });
+        }
+        queries.forEach(query -> index.search(query, 20));
+        int rounds = 5;
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            queries.forEach(query -> index.search(query, 20));
+        }
+        long elapsed = System.nanoTime() - start;
+
+        // Then
+        System.out.printf("%,d products, %,d terms, retained heap %,d MB, %,.0f queries/sec%n",
+                index.size(), index.termCount(), retained / (1024 * 1024),
+                rounds * queries.size() * 1e9 / elapsed);
+        assertThat(index.size()).isEqualTo(products);
+    }
+
+    private static String[] vocabulary(int size) {
+        Random random = new Random(7);
+        String[] words = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 5 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    // Skewed towards the front of the vocabulary, like real text
+    private static String sentence(String[] words, Random random, int length) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            double skew = random.nextDouble();
+            sentence.append(words[(int) (skew * skew * words.length)]).append(' ');
+        }
+        return sentence.toString();
+    }
+
+    private static long retainedHeap(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
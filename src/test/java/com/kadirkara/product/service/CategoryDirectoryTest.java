@@ -0,0 +1,130 @@
+package com.kadirkara.product.service;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.kadirkara.product.cache.CategoryStats;
+import com.kadirkara.product.cache.CategoryStatsSerializer;
+import com.kadirkara.product.entity.Category;
+import com.kadirkara.product.repository.CategoryRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CategoryDirectory Unit Tests")
+public class CategoryDirectoryTest {
+
+    private static HazelcastInstance hazelcastInstance;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private CategoryDirectory categoryDirectory;
+
+    @BeforeAll
+    static void startHazelcast() {
+        Config config = new Config().setClusterName("category-directory-" + UUID.randomUUID());
+        config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getSerializationConfig().getCompactSerializationConfig()
+                .addSerializer(new CategoryStatsSerializer());
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    static void stopHazelcast() {
+        hazelcastInstance.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        categoryDirectory = new CategoryDirectory(categoryRepository, hazelcastInstance);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hazelcastInstance.getMap(CategoryStatsService.CATEGORIES).clear();
+    }
+
+    @Test
+    @DisplayName("Should resolve names loaded at startup without a query")
+    void shouldResolveLoadedNames() {
+        // Given
+        when(categoryRepository.findAll()).thenReturn(List.of(category(1L, "Electronics"), category(2L, "Books")));
+        categoryDirectory.load();
+
+        // When
+        Optional<Long> id = categoryDirectory.idOf("Books");
+
+        // Then
+        assertThat(id).contains(2L);
+        verify(categoryRepository, never()).findByName(anyString());
+    }
+
+    @Test
+    @DisplayName("Should read every unknown name of a batch in one query and remember the answer")
+    void shouldResolveBatchInOneQuery() {
+        // Given
+        when(categoryRepository.findAll()).thenReturn(List.of(category(1L, "Electronics")));
+        categoryDirectory.load();
+        when(categoryRepository.findByNameIn(anyCollection())).thenReturn(List.of(category(2L, "Books")));
+
+        // When
+        Map<String, Long> ids = categoryDirectory.idsOf(List.of("Electronics", "Books", "Garden", "Books"));
+
+        // Then
+        assertThat(ids).containsOnly(Map.entry("Electronics", 1L), Map.entry("Books", 2L));
+        verify(categoryRepository).findByNameIn(List.of("Books", "Garden"));
+        assertThat(categoryDirectory.idsOf(Set.of("Books"))).containsOnly(Map.entry("Books", 2L));
+        verify(categoryRepository, times(1)).findByNameIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should follow renames and removals published through the categories map")
+    void shouldFollowCategoryEvents() {
+        // Given
+        IMap<Long, CategoryStats> categories = hazelcastInstance.getMap(CategoryStatsService.CATEGORIES);
+
+        // When
+        categories.set(3L, stats(3L, "Garden"));
+        await().atMost(Duration.ofSeconds(15)).until(() -> categoryDirectory.idOf("Garden").isPresent());
+        categories.set(3L, stats(3L, "Outdoors"));
+        await().atMost(Duration.ofSeconds(15)).until(() -> categoryDirectory.idOf("Outdoors").isPresent());
+
+        // Then
+        assertThat(categoryDirectory.idOf("Garden")).isEmpty();
+        categories.delete(3L);
+        await().atMost(Duration.ofSeconds(15)).until(() -> categoryDirectory.idOf("Outdoors").isEmpty());
+    }
+
+    private static CategoryStats stats(Long id, String name) {
+        return new CategoryStats(id, name, 0, null, null, null);
+    }
+
+    private static Category category(Long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+}
@@ -0,0 +1,130 @@
+package com.kadirkara.product.service;
+
+import com.kadirkara.product.dto.CategoryResponse;
+import com.kadirkara.product.entity.Category;
+import com.kadirkara.product.repository.CategoryRepository;
+import com.kadirkara.product.repository.ProductRepository;
+import com.kadirkara.product.search.ProductSearch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CategoryService Unit Tests")
+public class CategoryServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryStatsService categoryStatsService;
+
+    @Mock
+    private ProductSearch productSearch;
+
+    @InjectMocks
+    private CategoryService categoryService;
+
+    @Test
+    @DisplayName("Should create a category and publish it once the write commits")
+    void shouldCreateCategory() {
+        // Given
+        when(categoryRepository.findByName("Garden")).thenReturn(Optional.empty());
+        when(categoryRepository.save(any(Category.class))).thenAnswer(invocation -> {
+            Category category = invocation.getArgument(0);
+            category.setId(10L);
+            return category;
+        });
+
+        // When
+        CategoryResponse created = categoryService.create("Garden");
+
+        // Then
+        assertThat(created).isEqualTo(new CategoryResponse(10L, "Garden"));
+        verify(categoryStatsService).refresh(List.of(10L));
+    }
+
+    @Test
+    @DisplayName("Should reject a name another category already uses")
+    void shouldRejectDuplicateName() {
+        // Given
+        when(categoryRepository.findById(2L)).thenReturn(Optional.of(category(2L, "Books")));
+        when(categoryRepository.findByName("Electronics")).thenReturn(Optional.of(category(1L, "Electronics")));
+
+        // When & Then
+        assertThatThrownBy(() -> categoryService.rename(2L, "Electronics"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Category already exists: Electronics");
+        verify(categoryStatsService, never()).refresh(any());
+    }
+
+    @Test
+    @DisplayName("Should reindex the products of a renamed category for search")
+    void shouldReindexProductsOnRename() {
+        // Given
+        when(categoryRepository.findById(2L)).thenReturn(Optional.of(category(2L, "Books")));
+        when(categoryRepository.findByName("Literature")).thenReturn(Optional.empty());
+        when(productRepository.findIdsByCategoryId(2L)).thenReturn(List.of(3L, 7L));
+
+        // When
+        CategoryResponse renamed = categoryService.rename(2L, "Literature");
+
+        // Then
+        assertThat(renamed).isEqualTo(new CategoryResponse(2L, "Literature"));
+        verify(categoryStatsService).refresh(List.of(2L));
+        verify(productSearch).refresh(List.of(3L, 7L));
+    }
+
+    @Test
+    @DisplayName("Should keep a category that products still belong to")
+    void shouldNotDeleteCategoryWithProducts() {
+        // Given
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category(1L, "Electronics")));
+        when(productRepository.existsByCategoryId(1L)).thenReturn(true);
+
+        // When & Then
+        assertThatThrownBy(() -> categoryService.deleteById(1L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Category still has products");
+        verify(categoryRepository, never()).delete(any());
+    }
+
+    @Test
+    @DisplayName("Should cache an empty category before deleting it so the removal reaches every member")
+    void shouldDeleteEmptyCategory() {
+        // Given
+        Category garden = category(3L, "Garden");
+        when(categoryRepository.findById(3L)).thenReturn(Optional.of(garden));
+        when(productRepository.existsByCategoryId(3L)).thenReturn(false);
+
+        // When
+        categoryService.deleteById(3L);
+
+        // Then
+        var inOrder = inOrder(categoryStatsService, categoryRepository);
+        inOrder.verify(categoryStatsService).findById(3L);
+        inOrder.verify(categoryRepository).delete(garden);
+        inOrder.verify(categoryStatsService).refresh(List.of(3L));
+    }
+
+    private static Category category(Long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+}
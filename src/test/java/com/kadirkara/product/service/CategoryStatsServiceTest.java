@@ -0,0 +1,132 @@
+package com.kadirkara.product.service;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.kadirkara.product.cache.CategoryStats;
+import com.kadirkara.product.cache.CategoryStatsSerializer;
+import com.kadirkara.product.repository.CategoryStatsRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CategoryStatsService Unit Tests")
+public class CategoryStatsServiceTest {
+
+    private static HazelcastInstance hazelcastInstance;
+
+    @Mock
+    private CategoryStatsRepository categoryStatsRepository;
+
+    private CategoryStatsService categoryStatsService;
+
+    @BeforeAll
+    static void startHazelcast() {
+        Config config = new Config().setClusterName("category-stats-" + UUID.randomUUID());
+        config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getSerializationConfig().getCompactSerializationConfig()
+                .addSerializer(new CategoryStatsSerializer());
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    static void stopHazelcast() {
+        hazelcastInstance.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        categoryStatsService = new CategoryStatsService(categoryStatsRepository, hazelcastInstance);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hazelcastInstance.getMap(CategoryStatsService.CATEGORIES).clear();
+    }
+
+    @Test
+    @DisplayName("Should read the rollup once and serve later reads from the cache")
+    void shouldCacheStats() {
+        // Given
+        when(categoryStatsRepository.findById(1L)).thenReturn(Optional.of(stats(1L, 2, "15.00")));
+
+        // When
+        CategoryStats first = categoryStatsService.findById(1L);
+        CategoryStats second = categoryStatsService.findById(1L);
+
+        // Then
+        assertThat(second).isEqualTo(first);
+        verify(categoryStatsRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Should report an unknown category as not found")
+    void shouldRejectUnknownCategory() {
+        // Given
+        when(categoryStatsRepository.findById(9L)).thenReturn(Optional.empty());
+
+        // When / Then
+        assertThatThrownBy(() -> categoryStatsService.findById(9L)).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    @DisplayName("Should refresh touched categories only once the write commits")
+    void shouldRefreshAfterCommit() {
+        // Given
+        hazelcastInstance.getMap(CategoryStatsService.CATEGORIES).put(1L, stats(1L, 2, "15.00"));
+        when(categoryStatsRepository.findById(1L)).thenReturn(Optional.of(stats(1L, 3, "20.00")));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            categoryStatsService.refresh(Arrays.asList(1L, null, 1L));
+
+            // Then
+            assertThat(categoryStatsService.findById(1L).productCount()).isEqualTo(2);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(categoryStatsService.findById(1L).productCount()).isEqualTo(3);
+            verify(categoryStatsRepository, times(1)).findById(1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not let a read that started before a write overwrite its refresh")
+    void shouldKeepRefreshOverStaleRead() {
+        // Given
+        when(categoryStatsRepository.findById(1L)).thenAnswer(invocation -> {
+            hazelcastInstance.getMap(CategoryStatsService.CATEGORIES).set(1L, stats(1L, 3, "20.00"));
+            return Optional.of(stats(1L, 2, "15.00"));
+        });
+
+        // When
+        categoryStatsService.findById(1L);
+
+        // Then
+        assertThat(hazelcastInstance.getMap(CategoryStatsService.CATEGORIES).get(1L)).isEqualTo(stats(1L, 3, "20.00"));
+    }
+
+    private static CategoryStats stats(Long id, long count, String avg) {
+        return new CategoryStats(id, "Electronics", count, new BigDecimal("10.00"), new BigDecimal(avg), new BigDecimal("30.00"));
+    }
+}
@@ -0,0 +1,285 @@
+package com.kadirkara.product.service;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.kadirkara.product.cache.ProductCacheIndex;
+import com.kadirkara.product.cache.ProductChange;
+import com.kadirkara.product.cache.ProductFacetCounts;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.cache.ProductSnapshotSerializer;
+import com.kadirkara.product.dto.PriceUpdate;
+import com.kadirkara.product.dto.PriceUpdateResult;
+import com.kadirkara.product.repository.ProductOutbox;
+import com.kadirkara.product.repository.ProductPriceWriter;
+import com.kadirkara.product.repository.ProductPriceWriter.PriceChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PriceUpdateService Unit Tests")
+public class PriceUpdateServiceTest {
+
+    private static HazelcastInstance hazelcastInstance;
+
+    @Mock
+    private ProductPriceWriter productPriceWriter;
+
+    @Mock
+    private ProductCacheIndex productCacheIndex;
+
+    @Mock
+    private ProductFacetCounts productFacetCounts;
+
+    @Mock
+    private ProductFacetCounts.Changes facetChanges;
+
+    @Mock
+    private CategoryStatsService categoryStatsService;
+
+    @Mock
+    private ProductOutbox productOutbox;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PriceUpdateService priceUpdateService;
+
+    @BeforeAll
+    static void startHazelcast() {
+        Config config = new Config().setClusterName("price-update-" + UUID.randomUUID());
+        config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getSerializationConfig().getCompactSerializationConfig()
+                .addSerializer(new ProductSnapshotSerializer());
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    static void stopHazelcast() {
+        hazelcastInstance.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(productFacetCounts.changes()).thenReturn(facetChanges);
+        // A window long enough that only the test flushes
+        priceUpdateService = new PriceUpdateService(productPriceWriter, productCacheIndex, productFacetCounts,
+                categoryStatsService, productOutbox, hazelcastInstance, transactionManager, meterRegistry, Duration.ofHours(1), 3, 1);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        SecurityContextHolder.clearContext();
+        priceUpdateService.shutdown();
+        hazelcastInstance.getMap(ProductCacheIndex.PRODUCTS_CACHE).clear();
+    }
+
+    @Test
+    @DisplayName("Should coalesce updates of one product so the last price wins")
+    void shouldCoalesceUpdatesOfOneProduct() {
+        // Given
+        when(productPriceWriter.updateById(Map.of(1L, new BigDecimal("12.00"))))
+                .thenReturn(List.of(change(1L, "SKU001", "12.00", 4L)));
+
+        // When
+        CompletableFuture<PriceUpdateResult> first = priceUpdateService.submit(
+                List.of(new PriceUpdate(1L, null, new BigDecimal("10.00"))));
+        CompletableFuture<PriceUpdateResult> second = priceUpdateService.submit(
+                List.of(new PriceUpdate(1L, null, new BigDecimal("12.00"))));
+        priceUpdateService.flush();
+
+        // Then
+        assertThat(first.join().updated()).isEqualTo(1);
+        assertThat(second.join().updated()).isEqualTo(1);
+        verify(productPriceWriter, times(1)).updateById(any());
+        assertThat(meterRegistry.counter("product.price.updates").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("product.price.updates.coalesced").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should let the later update win when one names the product by sku and the next by id")
+    void shouldCoalesceUpdatesBySkuAndById() {
+        // Given
+        ProductSnapshot repriced = snapshot(5L, "A", "10.00", 2L);
+        when(productPriceWriter.idsBySku(Set.of("A"))).thenReturn(Map.of("A", 5L));
+        when(productPriceWriter.updateById(Map.of(5L, new BigDecimal("10.00"))))
+                .thenReturn(List.of(new PriceChange(repriced, new BigDecimal("20.00"))));
+
+        // When
+        CompletableFuture<PriceUpdateResult> bySku = priceUpdateService.submit(
+                List.of(new PriceUpdate(null, "A", new BigDecimal("20.00"))));
+        CompletableFuture<PriceUpdateResult> byId = priceUpdateService.submit(
+                List.of(new PriceUpdate(5L, null, new BigDecimal("10.00"))));
+        priceUpdateService.flush();
+
+        // Then
+        assertThat(bySku.join().updated()).isEqualTo(1);
+        assertThat(byId.join().updated()).isEqualTo(1);
+        verify(productPriceWriter, times(1)).updateById(any());
+        verify(productOutbox).appendAll(eq(ProductChange.Type.UPDATED), eq(List.of(repriced)), any());
+        assertThat(meterRegistry.counter("product.price.updates.coalesced").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reject updates once full batches are waiting for the writer")
+    void shouldRejectUpdatesWhenWriterFallsBehind() throws InterruptedException {
+        // Given
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productPriceWriter.updateById(any())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return List.of();
+        });
+        CompletableFuture<PriceUpdateResult> full = priceUpdateService.submit(List.of(
+                new PriceUpdate(1L, null, BigDecimal.ONE),
+                new PriceUpdate(2L, null, BigDecimal.ONE),
+                new PriceUpdate(3L, null, BigDecimal.ONE)));
+        writing.await();
+
+        // When / Then
+        assertThatThrownBy(() -> priceUpdateService.submit(List.of(new PriceUpdate(4L, null, BigDecimal.ONE))))
+                .isInstanceOf(RejectedExecutionException.class);
+        release.countDown();
+        assertThat(full.join().unknownIds()).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should report ids and skus that matched no product")
+    void shouldReportUnknownKeys() {
+        // Given
+        when(productPriceWriter.updateById(any())).thenReturn(List.of(change(1L, "SKU001", "10.00", 1L)));
+
+        // When
+        CompletableFuture<PriceUpdateResult> result = priceUpdateService.submit(List.of(
+                new PriceUpdate(1L, null, new BigDecimal("10.00")),
+                new PriceUpdate(99L, null, new BigDecimal("10.00")),
+                new PriceUpdate(null, "MISSING", new BigDecimal("10.00"))));
+
+        // Then
+        PriceUpdateResult written = result.join();
+        assertThat(written.updated()).isEqualTo(1);
+        assertThat(written.unknownIds()).containsExactly(99L);
+        assertThat(written.unknownSkus()).containsExactly("MISSING");
+    }
+
+    @Test
+    @DisplayName("Should refresh only the changed products in the cache")
+    void shouldRefreshChangedProducts() {
+        // Given
+        hazelcastInstance.getMap(ProductCacheIndex.PRODUCTS_CACHE).put(2L, snapshot(2L, "SKU002", "5.00", 1L));
+        ProductSnapshot repriced = snapshot(1L, "SKU001", "15.00", 2L);
+        when(productPriceWriter.idsBySku(Set.of("SKU001"))).thenReturn(Map.of("SKU001", 1L));
+        when(productPriceWriter.updateById(Map.of(1L, new BigDecimal("15.00"))))
+                .thenReturn(List.of(new PriceChange(repriced, new BigDecimal("9.00"))));
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("alice", null));
+
+        // When
+        CompletableFuture<PriceUpdateResult> result = priceUpdateService.submit(
+                List.of(new PriceUpdate(null, "SKU001", new BigDecimal("15.00"))));
+        // The writer thread has no security context of its own
+        SecurityContextHolder.clearContext();
+        priceUpdateService.flush();
+        result.join();
+
+        // Then
+        assertThat(hazelcastInstance.getMap(ProductCacheIndex.PRODUCTS_CACHE).get(1L)).isEqualTo(repriced);
+        assertThat(hazelcastInstance.getMap(ProductCacheIndex.PRODUCTS_CACHE).get(2L))
+                .isEqualTo(snapshot(2L, "SKU002", "5.00", 1L));
+        verify(productCacheIndex).evictPagesOf(List.of(1L), Set.of("price"));
+        verify(facetChanges).move(1L, new BigDecimal("9.00"), 1L, new BigDecimal("15.00"));
+        verify(facetChanges).apply();
+        verify(categoryStatsService).refresh(List.of(1L));
+        verify(productOutbox).appendAll(ProductChange.Type.UPDATED, List.of(repriced), List.of("alice"));
+    }
+
+    @Test
+    @DisplayName("Should keep a later version that another writer cached before this batch refreshed")
+    void shouldNotOverwriteNewerCachedVersion() {
+        // Given
+        ProductSnapshot newer = snapshot(1L, "SKU001", "20.00", 5L);
+        hazelcastInstance.getMap(ProductCacheIndex.PRODUCTS_CACHE).put(1L, newer);
+        when(productPriceWriter.updateById(Map.of(1L, new BigDecimal("15.00"))))
+                .thenReturn(List.of(change(1L, "SKU001", "15.00", 4L)));
+
+        // When
+        CompletableFuture<PriceUpdateResult> result = priceUpdateService.submit(
+                List.of(new PriceUpdate(1L, null, new BigDecimal("15.00"))));
+        priceUpdateService.flush();
+        result.join();
+
+        // Then
+        assertThat(hazelcastInstance.getMap(ProductCacheIndex.PRODUCTS_CACHE).get(1L)).isEqualTo(newer);
+    }
+
+    @Test
+    @DisplayName("Should fail every waiting caller when the batch cannot be written")
+    void shouldFailBatchOnWriteError() {
+        // Given
+        when(productPriceWriter.updateById(any())).thenThrow(new IllegalStateException("connection lost"));
+
+        // When
+        CompletableFuture<PriceUpdateResult> result = priceUpdateService.submit(
+                List.of(new PriceUpdate(1L, null, new BigDecimal("10.00"))));
+        priceUpdateService.flush();
+
+        // Then
+        assertThatThrownBy(result::join).hasCauseInstanceOf(IllegalStateException.class);
+        verifyNoInteractions(productCacheIndex);
+    }
+
+    @Test
+    @DisplayName("Should reject an update naming both an id and a sku")
+    void shouldRejectAmbiguousUpdate() {
+        assertThatThrownBy(() -> new PriceUpdate(1L, "SKU001", BigDecimal.ONE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject a price DECIMAL(10, 2) cannot hold before it joins a batch")
+    void shouldRejectUnstorablePrice() {
+        assertThatThrownBy(() -> new PriceUpdate(1L, null, new BigDecimal("1.005")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Price must have at most 2 decimal places");
+        assertThatThrownBy(() -> new PriceUpdate(1L, null, new BigDecimal("123456789")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Price must be below 100000000");
+    }
+
+    private static PriceChange change(Long id, String sku, String price, long version) {
+        return new PriceChange(snapshot(id, sku, price, version), BigDecimal.ONE);
+    }
+
+    private static ProductSnapshot snapshot(Long id, String sku, String price, long version) {
+        return new ProductSnapshot(id, sku, "barcode-" + id, "Product " + id, new BigDecimal(price), 1L, version);
+    }
+}
@@ -0,0 +1,139 @@
+package com.kadirkara.product.service;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.kadirkara.product.cache.ProductCacheIndex;
+import com.kadirkara.product.cache.ProductPage;
+import com.kadirkara.product.cache.ProductPageSerializer;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.cache.ProductSnapshotSerializer;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductAsyncReader Unit Tests")
+public class ProductAsyncReaderTest {
+
+    private static HazelcastInstance hazelcastInstance;
+
+    @Mock
+    private ProductService productService;
+
+    private ProductAsyncReader productAsyncReader;
+
+    @BeforeAll
+    static void startHazelcast() {
+        Config config = new Config().setClusterName("async-read-" + UUID.randomUUID());
+        config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getSerializationConfig().getCompactSerializationConfig()
+                .addSerializer(new ProductSnapshotSerializer())
+                .addSerializer(new ProductPageSerializer());
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    static void stopHazelcast() {
+        hazelcastInstance.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        productAsyncReader = new ProductAsyncReader(productService, hazelcastInstance, 2, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productAsyncReader.shutdown();
+        hazelcastInstance.getMap(ProductCacheIndex.PRODUCTS_CACHE).clear();
+    }
+
+    @Test
+    @DisplayName("Should serve a cached product without calling the service")
+    void shouldServeCachedProduct() {
+        // Given
+        ProductSnapshot cached = snapshot(1L);
+        hazelcastInstance.getMap(ProductCacheIndex.PRODUCTS_CACHE).put(1L, cached);
+
+        // When
+        ProductSnapshot result = productAsyncReader.findById(1L).join();
+
+        // Then
+        assertThat(result).isEqualTo(cached);
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    @DisplayName("Should load a missing product on the read pool")
+    void shouldLoadMissOnReadPool() {
+        // Given
+        AtomicReference<String> loadingThread = new AtomicReference<>();
+        when(productService.findById(2L)).thenAnswer(invocation -> {
+            loadingThread.set(Thread.currentThread().getName());
+            return snapshot(2L);
+        });
+
+        // When
+        ProductSnapshot result = productAsyncReader.findById(2L).join();
+
+        // Then
+        assertThat(result.id()).isEqualTo(2L);
+        assertThat(loadingThread.get()).startsWith("product-read-");
+    }
+
+    @Test
+    @DisplayName("Should serve a cached page by its page key")
+    void shouldServeCachedPage() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        ProductPage cached = new ProductPage(List.of(snapshot(1L)), 0, 10, false);
+        hazelcastInstance.getMap(ProductCacheIndex.PRODUCTS_CACHE).put(ProductCacheIndex.pageKey(pageable), cached);
+
+        // When
+        ProductPage result = productAsyncReader.findAll(pageable).join();
+
+        // Then
+        assertThat(result.content()).containsExactly(snapshot(1L));
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    @DisplayName("Should complete exceptionally when the product does not exist")
+    void shouldFailForMissingProduct() {
+        // Given
+        when(productService.findById(3L)).thenThrow(new EntityNotFoundException("Product not found with id: 3"));
+
+        // When
+        CompletableFuture<ProductSnapshot> result = productAsyncReader.findById(3L);
+
+        // Then
+        assertThat(result).failsWithin(5, TimeUnit.SECONDS)
+                .withThrowableOfType(Exception.class)
+                .withCauseInstanceOf(EntityNotFoundException.class);
+    }
+
+    private ProductSnapshot snapshot(long id) {
+        return new ProductSnapshot(id, "SKU-" + id, "BC-" + id, "Product " + id, new BigDecimal("9.99"), 1L, 0L);
+    }
+}
@@ -0,0 +1,107 @@
+package com.kadirkara.product.service;
+
+import com.kadirkara.product.cache.ProductChange;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.repository.ProductOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductAuditService Unit Tests")
+public class ProductAuditServiceTest {
+
+    @Mock
+    private ProductOutbox productOutbox;
+
+    @Mock
+    private ProductAuditWriter productAuditWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductAuditService productAuditService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productAuditService = new ProductAuditService(productOutbox, productAuditWriter, transactionManager,
+                meterRegistry, 2, true);
+    }
+
+    @Test
+    @DisplayName("Should write the backlog a batch per transaction and mark each batch audited")
+    void shouldAuditBacklogInBatches() {
+        // Given
+        List<ProductOutbox.AuditEntry> first = List.of(entry(1L, ProductChange.Type.CREATED), entry(2L, ProductChange.Type.UPDATED));
+        List<ProductOutbox.AuditEntry> second = List.of(entry(3L, ProductChange.Type.DELETED));
+        when(productOutbox.tryLockAudit()).thenReturn(true);
+        when(productOutbox.claimAudit(2)).thenReturn(first).thenReturn(second);
+        when(productOutbox.oldestUnaudited()).thenReturn(Optional.empty());
+
+        // When
+        productAuditService.audit();
+
+        // Then
+        var inOrder = inOrder(productAuditWriter, productOutbox);
+        inOrder.verify(productAuditWriter).write(first);
+        inOrder.verify(productOutbox).markAudited(List.of(1L, 2L));
+        inOrder.verify(productAuditWriter).write(second);
+        inOrder.verify(productOutbox).markAudited(List.of(3L));
+        verify(transactionManager, times(2)).commit(any());
+        assertThat(meterRegistry.counter("product.audit.written").count()).isEqualTo(3);
+        assertThat(meterRegistry.timer("product.audit.batch").count()).isEqualTo(2);
+        assertThat(meterRegistry.get("product.audit.lag").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should leave the backlog to the member holding the audit lock and report how far it trails")
+    void shouldSkipWithoutAuditLock() {
+        // Given
+        when(productOutbox.tryLockAudit()).thenReturn(false);
+        when(productOutbox.oldestUnaudited()).thenReturn(Optional.of(LocalDateTime.now().minusMinutes(1)));
+
+        // When
+        productAuditService.audit();
+
+        // Then
+        verify(productOutbox, never()).claimAudit(anyInt());
+        verifyNoInteractions(productAuditWriter);
+        assertThat(meterRegistry.get("product.audit.lag").gauge().value()).isGreaterThanOrEqualTo(60);
+    }
+
+    @Test
+    @DisplayName("Should not audit when the pipeline is disabled")
+    void shouldNotAuditWhenDisabled() {
+        // Given
+        productAuditService = new ProductAuditService(productOutbox, productAuditWriter, transactionManager,
+                new SimpleMeterRegistry(), 2, false);
+
+        // When
+        productAuditService.audit();
+
+        // Then
+        verifyNoInteractions(productOutbox, productAuditWriter, transactionManager);
+    }
+
+    private static ProductOutbox.AuditEntry entry(long id, ProductChange.Type type) {
+        ProductSnapshot product = type == ProductChange.Type.DELETED ? null
+                : new ProductSnapshot(1L, "SKU001", "123456789", "Test Product", new BigDecimal("9.99"), 1L, id);
+        return new ProductOutbox.AuditEntry(id, type, 1L, product, "admin");
+    }
+}
@@ -0,0 +1,124 @@
+package com.kadirkara.product.service;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.ringbuffer.Ringbuffer;
+import com.kadirkara.product.cache.ProductChange;
+import com.kadirkara.product.cache.ProductChangeSerializer;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.cache.ProductSnapshotSerializer;
+import com.kadirkara.product.repository.ProductOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductChangeStream Unit Tests")
+public class ProductChangeStreamTest {
+
+    private static HazelcastInstance hazelcastInstance;
+
+    @Mock
+    private ProductOutbox productOutbox;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductChangeStream productChangeStream;
+
+    @BeforeAll
+    static void startHazelcast() {
+        Config config = new Config().setClusterName("product-changes-" + UUID.randomUUID());
+        config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getSerializationConfig().getCompactSerializationConfig()
+                .addSerializer(new ProductSnapshotSerializer())
+                .addSerializer(new ProductChangeSerializer());
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    static void stopHazelcast() {
+        hazelcastInstance.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productChangeStream = new ProductChangeStream(productOutbox, hazelcastInstance, transactionManager,
+                meterRegistry, 2, Duration.ofDays(7), true);
+    }
+
+    @Test
+    @DisplayName("Should publish the backlog in batches, in offset order, until it is drained")
+    void shouldRelayBacklogInOrder() throws Exception {
+        // Given
+        Ringbuffer<ProductChange> ringbuffer = hazelcastInstance.getRingbuffer(ProductChangeStream.PRODUCT_CHANGES);
+        long start = ringbuffer.tailSequence() + 1;
+        when(productOutbox.tryLockRelay()).thenReturn(true);
+        when(productOutbox.claim(2))
+                .thenReturn(List.of(change(1L, ProductChange.Type.CREATED), change(2L, ProductChange.Type.UPDATED)))
+                .thenReturn(List.of(change(3L, ProductChange.Type.DELETED)));
+
+        // When
+        productChangeStream.relay();
+
+        // Then
+        List<Long> offsets = new ArrayList<>();
+        ringbuffer.readManyAsync(start, 3, 3, null).toCompletableFuture().get()
+                .forEach(change -> offsets.add(change.offset()));
+        assertThat(offsets).containsExactly(1L, 2L, 3L);
+        assertThat(meterRegistry.counter("product.outbox.published").count()).isEqualTo(3);
+        verify(productOutbox, times(2)).claim(2);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should leave the backlog to the member holding the relay lock")
+    void shouldSkipWithoutRelayLock() {
+        // Given
+        when(productOutbox.tryLockRelay()).thenReturn(false);
+
+        // When
+        productChangeStream.relay();
+
+        // Then
+        verify(productOutbox, never()).claim(anyInt());
+    }
+
+    @Test
+    @DisplayName("Should reject a replay with a negative offset or an oversized limit")
+    void shouldRejectInvalidReplay() {
+        // When & Then
+        assertThatThrownBy(() -> productChangeStream.replay(-1, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> productChangeStream.replay(0, ProductChangeStream.MAX_REPLAY + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(productOutbox);
+    }
+
+    private static ProductChange change(long offset, ProductChange.Type type) {
+        ProductSnapshot product = type == ProductChange.Type.DELETED ? null
+                : new ProductSnapshot(1L, "SKU001", "123456789", "Test Product", new BigDecimal("9.99"), 1L, offset);
+        return new ProductChange(offset, type, 1L, product);
+    }
+}
@@ -0,0 +1,71 @@
+package com.kadirkara.product.service;
+
+import com.kadirkara.product.repository.ProductRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductCountEstimator Unit Tests")
+public class ProductCountEstimatorTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private ProductCountEstimator productCountEstimator;
+
+    @Test
+    @DisplayName("Should serve the statistics estimate without counting rows")
+    void shouldUseStatisticsEstimate() {
+        // Given
+        when(productRepository.estimateCount()).thenReturn(1_000L);
+
+        // When
+        long count = productCountEstimator.approximateCount();
+
+        // Then
+        assertThat(count).isEqualTo(1_000L);
+        verify(productRepository, never()).count();
+    }
+
+    @Test
+    @DisplayName("Should keep serving the last estimate until the next refresh")
+    void shouldServeCachedEstimateBetweenRefreshes() {
+        // Given
+        when(productRepository.estimateCount()).thenReturn(1_000L, 1_200L);
+        productCountEstimator.approximateCount();
+
+        // When
+        long beforeRefresh = productCountEstimator.approximateCount();
+        productCountEstimator.refresh();
+        long afterRefresh = productCountEstimator.approximateCount();
+
+        // Then
+        assertThat(beforeRefresh).isEqualTo(1_000L);
+        assertThat(afterRefresh).isEqualTo(1_200L);
+        verify(productRepository, times(2)).estimateCount();
+    }
+
+    @Test
+    @DisplayName("Should fall back to an exact count when statistics are unavailable")
+    void shouldFallBackToExactCount() {
+        // Given
+        when(productRepository.estimateCount())
+                .thenThrow(new InvalidDataAccessResourceUsageException("pg_stat_user_tables not found"));
+        when(productRepository.count()).thenReturn(42L);
+
+        // When
+        long count = productCountEstimator.approximateCount();
+
+        // Then
+        assertThat(count).isEqualTo(42L);
+    }
+}
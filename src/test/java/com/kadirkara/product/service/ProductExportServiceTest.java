@@ -0,0 +1,94 @@
+package com.kadirkara.product.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kadirkara.product.entity.Category;
+import com.kadirkara.product.entity.Product;
+import com.kadirkara.product.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductExportService Unit Tests")
+public class ProductExportServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ProductExportService productExportService;
+
+    private Category testCategory;
+
+    @BeforeEach
+    void setUp() {
+        productExportService = new ProductExportService(productRepository, entityManager, objectMapper);
+        testCategory = new Category();
+        testCategory.setId(1L);
+        testCategory.setName("Electronics");
+    }
+
+    @Test
+    @DisplayName("Should write one JSON object per line")
+    void shouldWriteOneProductPerLine() throws IOException {
+        // Given
+        when(productRepository.streamAllBy()).thenReturn(LongStream.rangeClosed(1, 3).mapToObj(this::product));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = productExportService.exportNdjson(out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(3);
+        assertThat(lines).hasSize(3);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("id").asLong()).isEqualTo(1L);
+        assertThat(first.get("name").asText()).isEqualTo("Product 1");
+        assertThat(first.get("price").decimalValue()).isEqualByComparingTo("10.50");
+        assertThat(first.get("categoryId").asLong()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should clear the persistence context periodically and close the stream")
+    void shouldClearPeriodicallyAndCloseStream() throws IOException {
+        // Given
+        AtomicBoolean closed = new AtomicBoolean();
+        long total = ProductExportService.CLEAR_INTERVAL * 2L + 500;
+        when(productRepository.streamAllBy()).thenReturn(
+                LongStream.rangeClosed(1, total).mapToObj(this::product).onClose(() -> closed.set(true)));
+
+        // When
+        long rows = productExportService.exportNdjson(OutputStream.nullOutputStream());
+
+        // Then
+        assertThat(rows).isEqualTo(total);
+        verify(entityManager, times(2)).clear();
+        assertThat(closed).isTrue();
+    }
+
+    private Product product(long id) {
+        return Product.from(id, "SKU-" + id, "BC-" + id, "Product " + id, "Description " + id,
+                new BigDecimal("10.50"), testCategory);
+    }
+}
@@ -0,0 +1,121 @@
+package com.kadirkara.product.service;
+
+import com.kadirkara.product.cache.PriceBuckets;
+import com.kadirkara.product.cache.ProductFacetCounts;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.dto.ProductFilter;
+import com.kadirkara.product.dto.ProductFilterResponse;
+import com.kadirkara.product.dto.ProductFilterResponse.CategoryFacet;
+import com.kadirkara.product.dto.ProductFilterResponse.PriceFacet;
+import com.kadirkara.product.mapper.ProductMapper;
+import com.kadirkara.product.repository.ProductFilterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductFilterService Unit Tests")
+public class ProductFilterServiceTest {
+
+    private static final PriceBuckets BUCKETS = new PriceBuckets(
+            BigDecimal.ZERO, new BigDecimal("10"), new BigDecimal("50"));
+
+    @Mock
+    private ProductFilterRepository productFilterRepository;
+
+    @Mock
+    private ProductFacetCounts productFacetCounts;
+
+    private ProductFilterService productFilterService;
+
+    @BeforeEach
+    void setUp() {
+        productFilterService = new ProductFilterService(productFilterRepository, productFacetCounts,
+                Mappers.getMapper(ProductMapper.class));
+        when(productFacetCounts.buckets()).thenReturn(BUCKETS);
+    }
+
+    @Test
+    @DisplayName("Should count each facet without its own filter, from the precomputed matrix")
+    void shouldCountDisjunctiveFacetsFromMatrix() {
+        // Given
+        ProductFilter filter = new ProductFilter(List.of(1L), new BigDecimal("10"), new BigDecimal("50"), null);
+        Pageable pageable = PageRequest.of(0, 2);
+        when(productFilterRepository.find(filter, pageable)).thenReturn(List.of(snapshot(1L), snapshot(2L), snapshot(3L)));
+        when(productFacetCounts.snapshot()).thenReturn(Map.of(
+                1L, new long[]{4, 3, 1},
+                2L, new long[]{0, 5, 2},
+                3L, new long[]{7, 0, 0}));
+
+        // When
+        ProductFilterResponse response = productFilterService.filter(filter, pageable);
+
+        // Then
+        assertThat(response.content()).hasSize(2);
+        assertThat(response.hasNext()).isTrue();
+        assertThat(response.categories()).containsExactly(new CategoryFacet(2L, 5), new CategoryFacet(1L, 3));
+        assertThat(response.prices()).containsExactly(
+                new PriceFacet(BigDecimal.ZERO, new BigDecimal("10"), 4),
+                new PriceFacet(new BigDecimal("10"), new BigDecimal("50"), 3),
+                new PriceFacet(new BigDecimal("50"), null, 1));
+        verify(productFilterRepository, never()).countByCategoryAndBucket(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should count categories in the database when a price bound falls inside a bucket")
+    void shouldCountUnalignedPriceRangeInDatabase() {
+        // Given
+        ProductFilter filter = new ProductFilter(null, new BigDecimal("12.50"), null, null);
+        Pageable pageable = PageRequest.of(0, 20);
+        when(productFilterRepository.find(filter, pageable)).thenReturn(List.of());
+        when(productFacetCounts.snapshot()).thenReturn(Map.of(1L, new long[]{4, 3, 1}));
+        when(productFilterRepository.countByCategoryAndBucket(filter.withoutCategories(), BUCKETS))
+                .thenReturn(Map.of(1L, new long[]{0, 2, 1}));
+
+        // When
+        ProductFilterResponse response = productFilterService.filter(filter, pageable);
+
+        // Then
+        assertThat(response.hasNext()).isFalse();
+        assertThat(response.categories()).containsExactly(new CategoryFacet(1L, 3));
+        assertThat(response.prices()).extracting(PriceFacet::count).containsExactly(4L, 3L, 1L);
+    }
+
+    @Test
+    @DisplayName("Should count by name prefix in the database, once for both facets")
+    void shouldCountNamePrefixInDatabase() {
+        // Given
+        ProductFilter filter = new ProductFilter(null, null, null, "Pho");
+        Pageable pageable = PageRequest.of(0, 20);
+        when(productFilterRepository.find(filter, pageable)).thenReturn(List.of(snapshot(1L)));
+        when(productFilterRepository.countByCategoryAndBucket(new ProductFilter(null, null, null, "Pho"), BUCKETS))
+                .thenReturn(Map.of(1L, new long[]{0, 0, 1}));
+
+        // When
+        ProductFilterResponse response = productFilterService.filter(filter, pageable);
+
+        // Then
+        assertThat(response.categories()).containsExactly(new CategoryFacet(1L, 1));
+        assertThat(response.prices()).extracting(PriceFacet::count).containsExactly(0L, 0L, 1L);
+        verify(productFacetCounts, never()).snapshot();
+        verify(productFilterRepository, times(1)).countByCategoryAndBucket(any(), any());
+    }
+
+    private static ProductSnapshot snapshot(Long id) {
+        return new ProductSnapshot(id, "SKU" + id, "barcode-" + id, "Product " + id, new BigDecimal("20.00"), 1L, 0L);
+    }
+}
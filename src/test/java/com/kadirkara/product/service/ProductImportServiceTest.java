@@ -0,0 +1,275 @@
+package com.kadirkara.product.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kadirkara.product.cache.ProductCacheIndex;
+import com.kadirkara.product.cache.ProductChange;
+import com.kadirkara.product.cache.ProductFacetCounts;
+import com.kadirkara.product.dto.ProductImportError;
+import com.kadirkara.product.dto.ProductImportResult;
+import com.kadirkara.product.entity.Category;
+import com.kadirkara.product.entity.Product;
+import com.kadirkara.product.mapper.ProductMapper;
+import com.kadirkara.product.repository.ProductOutbox;
+import com.kadirkara.product.search.ProductSearch;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductImportService Unit Tests")
+public class ProductImportServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private CategoryDirectory categoryDirectory;
+
+    @Mock
+    private ProductCacheIndex productCacheIndex;
+
+    @Mock
+    private ProductSearch productSearch;
+
+    @Mock
+    private ProductFacetCounts productFacetCounts;
+
+    @Mock(answer = Answers.RETURNS_SELF)
+    private ProductFacetCounts.Changes facetChanges;
+
+    @Mock
+    private CategoryStatsService categoryStatsService;
+
+    @Mock
+    private ProductOutbox productOutbox;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductImportService productImportService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(productFacetCounts.changes()).thenReturn(facetChanges);
+        productImportService = importService(2);
+    }
+
+    @Test
+    @DisplayName("Should import valid NDJSON rows and report invalid ones by line")
+    void shouldImportNdjsonAndReportInvalidRows() throws IOException {
+        // Given
+        when(categoryDirectory.idsOf(Set.of("Electronics", "Garden"))).thenReturn(Map.of("Electronics", 1L));
+        String body = """
+                {"name": "Phone", "price": 699.99, "sku": "SP-001", "category": {"name": "Electronics"}}
+                {"name": "", "price": 10, "sku": "SP-002", "category": {"name": "Electronics"}}
+                {"name": "Rake", "price": 15, "sku": "GD-001", "category": {"name": "Garden"}}
+                {"name": "Broken"
+                """;
+
+        // When
+        ProductImportResult result = productImportService.importNdjson(stream(body), true);
+
+        // Then
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.failed()).isEqualTo(3);
+        assertThat(result.errors()).extracting(ProductImportError::line).containsExactly(2L, 3L, 4L);
+        assertThat(result.errors().get(0).error()).isEqualTo("Name is required");
+        assertThat(result.errors().get(1).error()).isEqualTo("Category not found: Garden");
+        assertThat(result.errors().get(2).error()).startsWith("Malformed row");
+        ArgumentCaptor<Product> persisted = ArgumentCaptor.forClass(Product.class);
+        verify(entityManager).persist(persisted.capture());
+        assertThat(persisted.getValue().getName()).isEqualTo("Phone");
+        assertThat(persisted.getValue().getId()).isNull();
+        verify(productCacheIndex, times(1)).evictAllPages();
+    }
+
+    @Test
+    @DisplayName("Should import quoted CSV fields in batches and resolve each batch's categories in one call")
+    void shouldImportCsvInBatches() throws IOException {
+        // Given
+        when(categoryDirectory.idsOf(Set.of("Books"))).thenReturn(Map.of("Books", 2L));
+        when(entityManager.getReference(Category.class, 2L)).thenReturn(category(2L, "Books"));
+        String body = """
+                sku,name,price,category,description
+                BK-001,"Novel, Vol. 1",19.99,Books,"A ""bestselling"" novel"
+                BK-002,Novel Vol. 2,21.50,Books,
+                BK-003,Novel Vol. 3,22.00,Books,
+                """;
+
+        // When
+        ProductImportResult result = productImportService.importCsv(stream(body), true);
+
+        // Then
+        assertThat(result.imported()).isEqualTo(3);
+        assertThat(result.errors()).isEmpty();
+        ArgumentCaptor<Product> persisted = ArgumentCaptor.forClass(Product.class);
+        verify(entityManager, times(3)).persist(persisted.capture());
+        Product first = persisted.getAllValues().get(0);
+        assertThat(first.getName()).isEqualTo("Novel, Vol. 1");
+        assertThat(first.getDescription()).isEqualTo("A \"bestselling\" novel");
+        assertThat(first.getPrice()).isEqualByComparingTo(new BigDecimal("19.99"));
+        assertThat(first.getCategory().getId()).isEqualTo(2L);
+        verify(entityManager, times(2)).flush();
+        verify(categoryDirectory, times(2)).idsOf(Set.of("Books"));
+        verify(productCacheIndex, times(1)).evictAllPages();
+    }
+
+    @Test
+    @DisplayName("Should reject rows without a price instead of importing them at zero")
+    void shouldRejectRowsWithoutPrice() throws IOException {
+        // Given
+        String ndjson = """
+                {"name": "Phone", "sku": "SP-001", "category": {"name": "Electronics"}}
+                {"name": "Tablet", "price": null, "sku": "SP-002", "category": {"name": "Electronics"}}
+                """;
+        String csv = """
+                sku,name,price,category
+                BK-001,Novel,,Books
+                """;
+
+        // When
+        ProductImportResult fromNdjson = productImportService.importNdjson(stream(ndjson), true);
+        ProductImportResult fromCsv = productImportService.importCsv(stream(csv), true);
+
+        // Then
+        assertThat(fromNdjson.imported()).isZero();
+        assertThat(fromNdjson.errors()).containsExactly(
+                new ProductImportError(1, "Price is required"), new ProductImportError(2, "Price is required"));
+        assertThat(fromCsv.imported()).isZero();
+        assertThat(fromCsv.errors()).containsExactly(new ProductImportError(2, "Price is required"));
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    @DisplayName("Should reject prices the price column cannot hold instead of rounding or aborting the upload")
+    void shouldRejectUnstorablePrices() throws IOException {
+        // Given
+        String ndjson = """
+                {"name": "Phone", "price": 1e400, "sku": "SP-001", "category": {"name": "Electronics"}}
+                {"name": "Tablet", "price": 19.999, "sku": "SP-002", "category": {"name": "Electronics"}}
+                {"name": "Laptop", "price": 100000000, "sku": "SP-003", "category": {"name": "Electronics"}}
+                """;
+        String csv = """
+                sku,name,price,category
+                BK-001,Novel,Infinity,Books
+                BK-002,Atlas,NaN,Books
+                """;
+
+        // When
+        ProductImportResult fromNdjson = productImportService.importNdjson(stream(ndjson), true);
+        ProductImportResult fromCsv = productImportService.importCsv(stream(csv), true);
+
+        // Then
+        assertThat(fromNdjson.imported()).isZero();
+        assertThat(fromNdjson.errors()).containsExactly(
+                new ProductImportError(1, "Price must be a finite number"),
+                new ProductImportError(2, "Price must have at most 2 decimal places"),
+                new ProductImportError(3, "Price must be below 100000000"));
+        assertThat(fromCsv.imported()).isZero();
+        assertThat(fromCsv.errors()).extracting(ProductImportError::line).containsExactly(2L, 3L);
+        assertThat(fromCsv.errors().get(0).error()).isEqualTo("Price must be a finite number");
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    @DisplayName("Should leave a catalog load out of the audit log when audit is off")
+    void shouldSkipAuditWhenRequested() throws IOException {
+        // Given
+        when(categoryDirectory.idsOf(Set.of("Electronics"))).thenReturn(Map.of("Electronics", 1L));
+        String body = """
+                {"name": "Phone", "price": 699.99, "sku": "SP-001", "category": {"name": "Electronics"}}
+                """;
+
+        // When
+        ProductImportResult result = productImportService.importNdjson(stream(body), false);
+
+        // Then
+        assertThat(result.imported()).isEqualTo(1);
+        verify(productOutbox).appendAll(eq(ProductChange.Type.CREATED), anyList(), eq(false));
+    }
+
+    @Test
+    @DisplayName("Should replay a rejected batch row by row to report the offending line")
+    void shouldReplayRejectedBatchRowByRow() throws IOException {
+        // Given
+        when(categoryDirectory.idsOf(Set.of("Electronics"))).thenReturn(Map.of("Electronics", 1L));
+        doThrow(new PersistenceException("batch failed"))
+                .doNothing()
+                .doThrow(new PersistenceException("duplicate key value violates unique constraint"))
+                .when(entityManager).flush();
+        String body = """
+                {"name": "Phone", "price": 699.99, "barcode": "111", "category": {"name": "Electronics"}}
+                {"name": "Tablet", "price": 399.99, "barcode": "111", "category": {"name": "Electronics"}}
+                """;
+
+        // When
+        ProductImportResult result = productImportService.importNdjson(stream(body), true);
+
+        // Then
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.errors()).containsExactly(new ProductImportError(2,
+                "Rejected by the database: duplicate key value violates unique constraint"));
+        verify(transactionManager, times(2)).rollback(any());
+    }
+
+    @Test
+    @DisplayName("Should not touch the cache when nothing was imported")
+    void shouldNotEvictWhenNothingImported() throws IOException {
+        // When
+        ProductImportResult result = productImportService.importNdjson(stream("{\"name\": \"\"}\n"), true);
+
+        // Then
+        assertThat(result.imported()).isZero();
+        assertThat(result.failed()).isEqualTo(1);
+        verifyNoInteractions(productCacheIndex, entityManager);
+    }
+
+    @Test
+    @DisplayName("Should reject a CSV upload without the required columns")
+    void shouldRejectCsvWithoutRequiredColumns() {
+        // When & Then
+        assertThatThrownBy(() -> productImportService.importCsv(stream("sku,barcode\nSKU,123\n"), true))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("CSV header must name the columns");
+    }
+
+    private ProductImportService importService(int batchSize) {
+        return new ProductImportService(entityManager, categoryDirectory, Mappers.getMapper(ProductMapper.class),
+                productCacheIndex, productSearch, productFacetCounts, categoryStatsService, productOutbox,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), transactionManager, batchSize);
+    }
+
+    private static Category category(Long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,122 @@
+package com.kadirkara.product.service;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductLookupService Unit Tests")
+public class ProductLookupServiceTest {
+
+    private static HazelcastInstance hazelcastInstance;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductLookupService productLookupService;
+
+    @BeforeAll
+    static void startHazelcast() {
+        Config config = new Config().setClusterName("product-lookup-" + UUID.randomUUID());
+        config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    static void stopHazelcast() {
+        hazelcastInstance.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productLookupService = new ProductLookupService(productService, productRepository, hazelcastInstance, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hazelcastInstance.getMap(ProductLookupService.PRODUCT_KEYS).clear();
+    }
+
+    @Test
+    @DisplayName("Should resolve a barcode through the key cache after the first lookup")
+    void shouldCacheBarcodeToId() {
+        // Given
+        ProductSnapshot product = snapshot(1L, "SKU001", "123456789");
+        when(productRepository.findIdByBarcode("123456789")).thenReturn(Optional.of(1L));
+        when(productService.findById(1L)).thenReturn(product);
+
+        // When
+        ProductSnapshot first = productLookupService.findByBarcode("123456789");
+        ProductSnapshot second = productLookupService.findByBarcode("123456789");
+
+        // Then
+        assertThat(first).isEqualTo(product);
+        assertThat(second).isEqualTo(product);
+        verify(productRepository, times(1)).findIdByBarcode("123456789");
+        assertThat(meterRegistry.counter("product.lookup.key.cache", "result", "hit").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the database when the cached product no longer has the SKU")
+    void shouldDropStaleKey() {
+        // Given
+        hazelcastInstance.<String, Long>getMap(ProductLookupService.PRODUCT_KEYS).set("sku:SKU001", 1L);
+        when(productService.findById(1L)).thenReturn(snapshot(1L, "SKU999", "123456789"));
+        ProductSnapshot current = snapshot(2L, "SKU001", "987654321");
+        when(productRepository.findIdBySku("SKU001")).thenReturn(Optional.of(2L));
+        when(productService.findById(2L)).thenReturn(current);
+
+        // When
+        ProductSnapshot result = productLookupService.findBySku("SKU001");
+
+        // Then
+        assertThat(result).isEqualTo(current);
+        assertThat(hazelcastInstance.getMap(ProductLookupService.PRODUCT_KEYS).get("sku:SKU001")).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Should report a deleted product as not found")
+    void shouldNotFindDeletedProduct() {
+        // Given
+        hazelcastInstance.<String, Long>getMap(ProductLookupService.PRODUCT_KEYS).set("sku:SKU001", 1L);
+        when(productService.findById(1L)).thenThrow(new EntityNotFoundException("Product not found with id: 1"));
+        when(productRepository.findIdBySku("SKU001")).thenReturn(Optional.empty());
+
+        // When / Then
+        assertThatThrownBy(() -> productLookupService.findBySku("SKU001"))
+                .isInstanceOf(NoSuchElementException.class);
+        assertThat(hazelcastInstance.getMap(ProductLookupService.PRODUCT_KEYS).containsKey("sku:SKU001")).isFalse();
+    }
+
+    private static ProductSnapshot snapshot(Long id, String sku, String barcode) {
+        return new ProductSnapshot(id, sku, barcode, "Product " + id, new BigDecimal("9.99"), 1L, 0L);
+    }
+}
@@ -1,31 +1,45 @@
 package com.kadirkara.product.service;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kadirkara.product.cache.ProductCacheIndex;
+import com.kadirkara.product.cache.ProductChange;
+import com.kadirkara.product.cache.ProductFacetCounts;
+import com.kadirkara.product.cache.ProductPage;
+import com.kadirkara.product.cache.ProductSnapshot;
+import com.kadirkara.product.dto.ProductMergePatch;
 import com.kadirkara.product.entity.Category;
 import com.kadirkara.product.entity.Product;
+import com.kadirkara.product.exception.PreconditionFailedException;
 import com.kadirkara.product.repository.CategoryRepository;
+import com.kadirkara.product.repository.ProductOutbox;
 import com.kadirkara.product.repository.ProductRepository;
+import com.kadirkara.product.search.ProductSearch;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.Ignore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +52,30 @@ public class ProductServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private ProductCacheIndex productCacheIndex;
+
+    @Mock
+    private ProductCountEstimator productCountEstimator;
+
+    @Mock
+    private ProductSearch productSearch;
+
+    @Mock
+    private ProductFacetCounts productFacetCounts;
+
+    @Mock(answer = Answers.RETURNS_SELF)
+    private ProductFacetCounts.Changes facetChanges;
+
+    @Mock
+    private CategoryStatsService categoryStatsService;
+
+    @Mock
+    private CategoryDirectory categoryDirectory;
+
+    @Mock
+    private ProductOutbox productOutbox;
+
     @InjectMocks
     private ProductService productService;
 
@@ -46,6 +84,8 @@ public class ProductServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(productFacetCounts.changes()).thenReturn(facetChanges);
+
         testCategory = new Category();
         testCategory.setId(1L);
         testCategory.setName("Electronics");
@@ -58,38 +98,44 @@ public class ProductServiceTest {
         testProduct.setDescription("Test Description");
         testProduct.setPrice(BigDecimal.valueOf(99.99));
         testProduct.setCategory(testCategory);
+        lenient().when(categoryRepository.getReferenceById(1L)).thenReturn(testCategory);
     }
 
     @Test
     @DisplayName("Should save product successfully when category exists")
     void shouldSaveProductSuccessfully() {
         // Given
-        when(categoryRepository.findByName(anyString())).thenReturn(Optional.of(testCategory));
+        Product request = Product.create("SKU001", "123456789", "Test Product", "Test Description",
+                BigDecimal.valueOf(99.99), new Category(null, "Electronics", null, null, null));
+        when(categoryDirectory.idOf("Electronics")).thenReturn(Optional.of(1L));
         when(productRepository.save(any(Product.class))).thenReturn(testProduct);
 
         // When
-        Product savedProduct = productService.save(testProduct);
+        ProductSnapshot savedProduct = productService.save(request);
 
         // Then
         assertThat(savedProduct).isNotNull();
-        assertThat(savedProduct.getName()).isEqualTo("Test Product");
-        assertThat(savedProduct.getCategory().getName()).isEqualTo("Electronics");
-        verify(categoryRepository).findByName("Electronics");
-        verify(productRepository).save(any(Product.class));
+        assertThat(savedProduct.name()).isEqualTo("Test Product");
+        assertThat(savedProduct.categoryId()).isEqualTo(testCategory.getId());
+        verify(categoryDirectory).idOf("Electronics");
+        verify(categoryRepository, never()).findByName(anyString());
+        verify(productRepository).save(argThat(product -> product.getCategory() == testCategory));
+        verify(productOutbox).append(ProductChange.Type.CREATED, savedProduct);
     }
 
     @Test
-    @DisplayName("Should throw EntityNotFoundException when category does not exist")
+    @DisplayName("Should reject a product whose category does not exist")
     void shouldThrowExceptionWhenCategoryNotFound() {
         // Given
-        when(categoryRepository.findByName(anyString())).thenReturn(Optional.empty());
+        testProduct.setCategory(new Category(null, "Electronics", null, null, null));
+        when(categoryDirectory.idOf("Electronics")).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> productService.save(testProduct))
-                .isInstanceOf(EntityNotFoundException.class)
+                .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Category not found: Electronics");
 
-        verify(categoryRepository).findByName("Electronics");
+        verify(categoryDirectory).idOf("Electronics");
         verify(productRepository, never()).save(any(Product.class));
     }
 
@@ -98,16 +144,17 @@ public class ProductServiceTest {
     void shouldFindProductByIdSuccessfully() {
         // Given
         Long productId = 1L;
-        when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findSnapshotById(productId)).thenReturn(Optional.of(ProductSnapshot.from(testProduct)));
 
         // When
-        Product foundProduct = productService.findById(productId);
+        ProductSnapshot foundProduct = productService.findById(productId);
 
         // Then
         assertThat(foundProduct).isNotNull();
-        assertThat(foundProduct.getId()).isEqualTo(productId);
-        assertThat(foundProduct.getName()).isEqualTo("Test Product");
-        verify(productRepository).findById(productId);
+        assertThat(foundProduct.id()).isEqualTo(productId);
+        assertThat(foundProduct.name()).isEqualTo("Test Product");
+        verify(productRepository).findSnapshotById(productId);
+        verify(productRepository, never()).findById(productId);
     }
 
     @Test
@@ -115,14 +162,14 @@ public class ProductServiceTest {
     void shouldThrowExceptionWhenProductNotFoundById() {
         // Given
         Long productId = 999L;
-        when(productRepository.findById(productId)).thenReturn(Optional.empty());
+        when(productRepository.findSnapshotById(productId)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> productService.findById(productId))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Product not found with id: 999");
 
-        verify(productRepository).findById(productId);
+        verify(productRepository).findSnapshotById(productId);
     }
 
     @Test
@@ -131,26 +178,109 @@ public class ProductServiceTest {
         // Given
         Long productId = 1L;
 
+        when(productRepository.findSnapshotById(productId)).thenReturn(Optional.of(ProductSnapshot.from(testProduct)));
+
         // When
         productService.deleteById(productId);
 
         // Then
         verify(productRepository).deleteById(productId);
+        verify(productOutbox).appendDeleted(productId);
     }
 
     @Test
     @DisplayName("Should update product successfully")
     void shouldUpdateProductSuccessfully() {
         // Given
-        when(productRepository.save(testProduct)).thenReturn(testProduct);
+        Product stored = new Product(1L, "SKU001", "123456789", "Old Name", "Test Description",
+                testProduct.getPrice(), testCategory);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(stored));
 
         // When
-        Product updatedProduct = productService.update(testProduct);
+        ProductSnapshot updatedProduct = productService.update(testProduct);
 
         // Then
         assertThat(updatedProduct).isNotNull();
-        assertThat(updatedProduct.getId()).isEqualTo(testProduct.getId());
-        verify(productRepository).save(testProduct);
+        assertThat(updatedProduct.id()).isEqualTo(testProduct.getId());
+        assertThat(updatedProduct.name()).isEqualTo(testProduct.getName());
+        verify(productRepository).flush();
+    }
+
+    @Test
+    @DisplayName("Should not create a product on update: 404 without If-Match, 412 with one")
+    void shouldRejectUpdateOfMissingProduct() {
+        // Given
+        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> productService.update(testProduct, null))
+                .isInstanceOf(NoSuchElementException.class);
+        assertThatThrownBy(() -> productService.update(testProduct, 0L))
+                .isInstanceOf(PreconditionFailedException.class);
+        verify(productRepository, never()).save(any());
+        verifyNoInteractions(productOutbox);
+    }
+
+    @Test
+    @DisplayName("Should evict only affected pages when product price changes")
+    void shouldEvictOnlyAffectedPagesOnPriceChange() {
+        // Given
+        Product stored = new Product(1L, "SKU001", "123456789", "Test Product", "Test Description",
+                BigDecimal.valueOf(49.99), testCategory);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+        // When
+        productService.update(testProduct);
+
+        // Then
+        assertThat(stored.getPrice()).isEqualTo(testProduct.getPrice());
+        verify(productCacheIndex).evictPagesOf(1L, Set.of("price"));
+        verify(productCacheIndex, never()).evictAllPages();
+        verify(facetChanges).move(1L, BigDecimal.valueOf(49.99), 1L, testProduct.getPrice());
+        verify(categoryStatsService).refresh(List.of(1L, 1L));
+        verify(productOutbox).append(ProductChange.Type.UPDATED, ProductSnapshot.from(stored));
+    }
+
+    @Test
+    @DisplayName("Should patch only the fields present in the merge patch")
+    void shouldPatchOnlyPresentFields() throws Exception {
+        // Given
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        ProductMergePatch patch = new ProductMergePatch(new ObjectMapper().readTree("{\"price\": 79.99, \"description\": null}"));
+
+        // When
+        ProductSnapshot patched = productService.patch(1L, 0L, patch);
+
+        // Then
+        assertThat(patched.price()).isEqualByComparingTo("79.99");
+        assertThat(testProduct.getDescription()).isNull();
+        assertThat(testProduct.getName()).isEqualTo("Test Product");
+        verify(productRepository).flush();
+        verify(productRepository, never()).save(any());
+        verify(productCacheIndex).evictPagesOf(1L, Set.of("price", "description"));
+    }
+
+    @Test
+    @DisplayName("Should refuse to update a product that moved past the expected version")
+    void shouldRejectStaleVersion() {
+        // Given
+        testProduct.setVersion(4L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        // When & Then
+        assertThatThrownBy(() -> productService.update(testProduct, 3L))
+                .isInstanceOf(PreconditionFailedException.class);
+        verify(productRepository, never()).flush();
+    }
+
+    @Test
+    @DisplayName("Should evict all listing pages when product is deleted")
+    void shouldEvictAllPagesOnDelete() {
+        // When
+        productService.deleteById(1L);
+
+        // Then
+        verify(productCacheIndex).evictAllPages();
     }
 
     @Test
@@ -158,19 +288,22 @@ public class ProductServiceTest {
     void shouldFindAllProductsWithPagination() {
         // Given
         Pageable pageable = PageRequest.of(0, 10);
-        List<Product> products = List.of(testProduct);
-        Page<Product> productPage = new PageImpl<>(products, pageable, 1);
+        List<ProductSnapshot> products = List.of(ProductSnapshot.from(testProduct));
+        Slice<ProductSnapshot> productSlice = new SliceImpl<>(products, pageable, true);
 
-        when(productRepository.findAll(pageable)).thenReturn(productPage);
+        when(productRepository.findSnapshotsBy(pageable)).thenReturn(productSlice);
+        when(productCacheIndex.generation()).thenReturn(7L);
 
         // When
-        Page<Product> result = productService.findAll(pageable);
+        ProductPage result = productService.findAll(pageable);
 
         // Then
         assertThat(result).isNotNull();
-        assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getName()).isEqualTo("Test Product");
-        assertThat(result.getTotalElements()).isEqualTo(1);
-        verify(productRepository).findAll(pageable);
+        assertThat(result.content()).hasSize(1);
+        assertThat(result.content().get(0).name()).isEqualTo("Test Product");
+        assertThat(result.hasNext()).isTrue();
+        verify(productRepository).findSnapshotsBy(pageable);
+        verify(productRepository, never()).count();
+        verify(productCacheIndex).cachePage(pageable, result, 7L);
     }
 }
\ No newline at end of file